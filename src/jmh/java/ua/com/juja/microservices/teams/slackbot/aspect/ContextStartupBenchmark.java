@@ -0,0 +1,34 @@
+package ua.com.juja.microservices.teams.slackbot.aspect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ua.com.juja.microservices.teams.slackbot.TeamSlackBotApplication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a cold start of the bot with tracing enabled, every fork starts the application once. Run it as is for
+ * Spring AOP proxies and with -PaspectWeaving for aspects woven at compile time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ContextStartupBenchmark {
+
+    @Benchmark
+    public void startApplication() {
+        try (ConfigurableApplicationContext context = SpringApplication.run(TeamSlackBotApplication.class,
+                "--server.port=0", "--teams.slackbot.tracing.enabled=true")) {
+            context.getBean(TeamSlackBotApplication.class);
+        }
+    }
+}
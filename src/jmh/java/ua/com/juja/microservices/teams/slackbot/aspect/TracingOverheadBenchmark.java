@@ -0,0 +1,112 @@
+package ua.com.juja.microservices.teams.slackbot.aspect;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import ua.com.juja.microservices.teams.slackbot.config.AspectConfiguration;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+import ua.com.juja.microservices.teams.slackbot.service.UserService;
+import ua.com.juja.microservices.teams.slackbot.service.impl.UserServiceImpl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-call overhead of {@link TracingAspect} on a {@link Traced} service method with tracing enabled
+ * and disabled. Run it as is for Spring AOP proxies and with -PaspectWeaving for aspects woven at compile time,
+ * the 'baseline' benchmark calls the repository the service delegates to without any aspect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracingOverheadBenchmark {
+
+    private static final List<String> SLACK_IDS = Arrays.asList("U1A2B3C4D", "U5E6F7G8H");
+
+    @Param({"false", "true"})
+    private boolean tracing;
+
+    private AnnotationConfigApplicationContext context;
+    private UserRepository userRepository;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("teams.slackbot.tracing.enabled", tracing);
+        properties.put("teams.slackbot.tracing.sampleRate", 0.01);
+        properties.put("teams.slackbot.tracing.maxValueLength", 256);
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        context.register(TracingConfiguration.class);
+        context.refresh();
+        userRepository = context.getBean(UserRepository.class);
+        userService = context.getBean(UserService.class);
+        System.out.println();
+        System.out.println("Aspects woven at compile time: " + AspectConfiguration.isWoven());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> baseline() {
+        return userRepository.findUsersBySlackIds(SLACK_IDS);
+    }
+
+    @Benchmark
+    public List<User> tracedMethod() {
+        return userService.findUsersBySlackIds(SLACK_IDS);
+    }
+
+    @Configuration
+    @Import({AspectConfiguration.class, SimpleMeterRegistry.class})
+    static class TracingConfiguration {
+
+        @Bean
+        public UserRepository userRepository() {
+            List<User> users = Collections.singletonList(new User("uuid1", "U1A2B3C4D"));
+            return new UserRepository() {
+                @Override
+                public List<User> findUsersBySlackIds(List<String> slackIds) {
+                    return users;
+                }
+
+                @Override
+                public List<User> findUsersByUuids(List<String> uuids) {
+                    return users;
+                }
+            };
+        }
+
+        @Bean
+        public UserService userService(UserRepository userRepository) {
+            return new UserServiceImpl(userRepository);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares member to team lookups in {@link MemberTeamIndex} with a HashMap keyed by uuid strings. Looked up uuids
+ * are copies of the stored ones, so the map compares them char by char. Run with -prof gc to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberTeamIndexBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "100000", "500000"})
+    private int membersCount;
+
+    private MemberTeamIndex index;
+    private Map<String, Integer> hashMap;
+    private String[] lookups;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new MemberTeamIndex();
+        hashMap = new HashMap<>();
+        String[] members = new String[membersCount];
+        for (int i = 0; i < membersCount; i++) {
+            members[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+            index.put(members[i], i / 4);
+            hashMap.put(members[i], i / 4);
+        }
+        lookups = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = new String(members[random.nextInt(membersCount)].toCharArray());
+        }
+    }
+
+    @Benchmark
+    public int memberTeamIndex() {
+        return index.get(nextLookup());
+    }
+
+    @Benchmark
+    public Integer hashMap() {
+        return hashMap.get(nextLookup());
+    }
+
+    private String nextLookup() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return lookups[next];
+    }
+}
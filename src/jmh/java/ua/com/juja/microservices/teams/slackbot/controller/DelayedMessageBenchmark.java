@@ -0,0 +1,77 @@
+package ua.com.juja.microservices.teams.slackbot.controller;
+
+import me.ramswaroop.jbot.core.slack.models.RichMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import ua.com.juja.microservices.teams.slackbot.util.SlackIdHandler;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building of the delayed messages {@link TeamSlackbotController} sends to slack, with the message
+ * templates the bot is shipped with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelayedMessageBenchmark {
+
+    private static final String TEXT = "<@U1A2B3C4D> <@U5E6F7G8H> <@U9I0J1K2L> <@U3M4N5O6P>";
+    private static final String FROM_USER_ID = "U1A2B3C4D";
+
+    private String activateTeamDelayedMessage;
+    private String getTeamDelayedMessage;
+    private String getMyTeamDelayedMessage;
+    private String deactivateTeamDelayedMessage;
+    private Set<String> slackIds;
+
+    @Setup
+    public void setUp() throws IOException {
+        Properties messages = PropertiesLoaderUtils.loadProperties(
+                new ClassPathResource("messages/message.properties"));
+        activateTeamDelayedMessage = messages.getProperty("message.activate.team.delayed");
+        getTeamDelayedMessage = messages.getProperty("message.get.team.delayed");
+        getMyTeamDelayedMessage = messages.getProperty("message.get.my.team.delayed");
+        deactivateTeamDelayedMessage = messages.getProperty("message.deactivate.team.delayed");
+        slackIds = new LinkedHashSet<>(Arrays.asList("U5E6F7G8H", "U1A2B3C4D", "U3M4N5O6P", "U9I0J1K2L"));
+    }
+
+    @Benchmark
+    public RichMessage activateTeam() {
+        return new RichMessage(String.format(activateTeamDelayedMessage, TEXT));
+    }
+
+    @Benchmark
+    public RichMessage getTeam() {
+        return new RichMessage(String.format(getTeamDelayedMessage, TEXT, SlackIdHandler.wrapSlackIds(slackIds)));
+    }
+
+    @Benchmark
+    public RichMessage getMyTeam() {
+        return new RichMessage(String.format(getMyTeamDelayedMessage, SlackIdHandler.wrapSlackId(FROM_USER_ID),
+                SlackIdHandler.wrapSlackIds(slackIds)));
+    }
+
+    @Benchmark
+    public RichMessage deactivateTeam() {
+        return new RichMessage(String.format(deactivateTeamDelayedMessage, SlackIdHandler.wrapSlackIds(slackIds)));
+    }
+}
@@ -0,0 +1,96 @@
+package ua.com.juja.microservices.teams.slackbot.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import me.ramswaroop.jbot.core.slack.models.RichMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.util.JsonMapping;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON mapping done by RestTemplate for the Users and Teams services and for delayed messages to slack,
+ * with the shared readers and writers of {@link JsonMapping} used by its message converter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMappingBenchmark {
+
+    private static final int USERS_COUNT = 4;
+
+    private ObjectReader teamReader;
+    private ObjectReader usersReader;
+    private ObjectWriter teamWriter;
+    private ObjectWriter usersWriter;
+    private ObjectWriter richMessageWriter;
+    private Team team;
+    private User[] users;
+    private RichMessage richMessage;
+    private String teamJson;
+    private String usersJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        teamReader = JsonMapping.reader(Team.class);
+        usersReader = JsonMapping.reader(User[].class);
+        teamWriter = JsonMapping.writer(Team.class);
+        usersWriter = JsonMapping.writer(User[].class);
+        richMessageWriter = JsonMapping.writer(RichMessage.class);
+        users = new User[USERS_COUNT];
+        for (int i = 0; i < USERS_COUNT; i++) {
+            users[i] = new User("f827811f-51e8-4fc4-a56d-aebcd2193bc" + i, "U1A2B3C4" + i);
+        }
+        team = new Team("uuid-from", "59f1a63c1e4a4b0b9f1d8ab5",
+                new Date(), new Date(), new LinkedHashSet<>(Arrays.asList(users[0].getUuid(), users[1].getUuid(),
+                users[2].getUuid(), users[3].getUuid())));
+        richMessage = new RichMessage("Thanks, Team for '<@U1A2B3C40>' is "
+                + "'<@U1A2B3C40> <@U1A2B3C41> <@U1A2B3C42> <@U1A2B3C43>'!");
+        teamJson = teamWriter.writeValueAsString(team);
+        usersJson = usersWriter.writeValueAsString(users);
+    }
+
+    @Benchmark
+    public Team readTeam() throws IOException {
+        return teamReader.readValue(teamJson);
+    }
+
+    @Benchmark
+    public String writeTeam() throws JsonProcessingException {
+        return teamWriter.writeValueAsString(team);
+    }
+
+    @Benchmark
+    public User[] readUsers() throws IOException {
+        return usersReader.readValue(usersJson);
+    }
+
+    @Benchmark
+    public String writeUsers() throws JsonProcessingException {
+        return usersWriter.writeValueAsString(users);
+    }
+
+    @Benchmark
+    public String writeRichMessage() throws JsonProcessingException {
+        return richMessageWriter.writeValueAsString(richMessage);
+    }
+}
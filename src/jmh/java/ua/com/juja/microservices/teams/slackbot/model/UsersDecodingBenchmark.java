@@ -0,0 +1,65 @@
+package ua.com.juja.microservices.teams.slackbot.model;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.util.JsonMapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding of a Users service response into a User[] wrapped in a list, as the message converter does, with
+ * streaming the users straight into the result list. Run with -prof gc to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsersDecodingBenchmark {
+
+    @Param({"100", "10000", "50000"})
+    private int usersCount;
+
+    private ObjectReader usersArrayReader;
+    private byte[] usersJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        usersArrayReader = JsonMapping.reader(User[].class);
+        User[] users = new User[usersCount];
+        for (int i = 0; i < usersCount; i++) {
+            users[i] = new User(String.format("f827811f-51e8-4fc4-a56d-%012d", i), String.format("U%08d", i));
+        }
+        usersJson = JsonMapping.writer(User[].class).writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<User> readArray() throws IOException {
+        User[] users = usersArrayReader.readValue(new ByteArrayInputStream(usersJson));
+        return Arrays.asList(users);
+    }
+
+    @Benchmark
+    public List<User> readStreaming() throws IOException {
+        List<User> users = new ArrayList<>(usersCount);
+        JsonMapping.readArray(new ByteArrayInputStream(usersJson), User.class, users::add);
+        return users;
+    }
+}
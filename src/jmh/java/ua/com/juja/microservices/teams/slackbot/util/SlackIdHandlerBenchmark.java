@@ -0,0 +1,94 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the mention scanner of {@link SlackIdHandler} with the regular expression it replaced and measures
+ * wrapping of slack ids for messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlackIdHandlerBenchmark {
+
+    private static final String REGEX_SLACK_ID_PATTERN = "\\<@(.*?)(\\||\\>)";
+
+    @Param({"command", "longMessage", "manyMentions", "unterminated"})
+    private String textKind;
+
+    private String text;
+    private Set<String> slackIds;
+
+    @Setup
+    public void setUp() {
+        switch (textKind) {
+            case "command":
+                text = "<@U1A2B3C4D|ivan> <@U5E6F7G8H> <@U9I0J1K2L|alex> <@U3M4N5O6P>";
+                break;
+            case "longMessage":
+                text = repeat("Please activate the team of ", 500) + "<@U1A2B3C4D> <@U5E6F7G8H|alex>";
+                break;
+            case "manyMentions":
+                text = repeat("<@U1A2B3C4D|ivan> <@U5E6F7G8H> ", 200);
+                break;
+            case "unterminated":
+                text = repeat("<@U1A2B3C4D ", 1000);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown text kind: " + textKind);
+        }
+        slackIds = SlackIdHandler.getSlackIdsFromText(text);
+    }
+
+    @Benchmark
+    public Set<String> scanner() {
+        return SlackIdHandler.getSlackIdsFromText(text);
+    }
+
+    @Benchmark
+    public Set<String> regex() {
+        Set<String> found = new LinkedHashSet<>();
+        Matcher matcher = Pattern.compile(REGEX_SLACK_ID_PATTERN).matcher(text);
+        while (matcher.find()) {
+            found.add(matcher.group(1));
+        }
+        return found;
+    }
+
+    @Benchmark
+    public String wrapSlackId() {
+        return SlackIdHandler.wrapSlackId("U1A2B3C4D");
+    }
+
+    @Benchmark
+    public String wrapSlackIds() {
+        return SlackIdHandler.wrapSlackIds(slackIds);
+    }
+
+    private static String repeat(String part, int times) {
+        StringBuilder result = new StringBuilder(part.length() * times);
+        for (int i = 0; i < times; i++) {
+            result.append(part);
+        }
+        return result.toString();
+    }
+}
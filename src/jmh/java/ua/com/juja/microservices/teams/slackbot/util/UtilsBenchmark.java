@@ -0,0 +1,77 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of errors of the Users and Teams services and rewriting of uuids in their messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+
+    private static final String EXCEPTION_MESSAGE = "User(s) '#uuid-1,uuid-2,uuid-3,uuid-4#' exist(s) in another teams";
+    private static final String API_ERROR_BODY = "{" +
+            "\"httpStatus\":400," +
+            "\"internalErrorCode\":\"TMF-F1-D3\"," +
+            "\"clientMessage\":\"Sorry, but the user already exists in team!\"," +
+            "\"developerMessage\":\"The reason of the exception is that user already in team\"," +
+            "\"exceptionMessage\":\"" + EXCEPTION_MESSAGE + "\"," +
+            "\"detailErrors\":[]" +
+            "}";
+
+    private HttpClientErrorException apiErrorException;
+    private HttpClientErrorException unparseableErrorException;
+    private Set<String> slackIds;
+
+    @Setup
+    public void setUp() {
+        apiErrorException = new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Bad Request",
+                API_ERROR_BODY.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        unparseableErrorException = new HttpClientErrorException(HttpStatus.BAD_GATEWAY, "Bad Gateway",
+                "<html><body>502 Bad Gateway</body></html>".getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+        slackIds = new LinkedHashSet<>(Arrays.asList("U1A2B3C4D", "U5E6F7G8H", "U9I0J1K2L", "U3M4N5O6P"));
+    }
+
+    @Benchmark
+    public ApiError convertToApiError() {
+        return Utils.convertToApiError(apiErrorException);
+    }
+
+    @Benchmark
+    public ApiError convertUnparseableToApiError() {
+        return Utils.convertToApiError(unparseableErrorException);
+    }
+
+    @Benchmark
+    public Set<String> extractUuidsFromExceptionMessage() {
+        return Utils.extractUuidsFromExceptionMessage(EXCEPTION_MESSAGE);
+    }
+
+    @Benchmark
+    public String replaceUuidsBySlackIdsInExceptionMessage() {
+        return Utils.replaceUuidsBySlackIdsInExceptionMessage(EXCEPTION_MESSAGE, slackIds);
+    }
+}
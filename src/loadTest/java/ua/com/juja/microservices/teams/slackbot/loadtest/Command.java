@@ -0,0 +1,102 @@
+package ua.com.juja.microservices.teams.slackbot.loadtest;
+
+import java.util.Random;
+
+/**
+ * Slash commands sent by the load test. Users are numbered; users 4n..4n+3 form the n-th team of the stand-ins.
+ */
+enum Command {
+    ACTIVATE("activate", "teams.slackbot.endpoint.activateTeam") {
+        @Override
+        String text(int user) {
+            int first = firstOfTeam(user);
+            StringBuilder text = new StringBuilder();
+            for (int member = first; member < first + TEAM_SIZE; member++) {
+                text.append(mention(member)).append(' ');
+            }
+            return text.toString().trim();
+        }
+    },
+    DEACTIVATE("deactivate", "teams.slackbot.endpoint.deactivateTeam") {
+        @Override
+        String text(int user) {
+            return mention(user);
+        }
+    },
+    TEAMS("teams", "teams.slackbot.endpoint.getTeam") {
+        @Override
+        String text(int user) {
+            return mention(user);
+        }
+    },
+    MYTEAM("myteam", "teams.slackbot.endpoint.getMyTeam") {
+        @Override
+        String text(int user) {
+            return "";
+        }
+    };
+
+    static final int TEAM_SIZE = 4;
+
+    private final String name;
+    private final String endpointProperty;
+
+    Command(String name, String endpointProperty) {
+        this.name = name;
+        this.endpointProperty = endpointProperty;
+    }
+
+    /**
+     * @return text of the command sent by the user
+     */
+    abstract String text(int user);
+
+    /**
+     * @return user sending the command, picked so that the command succeeds against the stand-ins
+     */
+    int fromUser(int users, Random random) {
+        int user = random.nextInt(users - users % TEAM_SIZE);
+        return this == ACTIVATE ? firstOfTeam(user) : user;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getEndpointProperty() {
+        return endpointProperty;
+    }
+
+    static Command of(String name) {
+        for (Command command : values()) {
+            if (command.name.equals(name)) {
+                return command;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown command '%s'", name));
+    }
+
+    static String slackId(int user) {
+        return String.format("U%08d", user);
+    }
+
+    static String uuid(int user) {
+        return String.format("uuid-%08d", user);
+    }
+
+    static int userOfSlackId(String slackId) {
+        return Integer.parseInt(slackId.substring(1));
+    }
+
+    static int userOfUuid(String uuid) {
+        return Integer.parseInt(uuid.substring("uuid-".length()));
+    }
+
+    static int firstOfTeam(int user) {
+        return user - user % TEAM_SIZE;
+    }
+
+    private static String mention(int user) {
+        return String.format("<@%s|user%d>", slackId(user), user);
+    }
+}
@@ -0,0 +1,126 @@
+package ua.com.juja.microservices.teams.slackbot.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends slash commands to the bot at a fixed rate, whatever the bot's response times are. Commands are scheduled
+ * in advance and picked randomly according to the weights of the mix.
+ */
+@Slf4j
+class LoadGenerator {
+
+    private final LoadTestSettings settings;
+    private final LoadRecorder recorder;
+    private final String botBaseUrl;
+    private final String slackToken;
+    private final String responseBaseUrl;
+    private final Map<Command, String> endpoints = new EnumMap<>(Command.class);
+    private final List<Command> weightedCommands = new ArrayList<>();
+
+    LoadGenerator(LoadTestSettings settings, LoadRecorder recorder, Environment bot, String responseBaseUrl) {
+        this.settings = settings;
+        this.recorder = recorder;
+        this.botBaseUrl = "http://127.0.0.1:" + bot.getRequiredProperty("local.server.port");
+        this.slackToken = bot.getRequiredProperty("slack.slashCommandToken");
+        this.responseBaseUrl = responseBaseUrl + StandIns.RESPONSE_PATH;
+        for (Command command : Command.values()) {
+            endpoints.put(command, bot.getRequiredProperty(command.getEndpointProperty()));
+        }
+        settings.getMix().forEach((command, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weightedCommands.add(command);
+            }
+        });
+    }
+
+    /**
+     * Sends commands for warm-up and measured periods, then waits for delayed messages of measured commands.
+     */
+    void run() throws InterruptedException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(settings.getClientThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "load-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (CloseableHttpClient httpClient = HttpClients.custom()
+                .setMaxConnTotal(settings.getClientThreads())
+                .setMaxConnPerRoute(settings.getClientThreads())
+                .build()) {
+            Random random = new Random();
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRequestsPerSecond();
+            long start = System.nanoTime();
+            long measuredFrom = start + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+            long end = measuredFrom + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+            log.info("Sending '{}' commands per second: warm-up '{}' s, measured '{}' s",
+                    settings.getRequestsPerSecond(), settings.getWarmupSeconds(), settings.getDurationSeconds());
+            for (long scheduledAt = start; scheduledAt < end; scheduledAt += intervalNanos) {
+                waitUntil(scheduledAt);
+                Command command = weightedCommands.get(random.nextInt(weightedCommands.size()));
+                int fromUser = command.fromUser(settings.getUsers(), random);
+                long id = recorder.sent(command, scheduledAt, scheduledAt >= measuredFrom);
+                clients.execute(() -> send(httpClient, id, command, fromUser));
+            }
+            clients.shutdown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getDelayedTimeoutSeconds());
+            while (recorder.hasMeasuredPending() && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            recorder.finish();
+        } catch (IOException ex) {
+            log.warn("Failed to close load test http client: {}", ex.toString());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private void send(CloseableHttpClient httpClient, long id, Command command, int fromUser) {
+        HttpPost post = new HttpPost(botBaseUrl + endpoints.get(command));
+        List<NameValuePair> form = Arrays.asList(
+                new BasicNameValuePair("token", slackToken),
+                new BasicNameValuePair("user_id", Command.slackId(fromUser)),
+                new BasicNameValuePair("text", command.text(fromUser)),
+                new BasicNameValuePair("response_url", responseBaseUrl + id));
+        post.setEntity(new UrlEncodedFormEntity(form, StandardCharsets.UTF_8));
+        String reply = null;
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            if (response.getStatusLine().getStatusCode() == 200) {
+                reply = body;
+            }
+        } catch (IOException ex) {
+            log.debug("Command '{}' failed: {}", id, ex.toString());
+        }
+        recorder.instantReplied(id, reply);
+    }
+
+    private static void waitUntil(long nanos) {
+        long delay;
+        while ((delay = nanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(delay);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package ua.com.juja.microservices.teams.slackbot.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Matches instant replies and delayed messages to the commands sent and records their latencies. Latencies are
+ * measured from the moment a command was scheduled to be sent, so a stalled bot or load generator shows up in
+ * the numbers instead of lowering the request rate. A command fails when either of its messages is not a success
+ * message, or when its delayed message does not arrive in time.
+ */
+class LoadRecorder {
+
+    private static final String SUCCESS_PREFIX = "Thanks";
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final ConcurrentMap<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<Command, CommandStats> stats = new EnumMap<>(Command.class);
+
+    LoadRecorder() {
+        for (Command command : Command.values()) {
+            stats.put(command, new CommandStats());
+        }
+    }
+
+    /**
+     * @return id of the command, which the delayed message is sent for
+     */
+    long sent(Command command, long scheduledAtNanos, boolean measured) {
+        long id = nextId.incrementAndGet();
+        pending.put(id, new Pending(command, scheduledAtNanos, measured));
+        if (measured) {
+            stats.get(command).sent.increment();
+        }
+        return id;
+    }
+
+    /**
+     * @param reply text of the instant reply or null if the bot did not reply
+     */
+    void instantReplied(long id, String reply) {
+        Pending command = pending.get(id);
+        if (command == null) {
+            return;
+        }
+        if (command.measured) {
+            stats.get(command.command).instant.recordValue(microsSince(command.scheduledAtNanos));
+            if (reply == null || !reply.trim().startsWith(SUCCESS_PREFIX)) {
+                fail(command);
+            }
+        }
+        done(id, command);
+    }
+
+    void delayedReceived(long id, String message) {
+        Pending command = pending.get(id);
+        if (command == null || command.delayedReceived) {
+            return;
+        }
+        command.delayedReceived = true;
+        if (command.measured) {
+            CommandStats commandStats = stats.get(command.command);
+            commandStats.delayed.recordValue(microsSince(command.scheduledAtNanos));
+            commandStats.completed.increment();
+            if (message == null || !message.trim().startsWith(SUCCESS_PREFIX)) {
+                fail(command);
+            }
+        }
+        done(id, command);
+    }
+
+    boolean hasMeasuredPending() {
+        return pending.values().stream().anyMatch(command -> command.measured && !command.delayedReceived);
+    }
+
+    /**
+     * Counts commands still waiting for their delayed message as lost.
+     */
+    void finish() {
+        pending.values().stream()
+                .filter(command -> command.measured && !command.delayedReceived)
+                .forEach(command -> {
+                    stats.get(command.command).lost.increment();
+                    fail(command);
+                });
+        pending.clear();
+    }
+
+    void report(PrintStream out, long measuredSeconds) {
+        out.println();
+        out.printf("%-10s %8s %8s %8s %7s | %-35s | %-35s%n", "command", "sent", "done/s", "lost", "errors",
+                "instant p50/p99/p999/max, ms", "delayed p50/p99/p999/max, ms");
+        CommandStats total = new CommandStats();
+        for (Map.Entry<Command, CommandStats> entry : stats.entrySet()) {
+            CommandStats commandStats = entry.getValue();
+            if (commandStats.sent.sum() > 0) {
+                printRow(out, entry.getKey().getName(), commandStats, measuredSeconds);
+                total.add(commandStats);
+            }
+        }
+        printRow(out, "total", total, measuredSeconds);
+    }
+
+    private void printRow(PrintStream out, String name, CommandStats commandStats, long measuredSeconds) {
+        long sent = commandStats.sent.sum();
+        out.printf("%-10s %8d %8.1f %8d %6.2f%% | %-35s | %-35s%n", name, sent,
+                commandStats.completed.sum() / (double) Math.max(1, measuredSeconds), commandStats.lost.sum(),
+                sent == 0 ? 0.0 : 100.0 * commandStats.failed.sum() / sent,
+                percentiles(commandStats.instant), percentiles(commandStats.delayed));
+    }
+
+    private static String percentiles(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return "-";
+        }
+        return String.format("%.1f / %.1f / %.1f / %.1f", millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private void done(long id, Pending command) {
+        if (command.outstandingMessages.decrementAndGet() == 0) {
+            pending.remove(id);
+        }
+    }
+
+    private void fail(Pending command) {
+        if (command.failed.compareAndSet(false, true)) {
+            stats.get(command.command).failed.increment();
+        }
+    }
+
+    private static long microsSince(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(Math.max(0, System.nanoTime() - nanos));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Pending {
+        private final Command command;
+        private final long scheduledAtNanos;
+        private final boolean measured;
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private final AtomicInteger outstandingMessages = new AtomicInteger(2);
+        private volatile boolean delayedReceived;
+
+        private Pending(Command command, long scheduledAtNanos, boolean measured) {
+            this.command = command;
+            this.scheduledAtNanos = scheduledAtNanos;
+            this.measured = measured;
+        }
+    }
+
+    private static final class CommandStats {
+        private final Histogram instant = new ConcurrentHistogram(3);
+        private final Histogram delayed = new ConcurrentHistogram(3);
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder lost = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        private void add(CommandStats other) {
+            instant.add(other.instant);
+            delayed.add(other.delayed);
+            sent.add(other.sent.sum());
+            completed.add(other.completed.sum());
+            lost.add(other.lost.sum());
+            failed.add(other.failed.sum());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ua.com.juja.microservices.teams.slackbot.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ua.com.juja.microservices.teams.slackbot.TeamSlackBotApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the bot against stand-ins of the Users and Teams services and of slack, sends it slash commands at a fixed
+ * rate and prints latencies of the instant replies and of the delayed messages, throughput and error rate.
+ * Run it with 'gradle loadTest', see {@link LoadTestSettings} for the settings.
+ */
+@Slf4j
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        log.info("Load test settings: '{}'", settings);
+        LoadRecorder recorder = new LoadRecorder();
+        try (StandIns standIns = new StandIns(settings, recorder);
+             ConfigurableApplicationContext bot = SpringApplication.run(TeamSlackBotApplication.class,
+                     botArgs(settings, standIns))) {
+            new LoadGenerator(settings, recorder, bot.getEnvironment(), standIns.getSlackBaseUrl()).run();
+            recorder.report(System.out, settings.getDurationSeconds());
+            System.out.println(standIns.summary());
+        }
+    }
+
+    private static String[] botArgs(LoadTestSettings settings, StandIns standIns) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--users.baseURL=" + standIns.getUsersBaseUrl());
+        args.add("--teams.baseURL=" + standIns.getTeamsBaseUrl());
+        args.add("--slack.responseUrl.baseURL=" + standIns.getSlackBaseUrl());
+        args.add("--logging.level.ua.com.juja.microservices=WARN");
+        args.add("--logging.level.ua.com.juja.microservices.teams.slackbot.loadtest=INFO");
+        args.addAll(settings.getBotArgs());
+        return args.toArray(new String[args.size()]);
+    }
+}
@@ -0,0 +1,101 @@
+package ua.com.juja.microservices.teams.slackbot.loadtest;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Settings of a load test run, read from system properties with the 'loadtest.' prefix. Properties with the
+ * 'loadtest.bot.' prefix are passed to the bot as is, e.g. -Dloadtest.bot.teams.slackbot.async.enabled=true.
+ */
+@Getter
+@ToString
+class LoadTestSettings {
+
+    private static final String PREFIX = "loadtest.";
+    private static final String BOT_PREFIX = PREFIX + "bot.";
+
+    private final int requestsPerSecond;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int delayedTimeoutSeconds;
+    private final int clientThreads;
+    private final int users;
+    private final Map<Command, Integer> mix;
+    private final StandInSettings usersService;
+    private final StandInSettings teamsService;
+    private final StandInSettings slack;
+    private final List<String> botArgs;
+
+    private LoadTestSettings(Properties properties) {
+        requestsPerSecond = getInt(properties, "requestsPerSecond", 50);
+        warmupSeconds = getInt(properties, "warmupSeconds", 10);
+        durationSeconds = getInt(properties, "durationSeconds", 60);
+        delayedTimeoutSeconds = getInt(properties, "delayedTimeoutSeconds", 30);
+        clientThreads = getInt(properties, "clientThreads", 64);
+        users = getInt(properties, "users", 1000);
+        mix = parseMix(properties.getProperty(PREFIX + "mix", "activate=1,deactivate=1,teams=4,myteam=4"));
+        usersService = new StandInSettings(properties, "users", 20);
+        teamsService = new StandInSettings(properties, "teams", 30);
+        slack = new StandInSettings(properties, "slack", 50);
+        botArgs = new ArrayList<>();
+        properties.stringPropertyNames().stream()
+                .filter(name -> name.startsWith(BOT_PREFIX))
+                .sorted()
+                .forEach(name -> botArgs.add(String.format("--%s=%s", name.substring(BOT_PREFIX.length()),
+                        properties.getProperty(name))));
+        if (requestsPerSecond <= 0 || users < Command.TEAM_SIZE) {
+            throw new IllegalArgumentException("Requests per second must be positive and users must form a team!");
+        }
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(System.getProperties());
+    }
+
+    private static Map<Command, Integer> parseMix(String mix) {
+        Map<Command, Integer> weights = new EnumMap<>(Command.class);
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException(String.format("Wrong mix part '%s', expected command=weight", part));
+            }
+            weights.put(Command.of(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Mix must have at least one command with positive weight!");
+        }
+        return weights;
+    }
+
+    private static int getInt(Properties properties, String name, int defaultValue) {
+        return Integer.parseInt(properties.getProperty(PREFIX + name, String.valueOf(defaultValue)));
+    }
+
+    private static double getDouble(Properties properties, String name, double defaultValue) {
+        return Double.parseDouble(properties.getProperty(PREFIX + name, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Behaviour of one stand-in: every answer takes latencyMillis plus a uniformly random jitter, and the given
+     * share of requests is answered with 503.
+     */
+    @Getter
+    @ToString
+    static class StandInSettings {
+        private final long latencyMillis;
+        private final long latencyJitterMillis;
+        private final double failureRate;
+
+        private StandInSettings(Properties properties, String service, long defaultLatencyMillis) {
+            latencyMillis = getInt(properties, service + ".latencyMillis", (int) defaultLatencyMillis);
+            latencyJitterMillis = getInt(properties, service + ".latencyJitterMillis", 0);
+            failureRate = getDouble(properties, service + ".failureRate", 0.0);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ua.com.juja.microservices.teams.slackbot.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP server standing in for a remote service. Every request is answered after the configured latency,
+ * and the configured share of requests fails with 503 as an overloaded service would.
+ */
+@Slf4j
+class StandInServer implements AutoCloseable {
+
+    static final String JSON = "application/json;charset=UTF-8";
+    static final String TEXT = "text/plain;charset=UTF-8";
+
+    private static final byte[] UNAVAILABLE_BODY = ("{\"httpStatus\":503,\"internalErrorCode\":\"LOAD-TEST\"," +
+            "\"clientMessage\":\"Stand-in failure\",\"developerMessage\":\"Stand-in failure\"," +
+            "\"exceptionMessage\":\"Stand-in failure\",\"detailErrors\":[]}").getBytes(StandardCharsets.UTF_8);
+
+    private final String name;
+    private final LoadTestSettings.StandInSettings settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    StandInServer(String name, LoadTestSettings.StandInSettings settings) throws IOException {
+        this.name = name;
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name + "-stand-in-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Handles all requests with paths starting with the given one.
+     */
+    void route(String path, String contentType, Handler handler) {
+        server.createContext(path, exchange -> handle(exchange, contentType, handler));
+    }
+
+    void start() {
+        server.start();
+        log.info("Stand-in for '{}' started at '{}' with '{}'", name, getBaseUrl(), settings);
+    }
+
+    String getBaseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return String.format("http://%s:%d", address.getHostString(), address.getPort());
+    }
+
+    long getRequestCount() {
+        return requests.sum();
+    }
+
+    long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange, String contentType, Handler handler) throws IOException {
+        requests.increment();
+        int status = 200;
+        byte[] response;
+        try {
+            simulateLatency();
+            if (ThreadLocalRandom.current().nextDouble() < settings.getFailureRate()) {
+                failures.increment();
+                status = 503;
+                response = JSON.equals(contentType) ? UNAVAILABLE_BODY : new byte[0];
+            } else {
+                response = handler.handle(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                        StreamUtils.copyToByteArray(exchange.getRequestBody()));
+            }
+        } catch (Exception ex) {
+            log.warn("Stand-in for '{}' failed to handle '{}': {}", name, exchange.getRequestURI(), ex.toString());
+            status = 500;
+            response = new byte[0];
+        }
+        try (OutputStream body = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, response.length == 0 ? -1 : response.length);
+            body.write(response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        long latency = settings.getLatencyMillis();
+        if (settings.getLatencyJitterMillis() > 0) {
+            latency += ThreadLocalRandom.current().nextLong(settings.getLatencyJitterMillis() + 1);
+        }
+        if (latency > 0) {
+            TimeUnit.MILLISECONDS.sleep(latency);
+        }
+    }
+
+    interface Handler {
+        byte[] handle(String method, String path, byte[] body) throws IOException;
+    }
+}
@@ -0,0 +1,113 @@
+package ua.com.juja.microservices.teams.slackbot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stand-ins for the Users and Teams services and for slack's response_url. Users are numbered: the user n has
+ * slack id U0000000n and uuid uuid-0000000n, and users 4k..4k+3 form the team team-k. The stand-ins keep no state,
+ * so every command gets a consistent answer however the commands are interleaved.
+ */
+class StandIns implements AutoCloseable {
+
+    static final String RESPONSE_PATH = "/response/";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final StandInServer users;
+    private final StandInServer teams;
+    private final StandInServer slack;
+
+    StandIns(LoadTestSettings settings, LoadRecorder recorder) throws IOException {
+        users = new StandInServer("users", settings.getUsersService());
+        users.route("/v1/users/usersBySlackIds", StandInServer.JSON,
+                (method, path, body) -> findUsers(body, "slackIds", true));
+        users.route("/v1/users/usersByUuids", StandInServer.JSON,
+                (method, path, body) -> findUsers(body, "uuids", false));
+        teams = new StandInServer("teams", settings.getTeamsService());
+        teams.route("/v1/teams", StandInServer.JSON, this::handleTeams);
+        slack = new StandInServer("slack", settings.getSlack());
+        slack.route(RESPONSE_PATH, StandInServer.TEXT, (method, path, body) -> {
+            long id = Long.parseLong(path.substring(RESPONSE_PATH.length()));
+            recorder.delayedReceived(id, mapper.readTree(body).path("text").asText(null));
+            return "ok".getBytes(StandardCharsets.UTF_8);
+        });
+        users.start();
+        teams.start();
+        slack.start();
+    }
+
+    String getUsersBaseUrl() {
+        return users.getBaseUrl();
+    }
+
+    String getTeamsBaseUrl() {
+        return teams.getBaseUrl();
+    }
+
+    String getSlackBaseUrl() {
+        return slack.getBaseUrl();
+    }
+
+    String summary() {
+        return String.format("Stand-in requests (failed): users %d (%d), teams %d (%d), slack %d (%d)",
+                users.getRequestCount(), users.getFailureCount(), teams.getRequestCount(), teams.getFailureCount(),
+                slack.getRequestCount(), slack.getFailureCount());
+    }
+
+    @Override
+    public void close() {
+        users.close();
+        teams.close();
+        slack.close();
+    }
+
+    private byte[] findUsers(byte[] body, String idsField, boolean bySlackIds) throws IOException {
+        List<Map<String, String>> found = new ArrayList<>();
+        for (JsonNode id : mapper.readTree(body).path(idsField)) {
+            int user = bySlackIds ? Command.userOfSlackId(id.asText()) : Command.userOfUuid(id.asText());
+            Map<String, String> json = new LinkedHashMap<>();
+            json.put("uuid", Command.uuid(user));
+            json.put("slackId", Command.slackId(user));
+            found.add(json);
+        }
+        return mapper.writeValueAsBytes(found);
+    }
+
+    private byte[] handleTeams(String method, String path, byte[] body) throws IOException {
+        switch (method) {
+            case "POST":
+                JsonNode activateRequest = mapper.readTree(body);
+                String firstMember = activateRequest.path("members").path(0).asText();
+                return team(activateRequest.path("from").asText(), Command.userOfUuid(firstMember));
+            case "PUT":
+                JsonNode deactivateRequest = mapper.readTree(body);
+                return team(deactivateRequest.path("from").asText(),
+                        Command.userOfUuid(deactivateRequest.path("uuid").asText()));
+            case "GET":
+                String uuid = path.substring(path.lastIndexOf('/') + 1);
+                return team(uuid, Command.userOfUuid(uuid));
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected method '%s'", method));
+        }
+    }
+
+    private byte[] team(String from, int member) throws IOException {
+        int first = Command.firstOfTeam(member);
+        List<String> members = new ArrayList<>();
+        for (int user = first; user < first + Command.TEAM_SIZE; user++) {
+            members.add(Command.uuid(user));
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("from", from);
+        json.put("id", "team-" + first / Command.TEAM_SIZE);
+        json.put("members", members);
+        return mapper.writeValueAsBytes(json);
+    }
+}
@@ -1,23 +1,24 @@
 package ua.com.juja.microservices.teams.slackbot;
 
-import org.apache.http.impl.client.HttpClients;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
+import ua.com.juja.microservices.teams.slackbot.util.JsonMappingHttpMessageConverter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @SpringBootApplication
-@EnableAspectJAutoProxy
 @PropertySource(value = {"classpath:application.properties", "classpath:messages/message.properties"})
 public class TeamSlackBotApplication {
 
@@ -26,19 +27,26 @@ public class TeamSlackBotApplication {
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate(httpRequestFactory());
+    public RestTemplate restTemplate(ClientHttpRequestFactory httpRequestFactory,
+                                     ClientHttpRequestInterceptor downstreamMetricsInterceptor) {
+        RestTemplate restTemplate = new RestTemplate(httpRequestFactory);
         restTemplate.setMessageConverters(getHttpMessageConverters());
+        restTemplate.setInterceptors(Collections.singletonList(downstreamMetricsInterceptor));
         return restTemplate;
     }
 
-    private ClientHttpRequestFactory httpRequestFactory() {
-        return new HttpComponentsClientHttpRequestFactory(HttpClients.createDefault());
+    @Bean
+    public AsyncRestTemplate asyncRestTemplate(AsyncClientHttpRequestFactory httpRequestFactory,
+                                               AsyncClientHttpRequestInterceptor downstreamMetricsInterceptor) {
+        AsyncRestTemplate asyncRestTemplate = new AsyncRestTemplate(httpRequestFactory);
+        asyncRestTemplate.setMessageConverters(getHttpMessageConverters());
+        asyncRestTemplate.setInterceptors(Collections.singletonList(downstreamMetricsInterceptor));
+        return asyncRestTemplate;
     }
 
     private List<HttpMessageConverter<?>> getHttpMessageConverters() {
         List<HttpMessageConverter<?>> converters = new ArrayList<>();
-        converters.add(new MappingJackson2HttpMessageConverter());
+        converters.add(new JsonMappingHttpMessageConverter());
         converters.add(new StringHttpMessageConverter());
         return converters;
     }
@@ -4,13 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.springframework.stereotype.Component;
 import ua.com.juja.microservices.teams.slackbot.exceptions.BaseBotException;
 
 import java.util.Arrays;
 
 @Aspect
-@Component
 @Slf4j
 public class DebugAroundExceptionLogger {
 
@@ -0,0 +1,22 @@
+package ua.com.juja.microservices.teams.slackbot.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean method to be traced by {@link TracingAspect} when tracing is enabled with
+ * 'teams.slackbot.tracing.enabled'. Every call is timed, a sample of calls is logged with arguments and result.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Traced {
+
+    /**
+     * Share of calls from 0 to 1 logged with arguments and result, 'teams.slackbot.tracing.sampleRate' if negative
+     */
+    double sampleRate() default -1;
+}
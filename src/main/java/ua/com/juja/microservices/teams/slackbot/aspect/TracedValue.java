@@ -0,0 +1,77 @@
+package ua.com.juja.microservices.teams.slackbot.aspect;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Renders a value for a log line only when the line is written, arrays, collections and maps are walked element by
+ * element and rendering stops after maxLength chars, so a large argument is never rendered whole.
+ */
+class TracedValue {
+
+    private static final String ELLIPSIS = "...";
+
+    private final Object value;
+    private final int maxLength;
+
+    TracedValue(Object value, int maxLength) {
+        this.value = value;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (!render(value, builder)) {
+            builder.setLength(Math.min(builder.length(), maxLength));
+            builder.append(ELLIPSIS);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return false if rendering stopped because of maxLength
+     */
+    private boolean render(Object value, StringBuilder builder) {
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            builder.append('[');
+            for (int i = 0; i < length; i++) {
+                if (!renderElement(i, Array.get(value, i), builder)) {
+                    return false;
+                }
+            }
+            builder.append(']');
+        } else if (value instanceof Iterable) {
+            return renderAll(((Iterable<?>) value).iterator(), '[', ']', builder);
+        } else if (value instanceof Map) {
+            return renderAll(((Map<?, ?>) value).entrySet().iterator(), '{', '}', builder);
+        } else {
+            builder.append(value);
+        }
+        return builder.length() <= maxLength;
+    }
+
+    private boolean renderAll(Iterator<?> iterator, char open, char close, StringBuilder builder) {
+        builder.append(open);
+        for (int i = 0; iterator.hasNext(); i++) {
+            if (!renderElement(i, iterator.next(), builder)) {
+                return false;
+            }
+        }
+        builder.append(close);
+        return builder.length() <= maxLength;
+    }
+
+    private boolean renderElement(int index, Object element, StringBuilder builder) {
+        if (index > 0) {
+            builder.append(", ");
+        }
+        if (element instanceof Map.Entry) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) element;
+            return render(entry.getKey(), builder) && render(entry.getValue(), builder.append('='));
+        }
+        return render(element, builder);
+    }
+}
@@ -0,0 +1,129 @@
+package ua.com.juja.microservices.teams.slackbot.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.inject.Inject;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces methods annotated with {@link Traced}. Every call is timed as the 'traced.method' timer, a sample of calls
+ * is logged at debug level with size-bounded arguments and result. The aspect bean is declared in
+ * {@link ua.com.juja.microservices.teams.slackbot.config.AspectConfiguration} only if 'teams.slackbot.tracing.enabled'
+ * is true, so while tracing is disabled no bean is proxied for it.
+ * <p>
+ * Dependencies are injected into fields, since an aspect woven at compile time is instantiated by AspectJ.
+ */
+@Aspect
+@Slf4j
+public class TracingAspect {
+
+    private static final String NO_EXCEPTION = "None";
+
+    private final Map<Method, TracedMethod> tracedMethods = new ConcurrentHashMap<>();
+
+    @Inject
+    private MeterRegistry meterRegistry;
+    @Value("${teams.slackbot.tracing.sampleRate}")
+    private double defaultSampleRate;
+    @Value("${teams.slackbot.tracing.maxValueLength}")
+    private int maxValueLength;
+
+    @Around("execution(* *(..)) && @annotation(traced)")
+    public Object traceMethod(ProceedingJoinPoint call, Traced traced) throws Throwable {
+        if (meterRegistry == null) {
+            // woven at compile time while tracing is disabled, so the aspect was not configured by Spring
+            return call.proceed();
+        }
+        TracedMethod method = tracedMethod(call, traced);
+        boolean sampled = log.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < method.sampleRate;
+        if (sampled) {
+            log.debug("{} called with args '{}'!", method.name, new TracedValue(call.getArgs(), maxValueLength));
+        }
+        long start = meterRegistry.config().clock().monotonicTime();
+        Throwable failure = null;
+        Object result = null;
+        try {
+            result = call.proceed();
+            return result;
+        } catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            long elapsed = meterRegistry.config().clock().monotonicTime() - start;
+            method.timer(failure).record(elapsed, TimeUnit.NANOSECONDS);
+            if (sampled) {
+                logComeback(method, result, failure, elapsed);
+            }
+        }
+    }
+
+    private TracedMethod tracedMethod(ProceedingJoinPoint call, Traced traced) {
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        TracedMethod tracedMethod = tracedMethods.get(method);
+        if (tracedMethod == null) {
+            tracedMethod = tracedMethods.computeIfAbsent(method,
+                    key -> new TracedMethod(className(call), key, traced));
+        }
+        return tracedMethod;
+    }
+
+    private static String className(ProceedingJoinPoint call) {
+        Object target = call.getTarget();
+        return target == null ? call.getSignature().getDeclaringType().getSimpleName()
+                : target.getClass().getSimpleName();
+    }
+
+    private void logComeback(TracedMethod method, Object result, Throwable failure, long elapsedNanos) {
+        double elapsedMillis = elapsedNanos / 1e6;
+        if (failure != null) {
+            log.debug("{} threw '{}' in {} ms!", method.name, failure, elapsedMillis);
+        } else if (method.returnsVoid) {
+            log.debug("{} return 'void' in {} ms!", method.name, elapsedMillis);
+        } else {
+            log.debug("{} return '{}' in {} ms!", method.name, new TracedValue(result, maxValueLength),
+                    elapsedMillis);
+        }
+    }
+
+    private class TracedMethod {
+        private final String className;
+        private final String methodName;
+        private final String name;
+        private final double sampleRate;
+        private final boolean returnsVoid;
+        private final Timer timer;
+
+        TracedMethod(String className, Method method, Traced traced) {
+            this.className = className;
+            this.methodName = method.getName();
+            this.name = className + "." + methodName;
+            this.sampleRate = traced.sampleRate() < 0 ? defaultSampleRate : traced.sampleRate();
+            this.returnsVoid = method.getReturnType() == Void.TYPE;
+            this.timer = timer(NO_EXCEPTION);
+        }
+
+        Timer timer(Throwable failure) {
+            return failure == null ? timer : timer(failure.getClass().getSimpleName());
+        }
+
+        private Timer timer(String exception) {
+            return Timer.builder("traced.method")
+                    .description("Time of calls of methods annotated with @Traced")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("exception", exception)
+                    .register(meterRegistry);
+        }
+    }
+}
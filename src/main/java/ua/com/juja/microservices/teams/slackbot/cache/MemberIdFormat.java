@@ -0,0 +1,154 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Packs member ids of a known format into two longs, so they can be kept in primitive arrays instead of Strings.
+ * Ids of any other format are not packed and kept as they are.
+ */
+enum MemberIdFormat {
+
+    /**
+     * Canonical lowercase uuids, such as the uuids of the Users service
+     */
+    UUID {
+        @Override
+        boolean pack(String id, long[] target, int at) {
+            if (id == null || id.length() != UUID_LENGTH || id.charAt(8) != '-' || id.charAt(13) != '-'
+                    || id.charAt(18) != '-' || id.charAt(23) != '-') {
+                return false;
+            }
+            long timeLow = hex(id, 0, 8);
+            long timeMid = hex(id, 9, 13);
+            long timeHigh = hex(id, 14, 18);
+            long clockSeq = hex(id, 19, 23);
+            long node = hex(id, 24, 36);
+            if ((timeLow | timeMid | timeHigh | clockSeq | node) < 0) {
+                return false;
+            }
+            target[at] = timeLow << 32 | timeMid << 16 | timeHigh;
+            target[at + 1] = clockSeq << 48 | node;
+            return true;
+        }
+
+        @Override
+        String unpack(long msb, long lsb) {
+            return new UUID(msb, lsb).toString();
+        }
+    },
+    /**
+     * Slack ids of up to 24 digits and uppercase letters, such as U0G9QF9C6; every long holds 12 chars as base 37
+     * digits from 1 to 36, left aligned and padded with 0, so ids of different length never pack the same
+     */
+    SLACK_ID {
+        @Override
+        boolean pack(String id, long[] target, int at) {
+            if (id == null || id.isEmpty() || id.length() > 2 * CHARS_PER_LONG) {
+                return false;
+            }
+            long msb = packChars(id, 0);
+            long lsb = packChars(id, CHARS_PER_LONG);
+            if ((msb | lsb) < 0) {
+                return false;
+            }
+            target[at] = msb;
+            target[at + 1] = lsb;
+            return true;
+        }
+
+        @Override
+        String unpack(long msb, long lsb) {
+            char[] chars = new char[2 * CHARS_PER_LONG];
+            int length = unpackChars(msb, chars, 0);
+            if (length == CHARS_PER_LONG) {
+                length += unpackChars(lsb, chars, CHARS_PER_LONG);
+            }
+            return new String(chars, 0, length);
+        }
+    };
+
+    private static final int UUID_LENGTH = 36;
+    private static final int CHARS_PER_LONG = 12;
+    private static final int BASE = 37;
+    private static final String SLACK_ID_CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final byte[] HEX_DIGITS = new byte[128];
+    private static final byte[] SLACK_ID_DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(HEX_DIGITS, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_DIGITS["0123456789abcdef".charAt(i)] = (byte) i;
+        }
+        Arrays.fill(SLACK_ID_DIGITS, (byte) -1);
+        for (int i = 0; i < SLACK_ID_CHARS.length(); i++) {
+            SLACK_ID_DIGITS[SLACK_ID_CHARS.charAt(i)] = (byte) (i + 1);
+        }
+    }
+
+    /**
+     * Writes the packed id to target[at] and target[at + 1], reading every char once
+     *
+     * @return false if the id is not of this format, target is not changed then
+     */
+    abstract boolean pack(String id, long[] target, int at);
+
+    /**
+     * @return id which was packed into the two longs
+     */
+    abstract String unpack(long msb, long lsb);
+
+    /**
+     * @return value of at most 15 hex digits or -1 if any of them is not a lowercase hex digit
+     */
+    private static long hex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            int digit = c < HEX_DIGITS.length ? HEX_DIGITS[c] : -1;
+            if (digit < 0) {
+                return -1;
+            }
+            result = result << 4 | digit;
+        }
+        return result;
+    }
+
+    /**
+     * @return 12 chars from the offset as base 37 digits padded with 0, or -1 if any of them is not allowed
+     */
+    private static long packChars(String value, int from) {
+        long result = 0;
+        for (int i = from; i < from + CHARS_PER_LONG; i++) {
+            int digit = 0;
+            if (i < value.length()) {
+                char c = value.charAt(i);
+                digit = c < SLACK_ID_DIGITS.length ? SLACK_ID_DIGITS[c] : -1;
+                if (digit < 0) {
+                    return -1;
+                }
+            }
+            result = result * BASE + digit;
+        }
+        return result;
+    }
+
+    /**
+     * @return number of chars written, less than 12 if the padding was reached
+     */
+    private static int unpackChars(long packed, char[] target, int at) {
+        int length = 0;
+        long divisor = 1;
+        for (int i = 1; i < CHARS_PER_LONG; i++) {
+            divisor *= BASE;
+        }
+        for (; divisor > 0; divisor /= BASE) {
+            int digit = (int) (packed / divisor % BASE);
+            if (digit == 0) {
+                break;
+            }
+            target[at + length++] = SLACK_ID_CHARS.charAt(digit - 1);
+        }
+        return length;
+    }
+}
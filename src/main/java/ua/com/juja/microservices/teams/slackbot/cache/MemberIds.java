@@ -0,0 +1,60 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Immutable set of member ids of one team. Ids of the format are packed two longs each into one array, any other id
+ * is kept as a String, so a team of packable ids takes a single long array instead of a set of Strings. Ids are given
+ * back in the order they came in, packed ones first.
+ */
+final class MemberIds {
+
+    private static final String[] NO_OTHER_IDS = new String[0];
+
+    private final MemberIdFormat format;
+    private final long[] packed;
+    private final String[] others;
+
+    /**
+     * @param ids distinct ids
+     */
+    MemberIds(Collection<String> ids, MemberIdFormat format) {
+        this.format = format;
+        long[] keys = new long[2 * ids.size()];
+        String[] unpackable = new String[ids.size()];
+        int packedCount = 0;
+        int otherCount = 0;
+        for (String id : ids) {
+            if (format.pack(id, keys, 2 * packedCount)) {
+                packedCount++;
+            } else {
+                unpackable[otherCount++] = id;
+            }
+        }
+        this.packed = packedCount == ids.size() ? keys : Arrays.copyOf(keys, 2 * packedCount);
+        this.others = otherCount == 0 ? NO_OTHER_IDS : Arrays.copyOf(unpackable, otherCount);
+    }
+
+    int size() {
+        return packed.length / 2 + others.length;
+    }
+
+    void forEach(Consumer<String> action) {
+        for (int i = 0; i < packed.length; i += 2) {
+            action.accept(format.unpack(packed[i], packed[i + 1]));
+        }
+        for (String other : others) {
+            action.accept(other);
+        }
+    }
+
+    Set<String> toSet() {
+        Set<String> ids = new LinkedHashSet<>();
+        forEach(ids::add);
+        return ids;
+    }
+}
@@ -0,0 +1,170 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index from member id to a team number. Ids of the {@link MemberIdFormat}, canonical lowercase uuids by default, are
+ * kept packed as two longs in an open addressing table, so a member takes 20 bytes of arrays instead of a map node, a
+ * String and a boxed number, and a lookup allocates nothing. Any other member id is kept in a plain map. Not thread
+ * safe, the owner synchronizes.
+ */
+public class MemberTeamIndex {
+
+    public static final int NO_TEAM = -1;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final MemberIdFormat format;
+    private final Map<String, Integer> otherMembers = new HashMap<>();
+    private final long[] parsed = new long[2];
+    private long[] keys;
+    private int[] teams;
+    private int mask;
+    private int packedCount;
+    private int resizeAt;
+
+    public MemberTeamIndex() {
+        this(MemberIdFormat.UUID);
+    }
+
+    MemberTeamIndex(MemberIdFormat format) {
+        this.format = format;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @return team number of the member or {@link #NO_TEAM}
+     */
+    public int get(String member) {
+        if (!format.pack(member, parsed, 0)) {
+            Integer team = otherMembers.get(member);
+            return team == null ? NO_TEAM : team;
+        }
+        long msb = parsed[0];
+        long lsb = parsed[1];
+        for (int slot = slot(msb, lsb); teams[slot] != NO_TEAM; slot = (slot + 1) & mask) {
+            if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                return teams[slot];
+            }
+        }
+        return NO_TEAM;
+    }
+
+    /**
+     * @return previous team number of the member or {@link #NO_TEAM}
+     */
+    public int put(String member, int team) {
+        if (team < 0) {
+            throw new IllegalArgumentException("Team number must not be negative!");
+        }
+        if (!format.pack(member, parsed, 0)) {
+            Integer previous = otherMembers.put(member, team);
+            return previous == null ? NO_TEAM : previous;
+        }
+        long msb = parsed[0];
+        long lsb = parsed[1];
+        int slot = slot(msb, lsb);
+        for (; teams[slot] != NO_TEAM; slot = (slot + 1) & mask) {
+            if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                int previous = teams[slot];
+                teams[slot] = team;
+                return previous;
+            }
+        }
+        keys[2 * slot] = msb;
+        keys[2 * slot + 1] = lsb;
+        teams[slot] = team;
+        if (++packedCount > resizeAt) {
+            rehash(teams.length * 2);
+        }
+        return NO_TEAM;
+    }
+
+    /**
+     * @return team number the member had or {@link #NO_TEAM}
+     */
+    public int remove(String member) {
+        if (!format.pack(member, parsed, 0)) {
+            Integer previous = otherMembers.remove(member);
+            return previous == null ? NO_TEAM : previous;
+        }
+        long msb = parsed[0];
+        long lsb = parsed[1];
+        for (int slot = slot(msb, lsb); teams[slot] != NO_TEAM; slot = (slot + 1) & mask) {
+            if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                int previous = teams[slot];
+                shiftBack(slot);
+                packedCount--;
+                return previous;
+            }
+        }
+        return NO_TEAM;
+    }
+
+    public int size() {
+        return packedCount + otherMembers.size();
+    }
+
+    public void clear() {
+        otherMembers.clear();
+        allocate(MIN_CAPACITY);
+        packedCount = 0;
+    }
+
+    /**
+     * @return bytes taken by the arrays holding packed members, members kept in the plain map are not counted
+     */
+    public long getTableBytes() {
+        return (long) keys.length * Long.BYTES + (long) teams.length * Integer.BYTES;
+    }
+
+    /**
+     * Empties the slot and moves back the following members of its probe run, so lookups never need tombstones.
+     */
+    private void shiftBack(int emptied) {
+        int gap = emptied;
+        for (int slot = (gap + 1) & mask; teams[slot] != NO_TEAM; slot = (slot + 1) & mask) {
+            int home = slot(keys[2 * slot], keys[2 * slot + 1]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[2 * gap] = keys[2 * slot];
+                keys[2 * gap + 1] = keys[2 * slot + 1];
+                teams[gap] = teams[slot];
+                gap = slot;
+            }
+        }
+        teams[gap] = NO_TEAM;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldTeams = teams;
+        allocate(capacity);
+        for (int i = 0; i < oldTeams.length; i++) {
+            if (oldTeams[i] != NO_TEAM) {
+                int slot = slot(oldKeys[2 * i], oldKeys[2 * i + 1]);
+                while (teams[slot] != NO_TEAM) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[2 * slot] = oldKeys[2 * i];
+                keys[2 * slot + 1] = oldKeys[2 * i + 1];
+                teams[slot] = oldTeams[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[2 * capacity];
+        teams = new int[capacity];
+        Arrays.fill(teams, NO_TEAM);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(long msb, long lsb) {
+        long hash = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,153 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Active teams keyed by member uuid. All members of a team share one entry, so the entry is written, expired and
+ * evicted for the whole team at once. Entries expire a fixed time after they were written, which bounds how long a
+ * change made outside the bot may stay unnoticed. The least recently used team is evicted when the cache holds more
+ * than the allowed number of members.
+ * <p>
+ * The cache sits behind the {@link TeamView}, which answers first and is the source of truth: a cached team only
+ * spares the Teams service call when the view misses and is never copied into the view, as the view would then take
+ * its age for a fresh sync.
+ */
+@Slf4j
+public class TeamCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<String, Entry> byMember;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder servedAgeNanos = new LongAdder();
+
+    public TeamCache(int maxSize, long ttlSeconds) {
+        this(maxSize, ttlSeconds, System::nanoTime);
+    }
+
+    TeamCache(int maxSize, long ttlSeconds, LongSupplier ticker) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive!");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.ticker = ticker;
+        this.byMember = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return active team of the member or null if it is not cached or already expired
+     */
+    public synchronized Team get(String memberUuid) {
+        Entry entry = byMember.get(memberUuid);
+        long now = ticker.getAsLong();
+        if (entry != null && now - entry.writtenAt >= ttlNanos) {
+            removeEntry(entry);
+            evictions.increment();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        servedAgeNanos.add(now - entry.writtenAt);
+        return entry.team;
+    }
+
+    /**
+     * Makes the team the active one for all its members. Teams previously cached for any of the members are dropped
+     * as a whole.
+     */
+    public synchronized void put(Team team) {
+        for (String member : team.getMembers()) {
+            removeEntry(byMember.get(member));
+        }
+        Entry entry = new Entry(team, ticker.getAsLong());
+        for (String member : team.getMembers()) {
+            byMember.put(member, entry);
+        }
+        puts.increment();
+        evictEldest();
+    }
+
+    /**
+     * Drops the team and any other team cached for its members.
+     */
+    public synchronized void invalidate(Team team) {
+        for (String member : team.getMembers()) {
+            removeEntry(byMember.get(member));
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        byMember.clear();
+    }
+
+    public synchronized int size() {
+        return byMember.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return total age of all entries at the moment they were served; divided by hits it gives mean staleness
+     */
+    public double getServedAgeSeconds() {
+        return servedAgeNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void evictEldest() {
+        Iterator<Entry> iterator = byMember.values().iterator();
+        while (byMember.size() > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            removeEntry(eldest);
+            evictions.increment();
+            log.debug("Evicted team '{}' from team cache", eldest.team.getId());
+            iterator = byMember.values().iterator();
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        if (entry != null) {
+            for (String member : entry.team.getMembers()) {
+                byMember.remove(member, entry);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Team team;
+        private final long writtenAt;
+
+        private Entry(Team team, long writtenAt) {
+            this.team = team;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
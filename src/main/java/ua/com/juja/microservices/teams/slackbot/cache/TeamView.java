@@ -0,0 +1,298 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Local materialized view of active teams, keyed by member slack id and holding the slack ids of all the members, so
+ * a team is answered without asking the Users and Teams services. The view is written by the commands of the bot
+ * with teams just answered by the Teams service, never with teams of the {@link TeamCache}, so the sync time of a
+ * team is the time it was read. It is kept fresh by {@link #syncCandidates(int)}: teams synced more than syncInterval
+ * ago are handed out for a refresh, oldest first. A team which was not synced for maxStaleness is not served any
+ * more, the caller then takes the remote path. The team synced longest ago is dropped when the view holds more than
+ * the allowed number of members.
+ * <p>
+ * Every team takes a numbered slot. Members are found through two {@link MemberTeamIndex}es from slack id and from
+ * uuid to the slot, and a slot keeps only the team id, the sync time, its neighbours in sync order and the
+ * {@link MemberIds} of the members, so uuids and slack ids of the usual formats are held as longs rather than
+ * Strings, sets and map nodes.
+ */
+@Slf4j
+public class TeamView {
+
+    private static final int NO_SLOT = -1;
+    private static final int MIN_SLOTS = 16;
+
+    private final int maxSize;
+    private final long syncIntervalNanos;
+    private final long maxStalenessNanos;
+    private final LongSupplier ticker;
+    private final MemberTeamIndex byMemberUuid = new MemberTeamIndex(MemberIdFormat.UUID);
+    private final MemberTeamIndex byMemberSlackId = new MemberTeamIndex(MemberIdFormat.SLACK_ID);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+
+    private String[] teamIds;
+    private MemberIds[] members;
+    private MemberIds[] slackIds;
+    private long[] syncedAt;
+    private int[] syncedBefore;
+    private int[] syncedAfter;
+    private int syncedFirst;
+    private int syncedLast;
+    private int[] freeSlots;
+    private int freeSlotCount;
+    private int usedSlotCount;
+
+    public TeamView(int maxSize, long syncIntervalSeconds, long maxStalenessSeconds) {
+        this(maxSize, syncIntervalSeconds, maxStalenessSeconds, System::nanoTime);
+    }
+
+    TeamView(int maxSize, long syncIntervalSeconds, long maxStalenessSeconds, LongSupplier ticker) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive!");
+        }
+        if (syncIntervalSeconds >= maxStalenessSeconds) {
+            throw new IllegalArgumentException("Sync interval must be shorter than max staleness!");
+        }
+        this.maxSize = maxSize;
+        this.syncIntervalNanos = TimeUnit.SECONDS.toNanos(syncIntervalSeconds);
+        this.maxStalenessNanos = TimeUnit.SECONDS.toNanos(maxStalenessSeconds);
+        this.ticker = ticker;
+        allocateSlots();
+    }
+
+    /**
+     * @return slack ids of all the members of the active team of the member or null if the team is not in the view or
+     * was not synced for too long
+     */
+    public synchronized Set<String> getTeamSlackIds(String memberSlackId) {
+        int slot = byMemberSlackId.get(memberSlackId);
+        if (slot == MemberTeamIndex.NO_TEAM) {
+            misses.increment();
+            return null;
+        }
+        if (ticker.getAsLong() - syncedAt[slot] >= maxStalenessNanos) {
+            stale.increment();
+            return null;
+        }
+        hits.increment();
+        return slackIds[slot].toSet();
+    }
+
+    /**
+     * @return true if the team of the member is in the view and synced recently enough to be served; the check is
+     * counted neither as a hit nor as a miss
+     */
+    public synchronized boolean containsMember(String memberSlackId) {
+        int slot = byMemberSlackId.get(memberSlackId);
+        return slot != MemberTeamIndex.NO_TEAM && ticker.getAsLong() - syncedAt[slot] < maxStalenessNanos;
+    }
+
+    /**
+     * Makes the team the active one for all its members. Teams previously in the view for any of the members are
+     * dropped as a whole. Nothing is written unless users hold every member of the team, users which are not members
+     * are ignored.
+     *
+     * @return true if the team was written
+     */
+    public synchronized boolean put(Team team, Collection<User> users) {
+        Set<String> teamMembers = team.getMembers();
+        Set<String> teamSlackIds = new HashSet<>();
+        for (User user : users) {
+            if (teamMembers.contains(user.getUuid())) {
+                teamSlackIds.add(user.getSlackId());
+            }
+        }
+        if (teamMembers.isEmpty() || teamSlackIds.size() != teamMembers.size()) {
+            log.debug("Team '{}' is not written to team view, slack ids of some members are unknown", team.getId());
+            return false;
+        }
+        removeTeamsOf(teamMembers);
+        int slot = takeSlot();
+        teamIds[slot] = team.getId();
+        members[slot] = new MemberIds(teamMembers, MemberIdFormat.UUID);
+        slackIds[slot] = new MemberIds(teamSlackIds, MemberIdFormat.SLACK_ID);
+        syncedAt[slot] = ticker.getAsLong();
+        linkLast(slot);
+        for (String member : teamMembers) {
+            byMemberUuid.put(member, slot);
+        }
+        for (String slackId : teamSlackIds) {
+            byMemberSlackId.put(slackId, slot);
+        }
+        puts.increment();
+        evictEldest();
+        return true;
+    }
+
+    /**
+     * Drops the team and any other team in the view for its members.
+     */
+    public synchronized void remove(Team team) {
+        if (removeTeamsOf(team.getMembers())) {
+            removals.increment();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        byMemberUuid.clear();
+        byMemberSlackId.clear();
+        allocateSlots();
+    }
+
+    /**
+     * @return at most limit teams which were synced syncInterval or more ago, synced longest ago first; a team holds
+     * only its id and members
+     */
+    public synchronized List<Team> syncCandidates(int limit) {
+        List<Team> candidates = new ArrayList<>();
+        long now = ticker.getAsLong();
+        for (int slot = syncedFirst; slot != NO_SLOT; slot = syncedAfter[slot]) {
+            if (candidates.size() >= limit || now - syncedAt[slot] < syncIntervalNanos) {
+                break;
+            }
+            candidates.add(new Team(null, teamIds[slot], null, null, members[slot].toSet()));
+        }
+        return candidates;
+    }
+
+    public synchronized int size() {
+        return byMemberSlackId.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getStaleCount() {
+        return stale.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getRemovalCount() {
+        return removals.sum();
+    }
+
+    private boolean removeTeamsOf(Collection<String> memberUuids) {
+        boolean removed = false;
+        for (String member : memberUuids) {
+            int slot = byMemberUuid.get(member);
+            if (slot != MemberTeamIndex.NO_TEAM) {
+                removeSlot(slot);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    private void evictEldest() {
+        while (byMemberSlackId.size() > maxSize && syncedFirst != NO_SLOT) {
+            int eldest = syncedFirst;
+            log.debug("Evicted team '{}' from team view", teamIds[eldest]);
+            removeSlot(eldest);
+            removals.increment();
+        }
+    }
+
+    private void removeSlot(int slot) {
+        members[slot].forEach(member -> {
+            if (byMemberUuid.get(member) == slot) {
+                byMemberUuid.remove(member);
+            }
+        });
+        slackIds[slot].forEach(slackId -> {
+            if (byMemberSlackId.get(slackId) == slot) {
+                byMemberSlackId.remove(slackId);
+            }
+        });
+        unlink(slot);
+        teamIds[slot] = null;
+        members[slot] = null;
+        slackIds[slot] = null;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    /**
+     * Appends the slot to the sync order, puts are synced now, so the order is the order of sync times
+     */
+    private void linkLast(int slot) {
+        syncedBefore[slot] = syncedLast;
+        syncedAfter[slot] = NO_SLOT;
+        if (syncedLast == NO_SLOT) {
+            syncedFirst = slot;
+        } else {
+            syncedAfter[syncedLast] = slot;
+        }
+        syncedLast = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = syncedBefore[slot];
+        int after = syncedAfter[slot];
+        if (before == NO_SLOT) {
+            syncedFirst = after;
+        } else {
+            syncedAfter[before] = after;
+        }
+        if (after == NO_SLOT) {
+            syncedLast = before;
+        } else {
+            syncedBefore[after] = before;
+        }
+    }
+
+    private int takeSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (usedSlotCount == teamIds.length) {
+            int capacity = teamIds.length * 2;
+            teamIds = Arrays.copyOf(teamIds, capacity);
+            members = Arrays.copyOf(members, capacity);
+            slackIds = Arrays.copyOf(slackIds, capacity);
+            syncedAt = Arrays.copyOf(syncedAt, capacity);
+            syncedBefore = Arrays.copyOf(syncedBefore, capacity);
+            syncedAfter = Arrays.copyOf(syncedAfter, capacity);
+        }
+        return usedSlotCount++;
+    }
+
+    private void allocateSlots() {
+        teamIds = new String[MIN_SLOTS];
+        members = new MemberIds[MIN_SLOTS];
+        slackIds = new MemberIds[MIN_SLOTS];
+        syncedAt = new long[MIN_SLOTS];
+        syncedBefore = new int[MIN_SLOTS];
+        syncedAfter = new int[MIN_SLOTS];
+        syncedFirst = NO_SLOT;
+        syncedLast = NO_SLOT;
+        freeSlots = new int[MIN_SLOTS];
+        freeSlotCount = 0;
+        usedSlotCount = 0;
+    }
+}
@@ -0,0 +1,24 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Known pairs of slack id and uuid of users, searchable by either of them
+ */
+public interface UserIdentities {
+
+    /**
+     * @return found users keyed by slack id; unknown ids are absent
+     */
+    Map<String, User> getAllBySlackIds(Collection<String> slackIds);
+
+    /**
+     * @return found users keyed by uuid; unknown ids are absent
+     */
+    Map<String, User> getAllByUuids(Collection<String> uuids);
+
+    void putAll(Collection<User> users);
+}
@@ -0,0 +1,159 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory index of known users, searchable both by slack id and by uuid. Both keys point to the same
+ * entry, so a user is counted, expired and evicted once. Entries expire a fixed time after they were written,
+ * and the least recently used entry is evicted when the index is full.
+ */
+@Slf4j
+public class UserIdentityCache implements UserIdentities {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<String, Entry> byUuid;
+    private final Map<String, Entry> bySlackId;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserIdentityCache(int maxSize, long ttlSeconds) {
+        this(maxSize, ttlSeconds, System::nanoTime);
+    }
+
+    UserIdentityCache(int maxSize, long ttlSeconds, LongSupplier ticker) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive!");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.ticker = ticker;
+        this.byUuid = new LinkedHashMap<>(16, 0.75f, true);
+        this.bySlackId = new HashMap<>();
+    }
+
+    /**
+     * @return found users keyed by slack id; ids which are not cached or already expired are absent
+     */
+    @Override
+    public Map<String, User> getAllBySlackIds(Collection<String> slackIds) {
+        return getAll(slackIds, bySlackId);
+    }
+
+    /**
+     * @return found users keyed by uuid; ids which are not cached or already expired are absent
+     */
+    @Override
+    public Map<String, User> getAllByUuids(Collection<String> uuids) {
+        return getAll(uuids, byUuid);
+    }
+
+    @Override
+    public synchronized void putAll(Collection<User> users) {
+        long expiresAt = ticker.getAsLong() + ttlNanos;
+        for (User user : users) {
+            if (user.getUuid() == null || user.getSlackId() == null) {
+                continue;
+            }
+            removeEntry(byUuid.get(user.getUuid()));
+            removeEntry(bySlackId.get(user.getSlackId()));
+            Entry entry = new Entry(user, expiresAt);
+            byUuid.put(user.getUuid(), entry);
+            bySlackId.put(user.getSlackId(), entry);
+            puts.increment();
+        }
+        evictEldest();
+    }
+
+    public synchronized void invalidateAll() {
+        byUuid.clear();
+        bySlackId.clear();
+    }
+
+    public synchronized int size() {
+        return byUuid.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private synchronized Map<String, User> getAll(Collection<String> keys, Map<String, Entry> index) {
+        Map<String, User> result = new LinkedHashMap<>();
+        long now = ticker.getAsLong();
+        for (String key : keys) {
+            Entry entry = index.get(key);
+            if (entry != null && entry.isExpired(now)) {
+                removeEntry(entry);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+            } else {
+                // refreshes LRU order for lookups by slack id as well
+                byUuid.get(entry.user.getUuid());
+                result.put(key, entry.user);
+                hits.increment();
+            }
+        }
+        return result;
+    }
+
+    private void evictEldest() {
+        Iterator<Entry> iterator = byUuid.values().iterator();
+        while (byUuid.size() > maxSize) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            bySlackId.remove(eldest.user.getSlackId(), eldest);
+            evictions.increment();
+            log.debug("Evicted user '{}' from identity cache", eldest.user);
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        if (entry != null) {
+            byUuid.remove(entry.user.getUuid(), entry);
+            bySlackId.remove(entry.user.getSlackId(), entry);
+        }
+    }
+
+    private static final class Entry {
+        private final User user;
+        private final long expiresAt;
+
+        private Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk store of user identities, so a restarted bot does not ask the Users service again for users it already
+ * knows. Identities are appended to a memory-mapped log and read straight from the mapping through in-memory
+ * offsets. Every record carries a checksum; on open the log is read up to the first torn or corrupted record and
+ * the rest is dropped, so a crash in the middle of a write loses at most that record. Records older than maxAge are
+ * not served. Once the log holds more dead records, replaced or expired, than live ones it is compacted into a new
+ * file which then replaces the log atomically.
+ * <p>
+ * Log layout: magic and version ints, then records of payload length int, CRC32 int of the payload and the payload:
+ * written at millis long, uuid length short and UTF-8 bytes, slack id length short and UTF-8 bytes. A zero length
+ * marks the end of the log.
+ */
+@Slf4j
+public class UserIdentityStore implements UserIdentities, Closeable {
+
+    static final String LOG_FILE = "identities.log";
+    static final String COMPACTED_FILE = "identities.log.compacted";
+
+    private static final int MAGIC = 0x55494453;
+    private static final int VERSION = 1;
+    private static final int LOG_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_PAYLOAD_SIZE = Long.BYTES + 2 * (Short.BYTES + Short.MAX_VALUE);
+    private static final int MIN_MAPPED_SIZE = 64 * 1024;
+    private static final int MIN_DEAD_RECORDS_TO_COMPACT = 1024;
+
+    private final Path logFile;
+    private final Path compactedFile;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+    private final Map<String, Integer> bySlackId = new HashMap<>();
+    private final Map<String, Integer> byUuid = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder appends = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    private FileChannel channel;
+    private MappedByteBuffer mapping;
+    private int end;
+    private int deadRecords;
+
+    public UserIdentityStore(Path directory, long maxAgeSeconds) throws IOException {
+        this(directory, maxAgeSeconds, System::currentTimeMillis);
+    }
+
+    UserIdentityStore(Path directory, long maxAgeSeconds, LongSupplier clock) throws IOException {
+        this.logFile = directory.resolve(LOG_FILE);
+        this.compactedFile = directory.resolve(COMPACTED_FILE);
+        this.maxAgeMillis = TimeUnit.SECONDS.toMillis(maxAgeSeconds);
+        this.clock = clock;
+        Files.createDirectories(directory);
+        Files.deleteIfExists(compactedFile);
+        long startedAt = System.nanoTime();
+        open();
+        if (needsCompaction()) {
+            compact();
+        }
+        log.info("User identity store '{}' opened in '{}' ms: '{}' users, '{}' bytes", logFile,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), byUuid.size(), end);
+    }
+
+    @Override
+    public Map<String, User> getAllBySlackIds(Collection<String> slackIds) {
+        return getAll(slackIds, bySlackId);
+    }
+
+    @Override
+    public Map<String, User> getAllByUuids(Collection<String> uuids) {
+        return getAll(uuids, byUuid);
+    }
+
+    /**
+     * Appends users which are not known yet, whose slack id changed or whose record is half way to expiry. A failed
+     * write, such as on a full or read-only volume, is logged and counted but not thrown: the store only saves calls
+     * after a restart and must not fail the command which fetched the users.
+     */
+    @Override
+    public synchronized void putAll(Collection<User> users) {
+        long now = clock.getAsLong();
+        try {
+            for (User user : users) {
+                if (user.getUuid() != null && user.getSlackId() != null && !isKnown(user, now)) {
+                    append(user, now);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            writeFailures.increment();
+            log.warn("Failed to write user identity store '{}': '{}'", logFile, ex.toString());
+        }
+    }
+
+    /**
+     * @return at most limit users which are not expired, the most recently written first
+     */
+    public synchronized List<User> getRecentUsers(int limit) {
+        long now = clock.getAsLong();
+        List<Integer> offsets = new ArrayList<>(byUuid.values());
+        // records are only appended and compaction keeps their order, so a later record was written later
+        offsets.sort(Comparator.reverseOrder());
+        List<User> users = new ArrayList<>(Math.min(limit, offsets.size()));
+        for (int offset : offsets) {
+            if (users.size() == limit) {
+                break;
+            }
+            if (!isExpired(offset, now)) {
+                users.add(readUser(offset));
+            }
+        }
+        return users;
+    }
+
+    public synchronized int size() {
+        return byUuid.size();
+    }
+
+    public synchronized int getLogBytes() {
+        return end;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getAppendCount() {
+        return appends.sum();
+    }
+
+    public long getCompactionCount() {
+        return compactions.sum();
+    }
+
+    public long getWriteFailureCount() {
+        return writeFailures.sum();
+    }
+
+    /**
+     * Flushes the mapping to disk
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            mapping.force();
+            channel.close();
+        }
+    }
+
+    private synchronized Map<String, User> getAll(Collection<String> keys, Map<String, Integer> index) {
+        Map<String, User> result = new LinkedHashMap<>();
+        long now = clock.getAsLong();
+        for (String key : keys) {
+            Integer offset = index.get(key);
+            if (offset != null && !isExpired(offset, now)) {
+                result.put(key, readUser(offset));
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+        return result;
+    }
+
+    private boolean isKnown(User user, long now) {
+        Integer offset = byUuid.get(user.getUuid());
+        return offset != null && offset.equals(bySlackId.get(user.getSlackId()))
+                && now - writtenAt(offset) < maxAgeMillis / 2;
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        bySlackId.clear();
+        byUuid.clear();
+        deadRecords = 0;
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("User identity store " + logFile + " is too big");
+        }
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(MIN_MAPPED_SIZE, size));
+        if (size == 0 || mapping.getInt(0) != MAGIC || mapping.getInt(Integer.BYTES) != VERSION) {
+            if (size != 0) {
+                log.warn("User identity store '{}' has unknown format and is started empty", logFile);
+            }
+            clear(0);
+            mapping.putInt(0, MAGIC);
+            mapping.putInt(Integer.BYTES, VERSION);
+            end = LOG_HEADER_SIZE;
+            return;
+        }
+        long now = clock.getAsLong();
+        int offset = LOG_HEADER_SIZE;
+        int length;
+        while ((length = validRecordLength(offset)) > 0) {
+            if (isExpired(offset, now)) {
+                deadRecords++;
+            } else {
+                index(offset);
+            }
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        end = offset;
+        if (length < 0) {
+            log.warn("User identity store '{}' is damaged at '{}', the rest of the log is dropped", logFile, end);
+            clear(end);
+        }
+    }
+
+    /**
+     * @return payload length of a whole record with a matching checksum, 0 at the end of the log or -1 for a torn or
+     * corrupted record
+     */
+    private int validRecordLength(int offset) {
+        if (offset + RECORD_HEADER_SIZE > mapping.capacity()) {
+            return 0;
+        }
+        int length = mapping.getInt(offset);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < 0 || length > MAX_PAYLOAD_SIZE || offset + RECORD_HEADER_SIZE + length > mapping.capacity()) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = mapping.duplicate();
+        payload.limit(offset + RECORD_HEADER_SIZE + length).position(offset + RECORD_HEADER_SIZE);
+        crc.update(payload);
+        return (int) crc.getValue() == mapping.getInt(offset + Integer.BYTES) ? length : -1;
+    }
+
+    private void append(User user, long now) throws IOException {
+        byte[] uuid = user.getUuid().getBytes(StandardCharsets.UTF_8);
+        byte[] slackId = user.getSlackId().getBytes(StandardCharsets.UTF_8);
+        if (uuid.length > Short.MAX_VALUE || slackId.length > Short.MAX_VALUE) {
+            return;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + 2 * Short.BYTES + uuid.length + slackId.length);
+        payload.putLong(now).putShort((short) uuid.length).put(uuid).putShort((short) slackId.length).put(slackId);
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ensureCapacity(RECORD_HEADER_SIZE + payload.remaining() + Integer.BYTES);
+        int offset = end;
+        ByteBuffer target = mapping.duplicate();
+        target.position(offset + RECORD_HEADER_SIZE);
+        target.put(payload);
+        mapping.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        // the length goes last, a record is not part of the log before it is complete
+        mapping.putInt(offset, target.position() - offset - RECORD_HEADER_SIZE);
+        end = target.position();
+        index(offset);
+        appends.increment();
+    }
+
+    private void index(int offset) {
+        String uuid = readUuid(offset);
+        String slackId = readSlackId(offset);
+        Integer previous = byUuid.put(uuid, offset);
+        if (previous != null) {
+            bySlackId.remove(readSlackId(previous), previous);
+            deadRecords++;
+        }
+        previous = bySlackId.put(slackId, offset);
+        if (previous != null) {
+            byUuid.remove(readUuid(previous), previous);
+            deadRecords++;
+        }
+    }
+
+    private void ensureCapacity(int recordSize) throws IOException {
+        if (end + recordSize <= mapping.capacity()) {
+            return;
+        }
+        if (needsCompaction()) {
+            compact();
+            if (end + recordSize <= mapping.capacity()) {
+                return;
+            }
+        }
+        long capacity = Math.max((long) mapping.capacity() * 2, (long) end + recordSize);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("User identity store " + logFile + " is full");
+        }
+        mapping.force();
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private boolean needsCompaction() {
+        return deadRecords >= MIN_DEAD_RECORDS_TO_COMPACT && deadRecords > byUuid.size();
+    }
+
+    /**
+     * Writes the live records to a new file, makes it durable and moves it over the log. A compacted file left behind
+     * by a failed compaction is overwritten.
+     */
+    private void compact() throws IOException {
+        int compactedRecords = deadRecords;
+        long now = clock.getAsLong();
+        List<Integer> live = new ArrayList<>();
+        for (int offset : byUuid.values()) {
+            if (!isExpired(offset, now)) {
+                live.add(offset);
+            }
+        }
+        live.sort(Integer::compare);
+        try (FileChannel compacted = FileChannel.open(compactedFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            compacted.write(header);
+            for (int offset : live) {
+                ByteBuffer record = mapping.duplicate();
+                record.limit(offset + RECORD_HEADER_SIZE + mapping.getInt(offset)).position(offset);
+                compacted.write(record);
+            }
+            compacted.force(true);
+        }
+        mapping.force();
+        channel.close();
+        try {
+            Files.move(compactedFile, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            open();
+        }
+        compactions.increment();
+        log.info("User identity store '{}' compacted: '{}' dead records dropped, '{}' bytes left", logFile,
+                compactedRecords, end);
+    }
+
+    private void clear(int from) {
+        for (int i = from; i < mapping.capacity(); i++) {
+            mapping.put(i, (byte) 0);
+        }
+    }
+
+    private boolean isExpired(int offset, long now) {
+        return now - writtenAt(offset) >= maxAgeMillis;
+    }
+
+    private long writtenAt(int offset) {
+        return mapping.getLong(offset + RECORD_HEADER_SIZE);
+    }
+
+    private User readUser(int offset) {
+        return new User(readUuid(offset), readSlackId(offset));
+    }
+
+    private String readUuid(int offset) {
+        return readString(offset + RECORD_HEADER_SIZE + Long.BYTES);
+    }
+
+    private String readSlackId(int offset) {
+        int uuidAt = offset + RECORD_HEADER_SIZE + Long.BYTES;
+        return readString(uuidAt + Short.BYTES + mapping.getShort(uuidAt));
+    }
+
+    private String readString(int at) {
+        byte[] bytes = new byte[mapping.getShort(at)];
+        ByteBuffer source = mapping.duplicate();
+        source.position(at + Short.BYTES);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
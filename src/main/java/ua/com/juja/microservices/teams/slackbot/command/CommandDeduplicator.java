@@ -0,0 +1,244 @@
+package ua.com.juja.microservices.teams.slackbot.command;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+import ua.com.juja.microservices.teams.slackbot.util.SlackIdHandler;
+
+import javax.inject.Inject;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Runs a slash command once for duplicates sent by the same user, such as a command submitted again because the
+ * instant reply was slow. A duplicate arriving while the command is in flight joins it and gets the same result or
+ * the same exception. A successful result is also handed to duplicates for window millis after it completed, unless
+ * a team was activated or deactivated since the command started; a failed command is forgotten at once, so it can be
+ * retried. Commands are duplicates if they have the same type, user and slack ids in the text, in any order.
+ * <p>
+ * Commands are kept in a concurrent map changed only by atomic putIfAbsent, replace and remove, completed ones are
+ * dropped once they expire.
+ */
+@Component
+@Slf4j
+public class CommandDeduplicator {
+
+    private static final String PROPERTY_PREFIX = "teams.slackbot.dedup.";
+    private static final int SWEEP_EVERY_CALLS = 64;
+
+    private final long windowNanos;
+    private final LongSupplier ticker;
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong teamChanges = new AtomicLong();
+    private final AtomicInteger callsSinceSweep = new AtomicInteger();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    @Inject
+    public CommandDeduplicator(Environment environment, MeterRegistry meterRegistry) {
+        this(environment.getRequiredProperty(PROPERTY_PREFIX + "windowMillis", Long.class), System::nanoTime);
+        bindCounter(meterRegistry, "executed", CommandDeduplicator::getExecutedCount, "Commands executed");
+        bindCounter(meterRegistry, "joined", CommandDeduplicator::getJoinedCount,
+                "Duplicate commands which joined the one in flight");
+        bindCounter(meterRegistry, "reused", CommandDeduplicator::getReusedCount,
+                "Duplicate commands answered with the result of the completed one");
+    }
+
+    CommandDeduplicator(long windowMillis, LongSupplier ticker) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Window must not be negative!");
+        }
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.ticker = ticker;
+    }
+
+    /**
+     * @param text text of the command, only slack ids in it are compared if it has any
+     */
+    public static Key key(CommandType commandType, String userId, String text) {
+        Set<String> slackIds = SlackIdHandler.getSlackIdsFromText(text);
+        String normalizedText = slackIds.isEmpty() ? text.trim() : String.join(" ", new TreeSet<>(slackIds));
+        return new Key(commandType, userId, normalizedText);
+    }
+
+    /**
+     * Runs the command or waits for the result of its duplicate, at most until the {@link Deadline} of the thread
+     */
+    public <T> T execute(Key key, Supplier<T> command) {
+        Entry entry = new Entry();
+        Entry duplicate = claim(key, entry);
+        if (duplicate != null) {
+            return Deadline.join(duplicate.result());
+        }
+        try {
+            T value = command.get();
+            complete(key, entry, value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            fail(key, entry, ex);
+            throw ex;
+        }
+    }
+
+    public <T> CompletableFuture<T> executeAsync(Key key, Supplier<CompletableFuture<T>> command) {
+        Entry entry = new Entry();
+        Entry duplicate = claim(key, entry);
+        if (duplicate != null) {
+            return duplicate.<T>result().thenApply(Function.identity());
+        }
+        CompletableFuture<T> result;
+        try {
+            result = command.get();
+        } catch (RuntimeException ex) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(ex);
+        }
+        result.whenComplete((value, ex) -> {
+            if (ex == null) {
+                complete(key, entry, value);
+            } else {
+                fail(key, entry, ex);
+            }
+        });
+        return entry.<T>result().thenApply(Function.identity());
+    }
+
+    /**
+     * Forgets all commands, those in flight complete without being joined
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getJoinedCount() {
+        return joined.sum();
+    }
+
+    public long getReusedCount() {
+        return reused.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Puts the entry for the key unless there is a duplicate to join; an expired entry is replaced
+     *
+     * @return duplicate to join or null if the caller runs the command
+     */
+    private Entry claim(Key key, Entry entry) {
+        if (callsSinceSweep.incrementAndGet() >= SWEEP_EVERY_CALLS) {
+            callsSinceSweep.set(0);
+            sweep();
+        }
+        entry.teamChanges = teamChanges.get();
+        Entry existing = entries.putIfAbsent(key, entry);
+        while (existing != null) {
+            if (!existing.result.isDone()) {
+                joined.increment();
+                log.info("Duplicate command '{}' joined the one in flight", key);
+                return existing;
+            }
+            if (isReusable(existing)) {
+                reused.increment();
+                log.info("Duplicate command '{}' answered with the result of the completed one", key);
+                return existing;
+            }
+            existing = entries.replace(key, existing, entry) ? null : entries.putIfAbsent(key, entry);
+        }
+        if (key.changesTeams()) {
+            entry.teamChanges = teamChanges.incrementAndGet();
+        }
+        executed.increment();
+        return null;
+    }
+
+    private void complete(Key key, Entry entry, Object value) {
+        entry.completedAt = ticker.getAsLong();
+        if (windowNanos == 0) {
+            entries.remove(key, entry);
+        }
+        entry.result.complete(value);
+    }
+
+    private void fail(Key key, Entry entry, Throwable ex) {
+        entries.remove(key, entry);
+        entry.result.completeExceptionally(ex);
+    }
+
+    private boolean isReusable(Entry entry) {
+        return !entry.result.isCompletedExceptionally() && ticker.getAsLong() - entry.completedAt < windowNanos
+                && entry.teamChanges == teamChanges.get();
+    }
+
+    private void sweep() {
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().result.isDone() && !isReusable(entry.getValue())) {
+                entries.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void bindCounter(MeterRegistry meterRegistry, String result, ToDoubleFunction<CommandDeduplicator> count,
+                             String description) {
+        FunctionCounter.builder("command.dedup", this, count)
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Command type, user and normalized text of a command
+     */
+    @EqualsAndHashCode
+    @ToString
+    public static final class Key {
+        private final CommandType commandType;
+        private final String userId;
+        private final String text;
+
+        private Key(CommandType commandType, String userId, String text) {
+            this.commandType = commandType;
+            this.userId = userId;
+            this.text = text;
+        }
+
+        private boolean changesTeams() {
+            return commandType == CommandType.ACTIVATE_TEAM || commandType == CommandType.DEACTIVATE_TEAM;
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAt;
+        private volatile long teamChanges;
+
+        @SuppressWarnings("unchecked")
+        private <T> CompletableFuture<T> result() {
+            return (CompletableFuture<T>) result;
+        }
+    }
+}
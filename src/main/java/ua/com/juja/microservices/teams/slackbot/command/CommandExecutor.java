@@ -0,0 +1,27 @@
+package ua.com.juja.microservices.teams.slackbot.command;
+
+import java.util.concurrent.Executor;
+
+public interface CommandExecutor {
+
+    /**
+     * Runs the command off the request thread. Any exception thrown by the command is reported to the user
+     * through the Slack response_url.
+     *
+     * @throws ua.com.juja.microservices.teams.slackbot.exceptions.CommandRejectedException if the command
+     *                                                                                      cannot be accepted
+     */
+    void execute(CommandType commandType, String responseUrl, Runnable command);
+
+    /**
+     * @return number of commands which are running or waiting to be run
+     */
+    int getPendingCommands();
+
+    /**
+     * @return executor for short work which must not run on the calling thread, such as completions of Users and
+     * Teams calls on the http client I/O threads which may post to Slack; work is dropped with a warning when the
+     * executor is full
+     */
+    Executor getReplyExecutor();
+}
@@ -0,0 +1,19 @@
+package ua.com.juja.microservices.teams.slackbot.command;
+
+/**
+ * What to do with a command when its pool and queue are full.
+ */
+public enum CommandRejectionPolicy {
+    /**
+     * Reject the new command and tell the user to try again later
+     */
+    ABORT,
+    /**
+     * Run the new command on the request thread, slowing down the caller
+     */
+    CALLER_RUNS,
+    /**
+     * Drop the oldest queued command (its user is notified) and queue the new one
+     */
+    DISCARD_OLDEST
+}
@@ -0,0 +1,21 @@
+package ua.com.juja.microservices.teams.slackbot.command;
+
+import lombok.Getter;
+
+/**
+ * Slash commands handled by the bot. The key matches the suffix of the
+ * {@code teams.slackbot.endpoint.*} and {@code teams.slackbot.executor.*} properties.
+ */
+@Getter
+public enum CommandType {
+    ACTIVATE_TEAM("activateTeam"),
+    DEACTIVATE_TEAM("deactivateTeam"),
+    GET_TEAM("getTeam"),
+    GET_MY_TEAM("getMyTeam");
+
+    private final String key;
+
+    CommandType(String key) {
+        this.key = key;
+    }
+}
@@ -0,0 +1,213 @@
+package ua.com.juja.microservices.teams.slackbot.command.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import ua.com.juja.microservices.teams.slackbot.command.CommandExecutor;
+import ua.com.juja.microservices.teams.slackbot.command.CommandRejectionPolicy;
+import ua.com.juja.microservices.teams.slackbot.command.CommandType;
+import ua.com.juja.microservices.teams.slackbot.exceptions.CommandRejectedException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ExceptionsHandler;
+import ua.com.juja.microservices.teams.slackbot.util.LogContext;
+
+import javax.inject.Inject;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every command type on its own bounded pool, so a burst of one command or a slow downstream service
+ * cannot take over the servlet threads or starve the other commands. Users of queued commands which are discarded are
+ * told so from a separate small reply pool, so the Slack post never runs on the thread submitting the newer command.
+ * In async mode CALLER_RUNS is refused, as the caller is the thread completing the Users and Teams calls.
+ */
+@Component
+@Slf4j
+public class ThreadPoolCommandExecutor implements CommandExecutor, DisposableBean {
+
+    private static final String PROPERTY_PREFIX = "teams.slackbot.executor.";
+
+    private final ExceptionsHandler exceptionsHandler;
+    private final String commandRejectedMessage;
+    private final long shutdownTimeoutSeconds;
+    private final Map<CommandType, ThreadPoolExecutor> executors = new EnumMap<>(CommandType.class);
+    private final ThreadPoolExecutor replies;
+
+    @Inject
+    public ThreadPoolCommandExecutor(ExceptionsHandler exceptionsHandler, Environment environment) {
+        this.exceptionsHandler = exceptionsHandler;
+        this.commandRejectedMessage = environment.getRequiredProperty("message.command.rejected");
+        this.shutdownTimeoutSeconds = environment.getRequiredProperty(PROPERTY_PREFIX + "shutdownTimeoutSeconds",
+                Long.class);
+        long keepAliveSeconds = environment.getRequiredProperty(PROPERTY_PREFIX + "keepAliveSeconds", Long.class);
+        boolean asyncEnabled = environment.getRequiredProperty("teams.slackbot.async.enabled", Boolean.class);
+        int replyPoolSize = environment.getRequiredProperty(PROPERTY_PREFIX + "replies.poolSize", Integer.class);
+        int replyQueueCapacity = environment.getRequiredProperty(PROPERTY_PREFIX + "replies.queueCapacity",
+                Integer.class);
+        this.replies = new ThreadPoolExecutor(replyPoolSize, replyPoolSize, keepAliveSeconds, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(replyQueueCapacity), new CustomizableThreadFactory("command-reply-"));
+        replies.allowCoreThreadTimeOut(true);
+        for (CommandType commandType : CommandType.values()) {
+            String prefix = PROPERTY_PREFIX + commandType.getKey() + ".";
+            int poolSize = environment.getRequiredProperty(prefix + "poolSize", Integer.class);
+            int queueCapacity = environment.getRequiredProperty(prefix + "queueCapacity", Integer.class);
+            CommandRejectionPolicy rejectionPolicy = environment.getRequiredProperty(prefix + "rejectionPolicy",
+                    CommandRejectionPolicy.class);
+            if (asyncEnabled && rejectionPolicy == CommandRejectionPolicy.CALLER_RUNS) {
+                throw new IllegalArgumentException(String.format("Rejection policy CALLER_RUNS of '%s' is not " +
+                        "allowed in async mode!", commandType.getKey()));
+            }
+            executors.put(commandType, createExecutor(commandType, poolSize, queueCapacity, keepAliveSeconds,
+                    rejectionPolicy));
+            log.info("Command executor for '{}' created: poolSize '{}', queueCapacity '{}', rejectionPolicy '{}'",
+                    commandType, poolSize, queueCapacity, rejectionPolicy);
+        }
+    }
+
+    @Override
+    public void execute(CommandType commandType, String responseUrl, Runnable command) {
+        ThreadPoolExecutor executor = executors.get(commandType);
+        try {
+            executor.execute(new CommandTask(commandType, responseUrl, command));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Command '{}' rejected. Active '{}', queued '{}'", commandType, executor.getActiveCount(),
+                    executor.getQueue().size());
+            throw new CommandRejectedException(commandRejectedMessage);
+        }
+        log.debug("Command '{}' accepted. Active '{}', queued '{}'", commandType, executor.getActiveCount(),
+                executor.getQueue().size());
+    }
+
+    @Override
+    public int getPendingCommands() {
+        return executors.values().stream()
+                .mapToInt(executor -> executor.getActiveCount() + executor.getQueue().size())
+                .sum();
+    }
+
+    @Override
+    public Executor getReplyExecutor() {
+        return this::reply;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+        for (Map.Entry<CommandType, ThreadPoolExecutor> entry : executors.entrySet()) {
+            if (!entry.getValue().awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Command executor for '{}' did not finish '{}' commands in '{}' seconds",
+                        entry.getKey(), entry.getValue().getQueue().size(), shutdownTimeoutSeconds);
+                entry.getValue().shutdownNow();
+            }
+        }
+        replies.shutdown();
+        if (!replies.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            log.warn("Reply executor did not finish '{}' replies in '{}' seconds", replies.getQueue().size(),
+                    shutdownTimeoutSeconds);
+            replies.shutdownNow();
+        }
+    }
+
+    private ThreadPoolExecutor createExecutor(CommandType commandType, int poolSize, int queueCapacity,
+                                              long keepAliveSeconds, CommandRejectionPolicy rejectionPolicy) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) :
+                new SynchronousQueue<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, keepAliveSeconds, TimeUnit.SECONDS,
+                queue, new CustomizableThreadFactory("command-" + commandType.getKey() + "-"),
+                createRejectedExecutionHandler(rejectionPolicy));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private RejectedExecutionHandler createRejectedExecutionHandler(CommandRejectionPolicy rejectionPolicy) {
+        switch (rejectionPolicy) {
+            case CALLER_RUNS:
+                return new ThreadPoolExecutor.CallerRunsPolicy();
+            case DISCARD_OLDEST:
+                return new DiscardOldestPolicy();
+            default:
+                return new ThreadPoolExecutor.AbortPolicy();
+        }
+    }
+
+    /**
+     * Discards the oldest queued command and retries the new one once. With nothing queued to discard, such as with
+     * a queue capacity of 0, or when the retry is rejected too, the new command is rejected like with ABORT.
+     */
+    private class DiscardOldestPolicy implements RejectedExecutionHandler {
+        private final ThreadLocal<Boolean> retrying = ThreadLocal.withInitial(() -> false);
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Command executor is shut down");
+            }
+            if (retrying.get()) {
+                throw new RejectedExecutionException("Command executor is still full after discarding a command");
+            }
+            Runnable oldest = executor.getQueue().poll();
+            if (oldest == null) {
+                throw new RejectedExecutionException("Command executor has no queued command to discard");
+            }
+            if (oldest instanceof CommandTask) {
+                reply(((CommandTask) oldest)::reject);
+            }
+            retrying.set(true);
+            try {
+                executor.execute(task);
+            } finally {
+                retrying.set(false);
+            }
+        }
+    }
+
+    private void reply(Runnable reply) {
+        try {
+            replies.execute(reply);
+        } catch (RejectedExecutionException ex) {
+            log.warn("Reply dropped, reply executor is full. Active '{}', queued '{}'", replies.getActiveCount(),
+                    replies.getQueue().size());
+        }
+    }
+
+    private class CommandTask implements Runnable {
+        private final CommandType commandType;
+        private final String responseUrl;
+        private final Runnable command;
+        private final Map<String, String> logContext = LogContext.capture();
+
+        CommandTask(CommandType commandType, String responseUrl, Runnable command) {
+            this.commandType = commandType;
+            this.responseUrl = responseUrl;
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            try (LogContext.Scope ignored = LogContext.restore(logContext)) {
+                try {
+                    command.run();
+                } catch (Exception ex) {
+                    exceptionsHandler.handleCommandException(responseUrl, ex);
+                }
+            }
+        }
+
+        void reject() {
+            try (LogContext.Scope ignored = LogContext.restore(logContext)) {
+                log.warn("Queued command '{}' discarded in favour of a newer one", commandType);
+                exceptionsHandler.handleCommandException(responseUrl,
+                        new CommandRejectedException(commandRejectedMessage));
+            }
+        }
+    }
+}
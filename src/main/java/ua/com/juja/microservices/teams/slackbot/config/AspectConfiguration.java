@@ -0,0 +1,60 @@
+package ua.com.juja.microservices.teams.slackbot.config;
+
+import org.aspectj.lang.Aspects;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import ua.com.juja.microservices.teams.slackbot.aspect.DebugAroundExceptionLogger;
+import ua.com.juja.microservices.teams.slackbot.aspect.TracingAspect;
+
+import java.util.function.Supplier;
+
+/**
+ * Aspects of the aspect package. By default they are applied by Spring AOP proxies. If the classes were woven at
+ * compile time ('gradle -PaspectWeaving'), the beans are the aspect instances used by the woven code and
+ * auto-proxying is not enabled at all, Spring AOP skips aspects compiled by ajc anyway.
+ */
+@Configuration
+public class AspectConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "teams.slackbot.tracing.enabled", havingValue = "true")
+    public TracingAspect tracingAspect() {
+        return aspect(TracingAspect.class, TracingAspect::new);
+    }
+
+    @Bean
+    public DebugAroundExceptionLogger debugAroundExceptionLogger() {
+        return aspect(DebugAroundExceptionLogger.class, DebugAroundExceptionLogger::new);
+    }
+
+    /**
+     * @return true if the aspects were woven into the classes at compile time
+     */
+    public static boolean isWoven() {
+        return Aspects.hasAspect(DebugAroundExceptionLogger.class);
+    }
+
+    private static <T> T aspect(Class<T> aspectClass, Supplier<T> proxyingAspect) {
+        return isWoven() ? Aspects.aspectOf(aspectClass) : proxyingAspect.get();
+    }
+
+    @Configuration
+    @Conditional(NotWovenCondition.class)
+    @EnableAspectJAutoProxy
+    static class AspectProxyConfiguration {
+    }
+
+    static class NotWovenCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return !isWoven();
+        }
+    }
+}
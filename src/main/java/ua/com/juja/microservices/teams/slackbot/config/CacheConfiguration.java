@@ -0,0 +1,162 @@
+package ua.com.juja.microservices.teams.slackbot.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamCache;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityCache;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityStore;
+import ua.com.juja.microservices.teams.slackbot.service.impl.TeamViewSynchronizer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * In-memory caches of users and teams. Repositories using them are assembled in {@link RepositoryConfiguration}. The
+ * {@link TeamView} is kept fresh by {@link TeamViewSynchronizer}.
+ */
+@Configuration
+public class CacheConfiguration {
+
+    @Value("${teams.slackbot.cache.teams.maxSize}")
+    private int teamsMaxSize;
+    @Value("${teams.slackbot.cache.teams.ttlSeconds}")
+    private long teamsTtlSeconds;
+    @Value("${teams.slackbot.view.maxSize}")
+    private int viewMaxSize;
+    @Value("${teams.slackbot.view.syncIntervalSeconds}")
+    private long viewSyncIntervalSeconds;
+    @Value("${teams.slackbot.view.maxStalenessSeconds}")
+    private long viewMaxStalenessSeconds;
+
+    @Bean
+    public TeamCache teamCache() {
+        return new TeamCache(teamsMaxSize, teamsTtlSeconds);
+    }
+
+    @Bean
+    public MeterBinder teamCacheMetrics(TeamCache teamCache) {
+        return registry -> {
+            bindCacheMeters(registry, "teams", teamCache, TeamCache::size, TeamCache::getHitCount,
+                    TeamCache::getMissCount, TeamCache::getPutCount, TeamCache::getEvictionCount);
+            FunctionCounter.builder("cache.served.age", teamCache, TeamCache::getServedAgeSeconds)
+                    .tag("cache", "teams")
+                    .baseUnit("seconds")
+                    .description("Total age of the entries at the moment they were served")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public TeamView teamView() {
+        return new TeamView(viewMaxSize, viewSyncIntervalSeconds, viewMaxStalenessSeconds);
+    }
+
+    @Bean
+    public MeterBinder teamViewMetrics(TeamView teamView, TeamViewSynchronizer teamViewSynchronizer) {
+        return registry -> {
+            bindCacheMeters(registry, "view", teamView, TeamView::size, TeamView::getHitCount,
+                    TeamView::getMissCount, TeamView::getPutCount, TeamView::getRemovalCount);
+            bindCacheCounter(registry, "cache.gets", "view", teamView, TeamView::getStaleCount,
+                    Tags.of("result", "stale"));
+            bindCacheCounter(registry, "cache.syncs", "view", teamViewSynchronizer,
+                    TeamViewSynchronizer::getSyncedCount, Tags.of("result", "synced"));
+            bindCacheCounter(registry, "cache.syncs", "view", teamViewSynchronizer,
+                    TeamViewSynchronizer::getDroppedCount, Tags.of("result", "dropped"));
+            bindCacheCounter(registry, "cache.syncs", "view", teamViewSynchronizer,
+                    TeamViewSynchronizer::getFailedCount, Tags.of("result", "failed"));
+        };
+    }
+
+    @Configuration
+    @Profile({"production", "default"})
+    @ConditionalOnProperty(name = "teams.slackbot.cache.users.enabled", havingValue = "true")
+    static class UserIdentityCacheConfiguration {
+
+        @Value("${teams.slackbot.cache.users.maxSize}")
+        private int maxSize;
+        @Value("${teams.slackbot.cache.users.ttlSeconds}")
+        private long ttlSeconds;
+
+        @Bean
+        public UserIdentityCache userIdentityCache() {
+            return new UserIdentityCache(maxSize, ttlSeconds);
+        }
+
+        @Bean
+        public MeterBinder userIdentityCacheMetrics(UserIdentityCache userIdentityCache) {
+            return registry -> bindCacheMeters(registry, "users", userIdentityCache, UserIdentityCache::size,
+                    UserIdentityCache::getHitCount, UserIdentityCache::getMissCount, UserIdentityCache::getPutCount,
+                    UserIdentityCache::getEvictionCount);
+        }
+    }
+
+    @Configuration
+    @Profile({"production", "default"})
+    @ConditionalOnProperty(name = "teams.slackbot.cache.users.store.enabled", havingValue = "true")
+    static class UserIdentityStoreConfiguration {
+
+        @Value("${teams.slackbot.cache.users.store.directory}")
+        private String directory;
+        @Value("${teams.slackbot.cache.users.store.maxAgeSeconds}")
+        private long maxAgeSeconds;
+
+        @Bean(destroyMethod = "close")
+        public UserIdentityStore userIdentityStore() throws IOException {
+            return new UserIdentityStore(Paths.get(directory), maxAgeSeconds);
+        }
+
+        @Bean
+        public MeterBinder userIdentityStoreMetrics(UserIdentityStore userIdentityStore) {
+            return registry -> {
+                Gauge.builder("cache.size", userIdentityStore, UserIdentityStore::size)
+                        .tag("cache", "users-store")
+                        .register(registry);
+                Gauge.builder("cache.store.bytes", userIdentityStore, UserIdentityStore::getLogBytes)
+                        .tag("cache", "users-store")
+                        .baseUnit("bytes")
+                        .register(registry);
+                bindCacheCounter(registry, "cache.gets", "users-store", userIdentityStore,
+                        UserIdentityStore::getHitCount, Tags.of("result", "hit"));
+                bindCacheCounter(registry, "cache.gets", "users-store", userIdentityStore,
+                        UserIdentityStore::getMissCount, Tags.of("result", "miss"));
+                bindCacheCounter(registry, "cache.puts", "users-store", userIdentityStore,
+                        UserIdentityStore::getAppendCount, Tags.empty());
+                bindCacheCounter(registry, "cache.compactions", "users-store", userIdentityStore,
+                        UserIdentityStore::getCompactionCount, Tags.empty());
+                bindCacheCounter(registry, "cache.store.writeFailures", "users-store", userIdentityStore,
+                        UserIdentityStore::getWriteFailureCount, Tags.empty());
+            };
+        }
+    }
+
+    private static <T> void bindCacheMeters(MeterRegistry registry, String cacheName, T cache,
+                                            ToDoubleFunction<T> size, ToDoubleFunction<T> hits,
+                                            ToDoubleFunction<T> misses, ToDoubleFunction<T> puts,
+                                            ToDoubleFunction<T> evictions) {
+        Gauge.builder("cache.size", cache, size)
+                .tag("cache", cacheName)
+                .register(registry);
+        bindCacheCounter(registry, "cache.gets", cacheName, cache, hits, Tags.of("result", "hit"));
+        bindCacheCounter(registry, "cache.gets", cacheName, cache, misses, Tags.of("result", "miss"));
+        bindCacheCounter(registry, "cache.puts", cacheName, cache, puts, Tags.empty());
+        bindCacheCounter(registry, "cache.evictions", cacheName, cache, evictions, Tags.empty());
+    }
+
+    private static <T> void bindCacheCounter(MeterRegistry registry, String name, String cacheName, T cache,
+                                             ToDoubleFunction<T> count, Tags tags) {
+        FunctionCounter.builder(name, cache, count)
+                .tag("cache", cacheName)
+                .tags(tags)
+                .register(registry);
+    }
+}
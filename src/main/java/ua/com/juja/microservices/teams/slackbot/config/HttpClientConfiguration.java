@@ -0,0 +1,250 @@
+package ua.com.juja.microservices.teams.slackbot.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.UnsupportedSchemeException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Pooled HTTP clients (blocking and non-blocking) shared by every call to the Users service, the Teams service
+ * and Slack response_url. The configured timeouts are upper bounds: a request made with a {@link Deadline} attached
+ * gets timeouts no longer than the time left to it.
+ */
+@Configuration
+@Slf4j
+public class HttpClientConfiguration {
+
+    @Value("${http.client.pool.maxTotal}")
+    private int maxTotal;
+    @Value("${http.client.pool.defaultMaxPerRoute}")
+    private int defaultMaxPerRoute;
+    @Value("${http.client.pool.users.maxPerRoute}")
+    private int usersMaxPerRoute;
+    @Value("${http.client.pool.teams.maxPerRoute}")
+    private int teamsMaxPerRoute;
+    @Value("${http.client.pool.slack.maxPerRoute}")
+    private int slackMaxPerRoute;
+    @Value("${http.client.pool.validateAfterInactivityMillis}")
+    private int validateAfterInactivityMillis;
+    @Value("${http.client.pool.maxIdleSeconds}")
+    private long maxIdleSeconds;
+    @Value("${http.client.keepAliveMillis}")
+    private long keepAliveMillis;
+    @Value("${http.client.connectTimeoutMillis}")
+    private int connectTimeoutMillis;
+    @Value("${http.client.readTimeoutMillis}")
+    private int readTimeoutMillis;
+    @Value("${http.client.connectionRequestTimeoutMillis}")
+    private int connectionRequestTimeoutMillis;
+    @Value("${http.client.async.ioThreads}")
+    private int asyncIoThreads;
+    @Value("${users.baseURL}")
+    private String usersBaseUrl;
+    @Value("${teams.baseURL}")
+    private String teamsBaseUrl;
+    @Value("${slack.responseUrl.baseURL}")
+    private String slackBaseUrl;
+
+    @Bean
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(defaultMaxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMillis);
+        connectionManager.setMaxPerRoute(createRoute(usersBaseUrl), usersMaxPerRoute);
+        connectionManager.setMaxPerRoute(createRoute(teamsBaseUrl), teamsMaxPerRoute);
+        connectionManager.setMaxPerRoute(createRoute(slackBaseUrl), slackMaxPerRoute);
+        log.info("Http connection pool created: maxTotal '{}', users '{}', teams '{}', slack '{}' per route",
+                maxTotal, usersMaxPerRoute, teamsMaxPerRoute, slackMaxPerRoute);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Request factory of both the blocking and the non-blocking rest templates
+     */
+    @Bean
+    public DeadlineHttpRequestFactory httpRequestFactory(CloseableHttpClient httpClient,
+                                                         CloseableHttpAsyncClient httpAsyncClient) {
+        return new DeadlineHttpRequestFactory(httpClient, httpAsyncClient, requestConfig());
+    }
+
+    /**
+     * Connection pool of the non-blocking client. A handful of I/O dispatcher threads serve every
+     * in-flight request, so its size limits concurrency instead of the number of threads.
+     */
+    @Bean
+    public PoolingNHttpClientConnectionManager httpAsyncConnectionManager() throws IOReactorException {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(asyncIoThreads)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSoTimeout(readTimeoutMillis)
+                .build();
+        PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(defaultMaxPerRoute);
+        connectionManager.setMaxPerRoute(createRoute(usersBaseUrl), usersMaxPerRoute);
+        connectionManager.setMaxPerRoute(createRoute(teamsBaseUrl), teamsMaxPerRoute);
+        connectionManager.setMaxPerRoute(createRoute(slackBaseUrl), slackMaxPerRoute);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient httpAsyncClient(PoolingNHttpClientConnectionManager httpAsyncConnectionManager) {
+        return HttpAsyncClients.custom()
+                .setConnectionManager(httpAsyncConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .build();
+    }
+
+    @Bean
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager,
+                                                 PoolingNHttpClientConnectionManager httpAsyncConnectionManager) {
+        return registry -> {
+            bindPoolGauges(registry, "sync", httpConnectionManager);
+            bindPoolGauges(registry, "async", httpAsyncConnectionManager);
+        };
+    }
+
+    private RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSocketTimeout(readTimeoutMillis)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMillis)
+                .build();
+    }
+
+    /**
+     * Honours the Keep-Alive header of the response and falls back to the configured value when the server
+     * does not send one, so idle connections are never reused after the server has dropped them.
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        };
+    }
+
+    private Map<String, HttpRoute> routes() {
+        Map<String, HttpRoute> routes = new LinkedHashMap<>();
+        routes.put("users", createRoute(usersBaseUrl));
+        routes.put("teams", createRoute(teamsBaseUrl));
+        routes.put("slack", createRoute(slackBaseUrl));
+        return routes;
+    }
+
+    private HttpRoute createRoute(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        HttpHost host = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+        try {
+            host = new HttpHost(host.getHostName(), DefaultSchemePortResolver.INSTANCE.resolve(host),
+                    host.getSchemeName());
+        } catch (UnsupportedSchemeException ex) {
+            log.warn("Unable to resolve port of '{}' : '{}'", baseUrl, ex.getMessage());
+        }
+        return new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName()));
+    }
+
+    private void bindPoolGauges(MeterRegistry registry, String client, ConnPoolControl<HttpRoute> connectionPool) {
+        bindPoolGauges(registry, client, "total", connectionPool, ConnPoolControl::getTotalStats);
+        routes().forEach((name, route) -> bindPoolGauges(registry, client, name, connectionPool,
+                pool -> pool.getStats(route)));
+    }
+
+    private static void bindPoolGauges(MeterRegistry registry, String client, String route,
+                                       ConnPoolControl<HttpRoute> connectionPool,
+                                       Function<ConnPoolControl<HttpRoute>, PoolStats> stats) {
+        bindPoolGauge(registry, "http.client.pool.leased", client, route, connectionPool,
+                pool -> stats.apply(pool).getLeased());
+        bindPoolGauge(registry, "http.client.pool.pending", client, route, connectionPool,
+                pool -> stats.apply(pool).getPending());
+        bindPoolGauge(registry, "http.client.pool.available", client, route, connectionPool,
+                pool -> stats.apply(pool).getAvailable());
+        bindPoolGauge(registry, "http.client.pool.max", client, route, connectionPool,
+                pool -> stats.apply(pool).getMax());
+    }
+
+    public static class DeadlineHttpRequestFactory extends HttpComponentsAsyncClientHttpRequestFactory {
+
+        private final RequestConfig requestConfig;
+
+        DeadlineHttpRequestFactory(CloseableHttpClient httpClient, CloseableHttpAsyncClient httpAsyncClient,
+                                   RequestConfig requestConfig) {
+            super(httpClient, httpAsyncClient);
+            this.requestConfig = requestConfig;
+        }
+
+        @Override
+        protected void postProcessHttpRequest(HttpUriRequest request) {
+            Deadline deadline = Deadline.current();
+            if (deadline == null || !(request instanceof HttpRequestBase)) {
+                return;
+            }
+            deadline.check();
+            // a timeout of 0 means no timeout, so at least 1 ms is left even if the deadline passes right now
+            int remainingMillis = (int) Math.max(1, Math.min(deadline.remainingMillis(), Integer.MAX_VALUE));
+            ((HttpRequestBase) request).setConfig(RequestConfig.copy(requestConfig)
+                    .setConnectTimeout(cut(requestConfig.getConnectTimeout(), remainingMillis))
+                    .setSocketTimeout(cut(requestConfig.getSocketTimeout(), remainingMillis))
+                    .setConnectionRequestTimeout(cut(requestConfig.getConnectionRequestTimeout(), remainingMillis))
+                    .build());
+        }
+
+        private static int cut(int timeoutMillis, int remainingMillis) {
+            return timeoutMillis > 0 ? Math.min(timeoutMillis, remainingMillis) : remainingMillis;
+        }
+    }
+
+    private static void bindPoolGauge(MeterRegistry registry, String name, String client, String route,
+                                      ConnPoolControl<HttpRoute> connectionPool,
+                                      ToDoubleFunction<ConnPoolControl<HttpRoute>> value) {
+        Gauge.builder(name, connectionPool, value)
+                .tag("client", client)
+                .tag("route", route)
+                .register(registry);
+    }
+}
@@ -0,0 +1,466 @@
+package ua.com.juja.microservices.teams.slackbot.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityCache;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityStore;
+import ua.com.juja.microservices.teams.slackbot.exceptions.UserExchangeException;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.BatchingAsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.BatchingUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.CachingAsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.CachingUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.CoalescingAsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.CoalescingAsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.CoalescingTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.CoalescingUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.GuardedAsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.GuardedAsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.GuardedTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.GuardedUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.HedgedAsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.HedgedAsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.HedgedTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.RetryingAsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.RetryingAsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.RetryingTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.impl.RetryingUserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.BatchDispatcher;
+import ua.com.juja.microservices.teams.slackbot.util.Bulkhead;
+import ua.com.juja.microservices.teams.slackbot.util.CircuitBreaker;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+import ua.com.juja.microservices.teams.slackbot.util.Hedger;
+import ua.com.juja.microservices.teams.slackbot.util.Retrier;
+import ua.com.juja.microservices.teams.slackbot.util.ServiceGuard;
+import ua.com.juja.microservices.teams.slackbot.util.SingleFlight;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Assembles the repositories used by the services: REST repository guarded by the circuit breaker and bulkhead of
+ * its service, then hedging of lookups when it is enabled, then retries of lookups, then batching of user lookups,
+ * then request coalescing, then the on-disk identity store and the identity cache when they are enabled. Blocking
+ * and non-blocking repositories share the same flights, so a lookup made by one of them is joined by the other, and
+ * the same guard, so both count against the same service, every hedge and retry included. Hedged lookups are always
+ * made with the non-blocking client, a blocking caller just waits for the first answer.
+ * <p>
+ * The team view sync has a chain of its own: REST repository guarded by a circuit breaker and bulkhead of the sync,
+ * then for users the identity store and cache, so the background lookups of the sync neither wait for places in the
+ * bulkheads of commands nor count towards their circuit breakers.
+ */
+@Configuration
+@Profile({"production", "default"})
+public class RepositoryConfiguration {
+
+    private static final String RESILIENCE_PREFIX = "teams.slackbot.resilience.";
+
+    private final SingleFlight<List<String>, List<User>> usersBySlackIds = new SingleFlight<>();
+    private final SingleFlight<List<String>, List<User>> usersByUuids = new SingleFlight<>();
+    private final SingleFlight<String, Team> teamsByMember = new SingleFlight<>();
+    private final Environment environment;
+    @Value("${teams.slackbot.batching.users.windowMillis}")
+    private long batchWindowMillis;
+    @Value("${teams.slackbot.batching.users.maxBatchSize}")
+    private int maxBatchSize;
+    @Value("${teams.slackbot.batching.users.loadThreads}")
+    private int batchLoadThreads;
+    @Value("${teams.slackbot.hedging.enabled}")
+    private boolean hedgingEnabled;
+
+    @Inject
+    public RepositoryConfiguration(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean
+    public ServiceGuard usersServiceGuard() {
+        return serviceGuard("users");
+    }
+
+    @Bean
+    public ServiceGuard teamsServiceGuard() {
+        return serviceGuard("teams");
+    }
+
+    @Bean
+    public ServiceGuard usersSyncServiceGuard() {
+        return serviceGuard("usersSync", "users");
+    }
+
+    @Bean
+    public ServiceGuard teamsSyncServiceGuard() {
+        return serviceGuard("teamsSync", "teams");
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService userBatchScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-batch-timer-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService userBatchLoadExecutor() {
+        return Executors.newFixedThreadPool(batchLoadThreads, new CustomizableThreadFactory("user-batch-load-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService hedgingScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("hedging-timer-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Bean
+    public Hedger usersBySlackIdsHedger(@Qualifier("hedgingScheduler") ScheduledExecutorService hedgingScheduler) {
+        return hedger("users.bySlackIds", hedgingScheduler);
+    }
+
+    @Bean
+    public Hedger usersByUuidsHedger(@Qualifier("hedgingScheduler") ScheduledExecutorService hedgingScheduler) {
+        return hedger("users.byUuids", hedgingScheduler);
+    }
+
+    @Bean
+    public Hedger teamsByMemberHedger(@Qualifier("hedgingScheduler") ScheduledExecutorService hedgingScheduler) {
+        return hedger("teams.byMember", hedgingScheduler);
+    }
+
+    /**
+     * Non-blocking Users service calls, guarded, hedged when hedging is enabled and retried
+     */
+    @Bean
+    public AsyncUserRepository remoteAsyncUserRepository(
+            @Qualifier("restAsyncUserRepository") AsyncUserRepository restAsyncUserRepository,
+            @Qualifier("usersServiceGuard") ServiceGuard usersServiceGuard,
+            @Qualifier("usersBySlackIdsHedger") Hedger usersBySlackIdsHedger,
+            @Qualifier("usersByUuidsHedger") Hedger usersByUuidsHedger,
+            @Qualifier("usersRetrier") Retrier usersRetrier) {
+        AsyncUserRepository userRepository = new GuardedAsyncUserRepository(restAsyncUserRepository,
+                usersServiceGuard);
+        if (hedgingEnabled) {
+            userRepository = new HedgedAsyncUserRepository(userRepository, usersBySlackIdsHedger, usersByUuidsHedger);
+        }
+        return new RetryingAsyncUserRepository(userRepository, usersRetrier);
+    }
+
+    /**
+     * Non-blocking Teams service calls, guarded, with lookups hedged when hedging is enabled and retried
+     */
+    @Bean
+    public AsyncTeamRepository remoteAsyncTeamRepository(
+            @Qualifier("restAsyncTeamRepository") AsyncTeamRepository restAsyncTeamRepository,
+            @Qualifier("teamsServiceGuard") ServiceGuard teamsServiceGuard,
+            @Qualifier("teamsByMemberHedger") Hedger teamsByMemberHedger,
+            @Qualifier("teamsRetrier") Retrier teamsRetrier) {
+        AsyncTeamRepository teamRepository = new GuardedAsyncTeamRepository(restAsyncTeamRepository,
+                teamsServiceGuard);
+        if (hedgingEnabled) {
+            teamRepository = new HedgedAsyncTeamRepository(teamRepository, teamsByMemberHedger);
+        }
+        return new RetryingAsyncTeamRepository(teamRepository, teamsRetrier);
+    }
+
+    @Bean
+    public BatchDispatcher<String, User> usersBySlackIdsBatch(
+            @Qualifier("restUserRepository") UserRepository restUserRepository,
+            @Qualifier("remoteAsyncUserRepository") AsyncUserRepository remoteAsyncUserRepository,
+            @Qualifier("usersServiceGuard") ServiceGuard usersServiceGuard,
+            @Qualifier("usersRetrier") Retrier usersRetrier,
+            @Qualifier("userBatchLoadExecutor") ExecutorService userBatchLoadExecutor,
+            @Qualifier("userBatchScheduler") ScheduledExecutorService userBatchScheduler) {
+        if (hedgingEnabled) {
+            return new BatchDispatcher<>(remoteAsyncUserRepository::findUsersBySlackIds, User::getSlackId,
+                    UserExchangeException.class::isInstance, batchWindowMillis, maxBatchSize, userBatchScheduler);
+        }
+        UserRepository userRepository = new RetryingUserRepository(
+                new GuardedUserRepository(restUserRepository, usersServiceGuard), usersRetrier);
+        return new BatchDispatcher<>(slackIds -> CompletableFuture.supplyAsync(Deadline.bind(Deadline.current(),
+                () -> userRepository.findUsersBySlackIds(slackIds)), userBatchLoadExecutor),
+                User::getSlackId, UserExchangeException.class::isInstance,
+                batchWindowMillis, maxBatchSize, userBatchScheduler);
+    }
+
+    @Bean
+    public BatchDispatcher<String, User> usersByUuidsBatch(
+            @Qualifier("restUserRepository") UserRepository restUserRepository,
+            @Qualifier("remoteAsyncUserRepository") AsyncUserRepository remoteAsyncUserRepository,
+            @Qualifier("usersServiceGuard") ServiceGuard usersServiceGuard,
+            @Qualifier("usersRetrier") Retrier usersRetrier,
+            @Qualifier("userBatchLoadExecutor") ExecutorService userBatchLoadExecutor,
+            @Qualifier("userBatchScheduler") ScheduledExecutorService userBatchScheduler) {
+        if (hedgingEnabled) {
+            return new BatchDispatcher<>(remoteAsyncUserRepository::findUsersByUuids, User::getUuid,
+                    UserExchangeException.class::isInstance, batchWindowMillis, maxBatchSize, userBatchScheduler);
+        }
+        UserRepository userRepository = new RetryingUserRepository(
+                new GuardedUserRepository(restUserRepository, usersServiceGuard), usersRetrier);
+        return new BatchDispatcher<>(uuids -> CompletableFuture.supplyAsync(Deadline.bind(Deadline.current(),
+                () -> userRepository.findUsersByUuids(uuids)), userBatchLoadExecutor),
+                User::getUuid, UserExchangeException.class::isInstance,
+                batchWindowMillis, maxBatchSize, userBatchScheduler);
+    }
+
+    @Bean
+    public BatchDispatcher<String, User> asyncUsersBySlackIdsBatch(
+            @Qualifier("remoteAsyncUserRepository") AsyncUserRepository remoteAsyncUserRepository,
+            @Qualifier("userBatchScheduler") ScheduledExecutorService userBatchScheduler) {
+        return new BatchDispatcher<>(remoteAsyncUserRepository::findUsersBySlackIds, User::getSlackId,
+                UserExchangeException.class::isInstance, batchWindowMillis, maxBatchSize, userBatchScheduler);
+    }
+
+    @Bean
+    public BatchDispatcher<String, User> asyncUsersByUuidsBatch(
+            @Qualifier("remoteAsyncUserRepository") AsyncUserRepository remoteAsyncUserRepository,
+            @Qualifier("userBatchScheduler") ScheduledExecutorService userBatchScheduler) {
+        return new BatchDispatcher<>(remoteAsyncUserRepository::findUsersByUuids, User::getUuid,
+                UserExchangeException.class::isInstance, batchWindowMillis, maxBatchSize, userBatchScheduler);
+    }
+
+    @Bean
+    @Primary
+    public UserRepository userRepository(
+            @Qualifier("usersBySlackIdsBatch") BatchDispatcher<String, User> usersBySlackIdsBatch,
+            @Qualifier("usersByUuidsBatch") BatchDispatcher<String, User> usersByUuidsBatch,
+            ObjectProvider<UserIdentityCache> userIdentityCache,
+            ObjectProvider<UserIdentityStore> userIdentityStore) {
+        UserRepository userRepository = new CoalescingUserRepository(
+                new BatchingUserRepository(usersBySlackIdsBatch, usersByUuidsBatch), usersBySlackIds, usersByUuids);
+        UserIdentityStore store = userIdentityStore.getIfAvailable();
+        if (store != null) {
+            userRepository = new CachingUserRepository(userRepository, store);
+        }
+        UserIdentityCache cache = userIdentityCache.getIfAvailable();
+        return cache == null ? userRepository : new CachingUserRepository(userRepository, cache);
+    }
+
+    @Bean
+    @Primary
+    public AsyncUserRepository asyncUserRepository(
+            @Qualifier("asyncUsersBySlackIdsBatch") BatchDispatcher<String, User> asyncUsersBySlackIdsBatch,
+            @Qualifier("asyncUsersByUuidsBatch") BatchDispatcher<String, User> asyncUsersByUuidsBatch,
+            ObjectProvider<UserIdentityCache> userIdentityCache,
+            ObjectProvider<UserIdentityStore> userIdentityStore) {
+        AsyncUserRepository userRepository = new CoalescingAsyncUserRepository(
+                new BatchingAsyncUserRepository(asyncUsersBySlackIdsBatch, asyncUsersByUuidsBatch),
+                usersBySlackIds, usersByUuids);
+        UserIdentityStore store = userIdentityStore.getIfAvailable();
+        if (store != null) {
+            userRepository = new CachingAsyncUserRepository(userRepository, store);
+        }
+        UserIdentityCache cache = userIdentityCache.getIfAvailable();
+        return cache == null ? userRepository : new CachingAsyncUserRepository(userRepository, cache);
+    }
+
+    @Bean
+    @Primary
+    public TeamRepository teamRepository(
+            @Qualifier("restTeamRepository") TeamRepository restTeamRepository,
+            @Qualifier("remoteAsyncTeamRepository") AsyncTeamRepository remoteAsyncTeamRepository,
+            @Qualifier("teamsServiceGuard") ServiceGuard teamsServiceGuard,
+            @Qualifier("teamsRetrier") Retrier teamsRetrier) {
+        TeamRepository teamRepository = new GuardedTeamRepository(restTeamRepository, teamsServiceGuard);
+        if (hedgingEnabled) {
+            teamRepository = new HedgedTeamRepository(teamRepository, remoteAsyncTeamRepository);
+        } else {
+            teamRepository = new RetryingTeamRepository(teamRepository, teamsRetrier);
+        }
+        return new CoalescingTeamRepository(teamRepository, teamsByMember);
+    }
+
+    /**
+     * Blocking Users service calls of the team view sync, guarded by the guard of the sync and not retried, a team
+     * whose members could not be looked up is synced again in a later round
+     */
+    @Bean
+    public UserRepository syncUserRepository(
+            @Qualifier("restUserRepository") UserRepository restUserRepository,
+            @Qualifier("usersSyncServiceGuard") ServiceGuard usersSyncServiceGuard,
+            ObjectProvider<UserIdentityCache> userIdentityCache,
+            ObjectProvider<UserIdentityStore> userIdentityStore) {
+        UserRepository userRepository = new GuardedUserRepository(restUserRepository, usersSyncServiceGuard);
+        UserIdentityStore store = userIdentityStore.getIfAvailable();
+        if (store != null) {
+            userRepository = new CachingUserRepository(userRepository, store);
+        }
+        UserIdentityCache cache = userIdentityCache.getIfAvailable();
+        return cache == null ? userRepository : new CachingUserRepository(userRepository, cache);
+    }
+
+    /**
+     * Blocking Teams service calls of the team view sync, guarded by the guard of the sync and not retried
+     */
+    @Bean
+    public TeamRepository syncTeamRepository(
+            @Qualifier("restTeamRepository") TeamRepository restTeamRepository,
+            @Qualifier("teamsSyncServiceGuard") ServiceGuard teamsSyncServiceGuard) {
+        return new GuardedTeamRepository(restTeamRepository, teamsSyncServiceGuard);
+    }
+
+    @Bean
+    @Primary
+    public AsyncTeamRepository asyncTeamRepository(
+            @Qualifier("remoteAsyncTeamRepository") AsyncTeamRepository remoteAsyncTeamRepository) {
+        return new CoalescingAsyncTeamRepository(remoteAsyncTeamRepository, teamsByMember);
+    }
+
+    @Bean
+    public MeterBinder coalescingMetrics() {
+        return registry -> {
+            bindFlightCounters(registry, "users.bySlackIds", usersBySlackIds);
+            bindFlightCounters(registry, "users.byUuids", usersByUuids);
+            bindFlightCounters(registry, "teams.byMember", teamsByMember);
+        };
+    }
+
+    @Bean
+    public MeterBinder batchingMetrics(Map<String, BatchDispatcher<?, ?>> batchDispatchers) {
+        return registry -> batchDispatchers.forEach((name, dispatcher) -> {
+            bindBatchCounter(registry, "batching.loads", name, dispatcher, BatchDispatcher::getLoadCount,
+                    "Lookups requested by callers");
+            bindBatchCounter(registry, "batching.batches", name, dispatcher, BatchDispatcher::getBatchCount,
+                    "Requests sent to the remote service");
+            bindBatchCounter(registry, "batching.keys", name, dispatcher, BatchDispatcher::getKeyCount,
+                    "Distinct keys sent to the remote service");
+        });
+    }
+
+    @Bean
+    public MeterBinder resilienceMetrics(Map<String, ServiceGuard> serviceGuards) {
+        return registry -> serviceGuards.forEach((name, guard) -> {
+            String service = guard.getCircuitBreaker().getName();
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("resilience.circuit.state", guard.getCircuitBreaker(),
+                        breaker -> breaker.getState() == state ? 1 : 0)
+                        .tag("service", service)
+                        .tag("state", state.name())
+                        .description("1 if the circuit breaker of the service is in the state")
+                        .register(registry);
+                FunctionCounter.builder("resilience.circuit.transitions", guard.getCircuitBreaker(),
+                        breaker -> breaker.getTransitionCount(state))
+                        .tag("service", service)
+                        .tag("state", state.name())
+                        .description("Transitions of the circuit breaker of the service to the state")
+                        .register(registry);
+            }
+            FunctionCounter.builder("resilience.rejected", guard.getCircuitBreaker(),
+                    CircuitBreaker::getRejectedCount)
+                    .tag("service", service)
+                    .tag("by", "circuitBreaker")
+                    .description("Calls rejected without calling the service")
+                    .register(registry);
+            FunctionCounter.builder("resilience.rejected", guard.getBulkhead(), Bulkhead::getRejectedCount)
+                    .tag("service", service)
+                    .tag("by", "bulkhead")
+                    .description("Calls rejected without calling the service")
+                    .register(registry);
+            Gauge.builder("resilience.bulkhead.active", guard.getBulkhead(), Bulkhead::getActiveCount)
+                    .tag("service", service)
+                    .description("Calls to the service in flight")
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder hedgingMetrics(Map<String, Hedger> hedgers) {
+        return registry -> hedgers.values().forEach(hedger -> {
+            bindHedgingCounter(registry, "hedging.calls", hedger, Hedger::getCallCount, "Hedgeable calls");
+            bindHedgingCounter(registry, "hedging.fired", hedger, Hedger::getFiredCount,
+                    "Second attempts sent because the first one was slow");
+            bindHedgingCounter(registry, "hedging.won", hedger, Hedger::getWonCount,
+                    "Second attempts which answered first");
+            bindHedgingCounter(registry, "hedging.overBudget", hedger, Hedger::getOverBudgetCount,
+                    "Second attempts not sent because the hedging budget was spent");
+            Gauge.builder("hedging.delay", hedger, Hedger::getDelayMillis)
+                    .tag("operation", hedger.getName())
+                    .description("Millis after which a second attempt is sent")
+                    .register(registry);
+        });
+    }
+
+    private Hedger hedger(String operation, ScheduledExecutorService hedgingScheduler) {
+        return new Hedger(operation, hedgingScheduler,
+                environment.getRequiredProperty("teams.slackbot.hedging.percentile", Double.class),
+                environment.getRequiredProperty("teams.slackbot.hedging.minDelayMillis", Long.class),
+                environment.getRequiredProperty("teams.slackbot.hedging.maxDelayMillis", Long.class),
+                environment.getRequiredProperty("teams.slackbot.hedging.budgetPercent", Double.class));
+    }
+
+    private static void bindHedgingCounter(MeterRegistry registry, String name, Hedger hedger,
+                                           ToDoubleFunction<Hedger> count, String description) {
+        FunctionCounter.builder(name, hedger, count)
+                .tag("operation", hedger.getName())
+                .description(description)
+                .register(registry);
+    }
+
+    private ServiceGuard serviceGuard(String service) {
+        return serviceGuard(service, service);
+    }
+
+    /**
+     * @param name    name of the guard, its properties are read under it
+     * @param service service the guard calls, named in the message of rejected calls
+     */
+    private ServiceGuard serviceGuard(String name, String service) {
+        String prefix = RESILIENCE_PREFIX + name + ".";
+        CircuitBreaker circuitBreaker = new CircuitBreaker(name,
+                environment.getRequiredProperty(prefix + "failureRateThreshold", Integer.class),
+                environment.getRequiredProperty(prefix + "slidingWindowSize", Integer.class),
+                environment.getRequiredProperty(prefix + "minimumCalls", Integer.class),
+                environment.getRequiredProperty(prefix + "openMillis", Long.class),
+                environment.getRequiredProperty(prefix + "halfOpenProbes", Integer.class));
+        Bulkhead bulkhead = new Bulkhead(environment.getRequiredProperty(prefix + "maxConcurrentCalls", Integer.class),
+                environment.getRequiredProperty(prefix + "maxWaitMillis", Long.class));
+        String unavailableMessage = String.format(environment.getRequiredProperty("message.service.unavailable"),
+                StringUtils.capitalize(service));
+        return new ServiceGuard(circuitBreaker, bulkhead, unavailableMessage);
+    }
+
+    private static void bindBatchCounter(MeterRegistry registry, String name, String batch,
+                                         BatchDispatcher<?, ?> dispatcher,
+                                         ToDoubleFunction<BatchDispatcher<?, ?>> count, String description) {
+        FunctionCounter.builder(name, dispatcher, count)
+                .tag("batch", batch)
+                .description(description)
+                .register(registry);
+    }
+
+    private static void bindFlightCounters(MeterRegistry registry, String operation, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("coalescing.calls", flight, SingleFlight::getExecutedCount)
+                .tag("operation", operation)
+                .tag("result", "executed")
+                .description("Calls sent to the remote service")
+                .register(registry);
+        FunctionCounter.builder("coalescing.calls", flight, SingleFlight::getCoalescedCount)
+                .tag("operation", operation)
+                .tag("result", "coalesced")
+                .description("Calls saved by joining an identical call in flight")
+                .register(registry);
+    }
+}
@@ -0,0 +1,88 @@
+package ua.com.juja.microservices.teams.slackbot.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import ua.com.juja.microservices.teams.slackbot.util.Retrier;
+import ua.com.juja.microservices.teams.slackbot.util.RetryOn;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Retry policies of the idempotent remote calls: Users service lookups, Teams service team lookups and delayed
+ * responses posted to Slack. Retrying repositories are assembled in {@link RepositoryConfiguration}.
+ */
+@Configuration
+public class RetryConfiguration {
+
+    private static final String RETRY_PREFIX = "teams.slackbot.retry.";
+
+    private final Environment environment;
+
+    @Inject
+    public RetryConfiguration(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService retryScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("retry-timer-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Bean
+    public Retrier usersRetrier(@Qualifier("retryScheduler") ScheduledExecutorService retryScheduler) {
+        return retrier("users", retryScheduler);
+    }
+
+    @Bean
+    public Retrier teamsRetrier(@Qualifier("retryScheduler") ScheduledExecutorService retryScheduler) {
+        return retrier("teams", retryScheduler);
+    }
+
+    @Bean
+    public Retrier slackRetrier(@Qualifier("retryScheduler") ScheduledExecutorService retryScheduler) {
+        return retrier("slack", retryScheduler);
+    }
+
+    @Bean
+    public MeterBinder retryMetrics(Map<String, Retrier> retriers) {
+        return registry -> retriers.values().forEach(retrier -> {
+            bindRetryCounter(registry, "retry.calls", retrier, Retrier::getCallCount, "Retryable calls");
+            bindRetryCounter(registry, "retry.retries", retrier, Retrier::getRetryCount, "Attempts after the first");
+            bindRetryCounter(registry, "retry.overBudget", retrier, Retrier::getOverBudgetCount,
+                    "Retries not made because the retry budget was spent");
+            bindRetryCounter(registry, "retry.exhausted", retrier, Retrier::getExhaustedCount,
+                    "Calls failed after the last attempt");
+        });
+    }
+
+    private Retrier retrier(String operation, ScheduledExecutorService retryScheduler) {
+        String prefix = RETRY_PREFIX + operation + ".";
+        return new Retrier(operation, retryScheduler,
+                environment.getRequiredProperty(prefix + "maxAttempts", Integer.class),
+                environment.getRequiredProperty(prefix + "initialBackoffMillis", Long.class),
+                environment.getRequiredProperty(prefix + "maxBackoffMillis", Long.class),
+                Arrays.asList(environment.getRequiredProperty(prefix + "retryOn", RetryOn[].class)),
+                environment.getRequiredProperty(RETRY_PREFIX + "budgetPercent", Double.class));
+    }
+
+    private static void bindRetryCounter(MeterRegistry registry, String name, Retrier retrier,
+                                         ToDoubleFunction<Retrier> count, String description) {
+        FunctionCounter.builder(name, retrier, count)
+                .tag("operation", retrier.getName())
+                .description(description)
+                .register(registry);
+    }
+}
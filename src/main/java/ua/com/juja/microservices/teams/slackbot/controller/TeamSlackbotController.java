@@ -2,14 +2,25 @@ package ua.com.juja.microservices.teams.slackbot.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import me.ramswaroop.jbot.core.slack.models.RichMessage;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
+import ua.com.juja.microservices.teams.slackbot.command.CommandDeduplicator;
+import ua.com.juja.microservices.teams.slackbot.command.CommandExecutor;
+import ua.com.juja.microservices.teams.slackbot.command.CommandType;
+import ua.com.juja.microservices.teams.slackbot.exceptions.CommandRejectedException;
 import ua.com.juja.microservices.teams.slackbot.exceptions.ExceptionsHandler;
+import ua.com.juja.microservices.teams.slackbot.metrics.CommandMetrics;
+import ua.com.juja.microservices.teams.slackbot.metrics.CommandPhase;
+import ua.com.juja.microservices.teams.slackbot.service.AsyncTeamService;
 import ua.com.juja.microservices.teams.slackbot.service.TeamService;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+import ua.com.juja.microservices.teams.slackbot.util.LogContext;
+import ua.com.juja.microservices.teams.slackbot.util.Retrier;
 import ua.com.juja.microservices.teams.slackbot.util.SlackIdHandler;
 
 import javax.inject.Inject;
@@ -17,7 +28,9 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Arrays;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -27,6 +40,16 @@ public class TeamSlackbotController {
     private final RestTemplate restTemplate;
     private final TeamService teamService;
     private final ExceptionsHandler exceptionsHandler;
+    private final CommandExecutor commandExecutor;
+    private final CommandDeduplicator commandDeduplicator;
+    private final AsyncTeamService asyncTeamService;
+    private final CommandMetrics commandMetrics;
+    private final Retrier slackRetrier;
+
+    @Value("${teams.slackbot.async.enabled}")
+    private boolean asyncEnabled;
+    @Value("${teams.slackbot.deadline.millis}")
+    private long deadlineMillis;
 
     @Value("${slack.slashCommandToken}")
     private String slackToken;
@@ -52,10 +75,20 @@ public class TeamSlackbotController {
     @Inject
     public TeamSlackbotController(TeamService teamService,
                                   ExceptionsHandler exceptionsHandler,
-                                  RestTemplate restTemplate) {
+                                  RestTemplate restTemplate,
+                                  CommandExecutor commandExecutor,
+                                  CommandDeduplicator commandDeduplicator,
+                                  AsyncTeamService asyncTeamService,
+                                  CommandMetrics commandMetrics,
+                                  @Qualifier("slackRetrier") Retrier slackRetrier) {
         this.teamService = teamService;
         this.exceptionsHandler = exceptionsHandler;
         this.restTemplate = restTemplate;
+        this.commandExecutor = commandExecutor;
+        this.commandDeduplicator = commandDeduplicator;
+        this.asyncTeamService = asyncTeamService;
+        this.commandMetrics = commandMetrics;
+        this.slackRetrier = slackRetrier;
     }
 
     @PostMapping(value = "${teams.slackbot.endpoint.activateTeam}", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
@@ -65,13 +98,14 @@ public class TeamSlackbotController {
                                                   @RequestParam("response_url") String responseUrl,
                                                   HttpServletResponse response) throws IOException {
         exceptionsHandler.setResponseUrl(responseUrl);
-        if (isRequestCorrect(token, response, fromUserId, responseUrl)) {
-            sendInstantResponseMessage(response, ACTIVATE_TEAM_INSTANT_MESSAGE);
-            teamService.activateTeam(fromUserId, text);
-            RichMessage message = new RichMessage(String.format(ACTIVATE_TEAM_DELAYED_MESSAGE, text));
-            sendDelayedResponseMessage(responseUrl, message);
-            log.info("'Activate team' command processed : fromUserId: '{}', text: '{}', response_url: '{}' and sent " +
-                    "message to slack: '{}'", fromUserId, text, responseUrl, message.getText());
+        try (LogContext.Scope ignored = LogContext.startCommand(CommandType.ACTIVATE_TEAM, fromUserId)) {
+            if (isRequestCorrect(CommandType.ACTIVATE_TEAM, token, response, fromUserId, responseUrl)) {
+                sendInstantResponseMessage(CommandType.ACTIVATE_TEAM, response, ACTIVATE_TEAM_INSTANT_MESSAGE);
+                executeCommand(CommandType.ACTIVATE_TEAM, fromUserId, text, responseUrl,
+                        () -> teamService.activateTeam(fromUserId, text),
+                        () -> asyncTeamService.activateTeam(fromUserId, text),
+                        team -> new RichMessage(String.format(ACTIVATE_TEAM_DELAYED_MESSAGE, text)));
+            }
         }
     }
 
@@ -83,16 +117,16 @@ public class TeamSlackbotController {
                                                     @RequestParam("response_url") String responseUrl,
                                                     HttpServletResponse response) throws IOException {
         exceptionsHandler.setResponseUrl(responseUrl);
-        if (isRequestCorrect(token, response, fromUserId, responseUrl)) {
-            sendInstantResponseMessage(response, String.format(DEACTIVATE_TEAM_INSTANT_MESSAGE, text));
-            Set<String> slackIds = teamService.deactivateTeam(fromUserId, text);
-            RichMessage message = new RichMessage(String.format(DEACTIVATE_TEAM_DELAYED_MESSAGE,
-                    slackIds.stream().sorted()
-                            .map(SlackIdHandler::wrapSlackId)
-                            .collect(Collectors.joining(" "))));
-            sendDelayedResponseMessage(responseUrl, message);
-            log.info("'Deactivate team' command processed : fromUserId: '{}', text: '{}', response_url: '{}' and sent " +
-                    "message to slack: '{}'", fromUserId, text, responseUrl, message.getText());
+        try (LogContext.Scope ignored = LogContext.startCommand(CommandType.DEACTIVATE_TEAM, fromUserId)) {
+            if (isRequestCorrect(CommandType.DEACTIVATE_TEAM, token, response, fromUserId, responseUrl)) {
+                sendInstantResponseMessage(CommandType.DEACTIVATE_TEAM, response,
+                        String.format(DEACTIVATE_TEAM_INSTANT_MESSAGE, text));
+                executeCommand(CommandType.DEACTIVATE_TEAM, fromUserId, text, responseUrl,
+                        () -> teamService.deactivateTeam(fromUserId, text),
+                        () -> asyncTeamService.deactivateTeam(fromUserId, text),
+                        slackIds -> new RichMessage(String.format(DEACTIVATE_TEAM_DELAYED_MESSAGE,
+                                SlackIdHandler.wrapSlackIds(slackIds))));
+            }
         }
     }
 
@@ -103,16 +137,16 @@ public class TeamSlackbotController {
                                              @RequestParam("response_url") String responseUrl,
                                              HttpServletResponse response) throws IOException {
         exceptionsHandler.setResponseUrl(responseUrl);
-        if (isRequestCorrect(token, response, fromUserId, responseUrl)) {
-            sendInstantResponseMessage(response, String.format(GET_TEAM_INSTANT_MESSAGE, text));
-            Set<String> slackIds = teamService.getTeam(text);
-            RichMessage message = new RichMessage(String.format(GET_TEAM_DELAYED_MESSAGE,
-                    text, slackIds.stream().sorted()
-                            .map(SlackIdHandler::wrapSlackId)
-                            .collect(Collectors.joining(" "))));
-            sendDelayedResponseMessage(responseUrl, message);
-            log.info("'Get team' command processed : fromUserId: '{}', text: '{}', response_url: '{}' and sent " +
-                    "message to slack: '{}'", fromUserId, text, responseUrl, message.getText());
+        try (LogContext.Scope ignored = LogContext.startCommand(CommandType.GET_TEAM, fromUserId)) {
+            if (isRequestCorrect(CommandType.GET_TEAM, token, response, fromUserId, responseUrl)) {
+                sendInstantResponseMessage(CommandType.GET_TEAM, response,
+                        String.format(GET_TEAM_INSTANT_MESSAGE, text));
+                executeCommand(CommandType.GET_TEAM, fromUserId, text, responseUrl,
+                        () -> teamService.getTeam(text),
+                        () -> asyncTeamService.getTeam(text),
+                        slackIds -> new RichMessage(String.format(GET_TEAM_DELAYED_MESSAGE, text,
+                                SlackIdHandler.wrapSlackIds(slackIds))));
+            }
         }
     }
 
@@ -122,46 +156,120 @@ public class TeamSlackbotController {
                                                @RequestParam("response_url") String responseUrl,
                                                HttpServletResponse response) throws IOException {
         exceptionsHandler.setResponseUrl(responseUrl);
-        if (isRequestCorrect(token, response, fromUserId, responseUrl)) {
-            String wrappedFromUserId = SlackIdHandler.wrapSlackId(fromUserId);
-            sendInstantResponseMessage(response, String.format(GET_MY_TEAM_INSTANT_MESSAGE, wrappedFromUserId));
-            Set<String> slackIds = teamService.getTeam(wrappedFromUserId);
-            RichMessage message = new RichMessage(String.format(GET_MY_TEAM_DELAYED_MESSAGE,
-                    wrappedFromUserId, slackIds.stream().sorted()
-                            .map(SlackIdHandler::wrapSlackId)
-                            .collect(Collectors.joining(" "))));
-            sendDelayedResponseMessage(responseUrl, message);
-            log.info("'Get my team' command processed : fromUserId: '{}', text: '{}', response_url: '{}' and sent " +
-                    "message to slack: '{}'", fromUserId, responseUrl, message.getText());
+        try (LogContext.Scope ignored = LogContext.startCommand(CommandType.GET_MY_TEAM, fromUserId)) {
+            if (isRequestCorrect(CommandType.GET_MY_TEAM, token, response, fromUserId, responseUrl)) {
+                String wrappedFromUserId = SlackIdHandler.wrapSlackId(fromUserId);
+                sendInstantResponseMessage(CommandType.GET_MY_TEAM, response,
+                        String.format(GET_MY_TEAM_INSTANT_MESSAGE, wrappedFromUserId));
+                executeCommand(CommandType.GET_MY_TEAM, fromUserId, wrappedFromUserId, responseUrl,
+                        () -> teamService.getTeam(wrappedFromUserId),
+                        () -> asyncTeamService.getTeam(wrappedFromUserId),
+                        slackIds -> new RichMessage(String.format(GET_MY_TEAM_DELAYED_MESSAGE, wrappedFromUserId,
+                                SlackIdHandler.wrapSlackIds(slackIds))));
+            }
+        }
+    }
+
+    /**
+     * Runs the command on the command executor. In async mode the Users and Teams calls are only started here
+     * and the executor is used just to send the delayed message once they complete. Their completion is handed to
+     * the reply executor rather than run on the http client I/O thread which completes them, as replying to a
+     * rejected command posts to Slack.
+     * <p>
+     * The Users and Teams calls of the command share one deadline, counted from now, so the time spent in the
+     * executor queue is part of the budget. The delayed message is sent without it.
+     * <p>
+     * Duplicates of the command sent by the same user share its Users and Teams calls, see
+     * {@link CommandDeduplicator}; each of them still gets its own delayed message.
+     */
+    private <T> void executeCommand(CommandType commandType, String fromUserId, String text, String responseUrl,
+                                    Supplier<T> command, Supplier<CompletableFuture<T>> asyncCommand,
+                                    Function<T, RichMessage> delayedMessage) {
+        Deadline deadline = Deadline.after(deadlineMillis);
+        CommandDeduplicator.Key key = CommandDeduplicator.key(commandType, fromUserId, text);
+        if (!asyncEnabled) {
+            submitCommand(commandType, responseUrl, () -> {
+                T result = commandMetrics.record(commandType, CommandPhase.SERVICE,
+                        () -> deadline.call(() -> commandDeduplicator.execute(key, command)));
+                completeCommand(commandType, responseUrl, delayedMessage.apply(result));
+            });
+            return;
+        }
+        long serviceStart = commandMetrics.start();
+        CompletableFuture<T> asyncResult;
+        try (Deadline.Scope ignored = deadline.attach()) {
+            asyncResult = commandDeduplicator.executeAsync(key, asyncCommand);
+        }
+        asyncResult.whenCompleteAsync(LogContext.wrap((result, ex) -> {
+            commandMetrics.stop(commandType, CommandPhase.SERVICE, serviceStart, ex);
+            try {
+                submitCommand(commandType, responseUrl, () -> {
+                    if (ex != null) {
+                        throw deadline.translate(ex);
+                    }
+                    completeCommand(commandType, responseUrl, delayedMessage.apply(result));
+                });
+            } catch (CommandRejectedException rejected) {
+                exceptionsHandler.handleCommandException(responseUrl, rejected);
+            }
+        }), commandExecutor.getReplyExecutor());
+    }
+
+    /**
+     * Hands the command to the command executor and times how long it waits there
+     */
+    private void submitCommand(CommandType commandType, String responseUrl, Runnable command) {
+        long queuedAt = commandMetrics.start();
+        try {
+            commandExecutor.execute(commandType, responseUrl, () -> {
+                commandMetrics.stop(commandType, CommandPhase.QUEUE, queuedAt, CommandMetrics.SUCCESS);
+                command.run();
+            });
+        } catch (CommandRejectedException ex) {
+            commandMetrics.stop(commandType, CommandPhase.QUEUE, queuedAt, ex);
+            throw ex;
         }
     }
 
-    private void sendInstantResponseMessage(HttpServletResponse response, String message) throws IOException {
+    private void completeCommand(CommandType commandType, String responseUrl, RichMessage message) {
+        sendDelayedResponseMessage(commandType, responseUrl, message);
+        log.info("Command processed and sent message to slack: '{}'", message.getText());
+    }
+
+    private void sendInstantResponseMessage(CommandType commandType, HttpServletResponse response, String message)
+            throws IOException {
         log.debug("Before sending instant response message '{}' ", message);
-        response.setStatus(HttpServletResponse.SC_OK);
-        PrintWriter printWriter = response.getWriter();
-        printWriter.print(message);
-        printWriter.flush();
-        printWriter.close();
+        commandMetrics.record(commandType, CommandPhase.INSTANT_REPLY, () -> {
+            response.setStatus(HttpServletResponse.SC_OK);
+            PrintWriter printWriter = response.getWriter();
+            printWriter.print(message);
+            printWriter.flush();
+            printWriter.close();
+            return null;
+        });
         log.info("After sending instant response message to slack '{}' ", message);
     }
 
-    private void sendDelayedResponseMessage(String responseUrl, RichMessage message) {
+    private void sendDelayedResponseMessage(CommandType commandType, String responseUrl, RichMessage message) {
         log.debug("Before sending delayed response message '{}' to slack response_url '{}' ", message.getText(),
                 responseUrl);
-        String response = restTemplate.postForObject(responseUrl, message, String.class);
+        String response = commandMetrics.record(commandType, CommandPhase.DELAYED_POST,
+                () -> slackRetrier.execute(() -> restTemplate.postForObject(responseUrl, message, String.class)));
         log.debug("After sending delayed response message. Response is '{}'", response);
     }
 
-    private boolean isRequestCorrect(String token, HttpServletResponse response, String... params)
-            throws IOException {
+    private boolean isRequestCorrect(CommandType commandType, String token, HttpServletResponse response,
+                                     String... params) throws IOException {
         log.debug("Before checking parameters of request from slack. Token '{}', other '{}' ", token,
                 Arrays.stream(params).sorted().collect(Collectors.joining(",")));
+        long start = commandMetrics.start();
         if (!token.equals(slackToken) ||
                 Arrays.stream(params).filter(param -> param == null || param.isEmpty()).collect(Collectors.toList()).size() > 0) {
-            sendInstantResponseMessage(response, SORRY_MESSAGE);
+            commandMetrics.stop(commandType, CommandPhase.VALIDATION, start, CommandMetrics.INVALID);
+            sendInstantResponseMessage(commandType, response, SORRY_MESSAGE);
             return false;
         }
+        commandMetrics.stop(commandType, CommandPhase.VALIDATION, start, CommandMetrics.SUCCESS);
         log.debug("After checking parameters of request from slack. Parameters is correct");
         return true;
     }
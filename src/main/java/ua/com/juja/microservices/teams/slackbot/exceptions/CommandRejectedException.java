@@ -0,0 +1,7 @@
+package ua.com.juja.microservices.teams.slackbot.exceptions;
+
+public class CommandRejectedException extends RuntimeException {
+    public CommandRejectedException(String message) {
+        super(message);
+    }
+}
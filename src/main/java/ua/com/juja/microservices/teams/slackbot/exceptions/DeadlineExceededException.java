@@ -0,0 +1,14 @@
+package ua.com.juja.microservices.teams.slackbot.exceptions;
+
+/**
+ * Thrown when a command runs out of its time budget, instead of starting or waiting for another downstream call
+ */
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
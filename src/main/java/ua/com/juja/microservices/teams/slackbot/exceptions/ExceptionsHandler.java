@@ -2,13 +2,19 @@ package ua.com.juja.microservices.teams.slackbot.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
 import me.ramswaroop.jbot.core.slack.models.RichMessage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
 import ua.com.juja.microservices.teams.slackbot.service.UserService;
+import ua.com.juja.microservices.teams.slackbot.util.Retrier;
 
 import javax.inject.Inject;
+import java.lang.reflect.Method;
 
 /**
  * @author Ivan Shapovalov
@@ -21,18 +27,42 @@ public class ExceptionsHandler {
 
     private final UserService userService;
 
+    private final Retrier slackRetrier;
+
+    private final ExceptionHandlerMethodResolver exceptionHandlerMethodResolver =
+            new ExceptionHandlerMethodResolver(ExceptionsHandler.class);
+
     private ThreadLocal<String> responseUrl=new ThreadLocal<>();
 
+    @Value("${message.deadline.exceeded}")
+    private String deadlineExceededMessage;
+
     @Inject
-    public ExceptionsHandler(RestTemplate restTemplate, UserService userService) {
+    public ExceptionsHandler(RestTemplate restTemplate, UserService userService,
+                             @Qualifier("slackRetrier") Retrier slackRetrier) {
         this.restTemplate = restTemplate;
         this.userService = userService;
+        this.slackRetrier = slackRetrier;
     }
 
     public void setResponseUrl(String responseUrl) {
         this.responseUrl.set(responseUrl);
     }
 
+    /**
+     * Handles an exception thrown outside of a request thread (e.g. by a command executor worker) with the same
+     * {@link ExceptionHandler} method Spring MVC would have chosen for it.
+     */
+    public void handleCommandException(String responseUrl, Exception ex) {
+        setResponseUrl(responseUrl);
+        try {
+            Method handler = exceptionHandlerMethodResolver.resolveMethod(ex);
+            ReflectionUtils.invokeMethod(handler, this, ex);
+        } finally {
+            this.responseUrl.remove();
+        }
+    }
+
     @ExceptionHandler(Exception.class)
     public void handleAllOtherExceptions(Exception ex) {
         sendErrorResponseAsRichMessage(new RichMessage(ex.getMessage()));
@@ -43,6 +73,22 @@ public class ExceptionsHandler {
         sendErrorResponseAsRichMessage(new RichMessage(ex.getMessage()));
     }
 
+    @ExceptionHandler(CommandRejectedException.class)
+    public void handleCommandRejectedException(CommandRejectedException ex) {
+        sendErrorResponseAsRichMessage(new RichMessage(ex.getMessage()));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public void handleServiceUnavailableException(ServiceUnavailableException ex) {
+        sendErrorResponseAsRichMessage(new RichMessage(ex.getMessage()));
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public void handleDeadlineExceededException(DeadlineExceededException ex) {
+        log.warn("Command not completed in time : '{}'", ex.getMessage());
+        sendErrorResponseAsRichMessage(new RichMessage(deadlineExceededMessage));
+    }
+
     @ExceptionHandler(ResourceAccessException.class)
     public void handleResourceAccessException(ResourceAccessException ex) {
         sendErrorResponseAsRichMessage(new RichMessage("Some service unavailable"));
@@ -71,7 +117,8 @@ public class ExceptionsHandler {
         log.debug("Before sending error response message '{}' to slack response_url '{}' ", richMessage.getText(),
                 responseUrl.get());
         try {
-            restTemplate.postForObject(responseUrl.get(), richMessage, String.class);
+            String url = responseUrl.get();
+            slackRetrier.execute(() -> restTemplate.postForObject(url, richMessage, String.class));
         } catch (Exception ex) {
             log.warn("Nested exception : '{}' with text '{}' . Unable to send response to slack", ex.getMessage(),
                     richMessage.getText());
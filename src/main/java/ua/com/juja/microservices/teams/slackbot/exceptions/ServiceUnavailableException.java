@@ -0,0 +1,10 @@
+package ua.com.juja.microservices.teams.slackbot.exceptions;
+
+/**
+ * Thrown instead of calling a service whose circuit breaker is open or whose bulkhead is full
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,96 @@
+package ua.com.juja.microservices.teams.slackbot.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ua.com.juja.microservices.teams.slackbot.command.CommandType;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times phases of slash commands as the 'command.phase' timer tagged with the command, the phase, the outcome and
+ * the exception thrown. Percentile histograms are published, so percentiles can be aggregated across instances.
+ */
+@Component
+public class CommandMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String INVALID = "invalid";
+    private static final String NO_EXCEPTION = "None";
+
+    private final MeterRegistry meterRegistry;
+
+    @Inject
+    public CommandMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return start time to pass to {@link #stop}
+     */
+    public long start() {
+        return meterRegistry.config().clock().monotonicTime();
+    }
+
+    public void stop(CommandType commandType, CommandPhase phase, long start, String outcome) {
+        record(commandType, phase, start, outcome, NO_EXCEPTION);
+    }
+
+    /**
+     * @param ex exception the phase failed with or null if it succeeded
+     */
+    public void stop(CommandType commandType, CommandPhase phase, long start, Throwable ex) {
+        record(commandType, phase, start, ex == null ? SUCCESS : FAILURE, exceptionTag(ex));
+    }
+
+    /**
+     * @return simple class name of the exception without the CompletionException/ExecutionException wrappers
+     */
+    static String exceptionTag(Throwable ex) {
+        if (ex == null) {
+            return NO_EXCEPTION;
+        }
+        Throwable cause = ex;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Runs the phase and times it, exceptions of the phase are recorded and rethrown
+     */
+    public <T, E extends Exception> T record(CommandType commandType, CommandPhase phase, Phase<T, E> action)
+            throws E {
+        long start = start();
+        try {
+            T result = action.run();
+            stop(commandType, phase, start, (Throwable) null);
+            return result;
+        } catch (Exception | Error ex) {
+            stop(commandType, phase, start, ex);
+            throw ex;
+        }
+    }
+
+    private void record(CommandType commandType, CommandPhase phase, long start, String outcome, String exception) {
+        Timer.builder("command.phase")
+                .description("Time spent in a phase of a slash command")
+                .tag("command", commandType.getKey())
+                .tag("phase", phase.getKey())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(meterRegistry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public interface Phase<T, E extends Exception> {
+        T run() throws E;
+    }
+}
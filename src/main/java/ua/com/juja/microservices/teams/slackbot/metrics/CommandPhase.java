@@ -0,0 +1,36 @@
+package ua.com.juja.microservices.teams.slackbot.metrics;
+
+import lombok.Getter;
+
+/**
+ * Phases of a slash command, each of them is timed separately. The key is the value of the 'phase' tag.
+ */
+@Getter
+public enum CommandPhase {
+    /**
+     * Checking the token and the parameters of the request from slack
+     */
+    VALIDATION("validation"),
+    /**
+     * Writing the instant reply to the slash command request
+     */
+    INSTANT_REPLY("instantReply"),
+    /**
+     * Waiting in the queue of the command executor
+     */
+    QUEUE("queue"),
+    /**
+     * Calls to the Users and Teams services made by the team service
+     */
+    SERVICE("service"),
+    /**
+     * Posting the delayed message to the slack response_url
+     */
+    DELAYED_POST("delayedPost");
+
+    private final String key;
+
+    CommandPhase(String key) {
+        this.key = key;
+    }
+}
@@ -0,0 +1,139 @@
+package ua.com.juja.microservices.teams.slackbot.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call of RestTemplate and AsyncRestTemplate as the 'downstream.requests' timer. The endpoint tag
+ * names the called endpoint of the Users service, the Teams service or slack instead of the url, so ids in urls
+ * do not produce a new time series each. The time is measured until the response headers are received.
+ */
+@Component
+public class DownstreamMetricsInterceptor
+        implements ClientHttpRequestInterceptor, AsyncClientHttpRequestInterceptor {
+
+    private static final String IO_ERROR = "IO_ERROR";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${users.endpoint.usersBySlackIds}")
+    private String usersBySlackIdsUrl;
+    @Value("${users.endpoint.usersByUuids}")
+    private String usersByUuidsUrl;
+    @Value("${teams.endpoint.activateTeam}")
+    private String teamsActivateTeamUrl;
+    @Value("${teams.endpoint.deactivateTeam}")
+    private String teamsDeactivateTeamUrl;
+    @Value("${teams.endpoint.getTeam}")
+    private String teamsGetTeamUrl;
+    @Value("${slack.responseUrl.baseURL}")
+    private String slackBaseUrl;
+
+    @Inject
+    public DownstreamMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long start = meterRegistry.config().clock().monotonicTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            record(request, start, response, null);
+            return response;
+        } catch (IOException | RuntimeException ex) {
+            record(request, start, null, ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public ListenableFuture<ClientHttpResponse> intercept(HttpRequest request, byte[] body,
+                                                          AsyncClientHttpRequestExecution execution)
+            throws IOException {
+        long start = meterRegistry.config().clock().monotonicTime();
+        ListenableFuture<ClientHttpResponse> future;
+        try {
+            future = execution.executeAsync(request, body);
+        } catch (IOException | RuntimeException ex) {
+            record(request, start, null, ex);
+            throw ex;
+        }
+        future.addCallback(response -> record(request, start, response, null),
+                ex -> record(request, start, null, ex));
+        return future;
+    }
+
+    String endpointOf(URI uri) {
+        String url = uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+        if (url.equals(usersBySlackIdsUrl)) {
+            return "usersBySlackIds";
+        }
+        if (url.equals(usersByUuidsUrl)) {
+            return "usersByUuids";
+        }
+        if (url.startsWith(teamsGetTeamUrl + "/")) {
+            return "teams/users/{uuid}";
+        }
+        if (url.equals(teamsActivateTeamUrl) || url.equals(teamsDeactivateTeamUrl)) {
+            return "teams";
+        }
+        if (url.startsWith(slackBaseUrl)) {
+            return "response_url";
+        }
+        return "other";
+    }
+
+    private void record(HttpRequest request, long start, ClientHttpResponse response, Throwable ex) {
+        String status = ex == null ? statusOf(response) : IO_ERROR;
+        Timer.builder("downstream.requests")
+                .description("Time of calls to the Users service, the Teams service and slack")
+                .tag("endpoint", endpointOf(request.getURI()))
+                .tag("method", request.getMethod() == null ? "UNKNOWN" : request.getMethod().name())
+                .tag("status", status)
+                .tag("outcome", outcomeOf(status))
+                .tag("exception", CommandMetrics.exceptionTag(ex))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(meterRegistry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String statusOf(ClientHttpResponse response) {
+        try {
+            return String.valueOf(response.getRawStatusCode());
+        } catch (IOException ex) {
+            return IO_ERROR;
+        }
+    }
+
+    private static String outcomeOf(String status) {
+        if (status.length() != 3 || !Character.isDigit(status.charAt(0))) {
+            return "ERROR";
+        }
+        switch (status.charAt(0)) {
+            case '2':
+                return "SUCCESS";
+            case '4':
+                return "CLIENT_ERROR";
+            case '5':
+                return "SERVER_ERROR";
+            default:
+                return "OTHER";
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ua.com.juja.microservices.teams.slackbot.repository;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link TeamRepository}
+ */
+public interface AsyncTeamRepository {
+
+    CompletableFuture<Team> activateTeam(ActivateTeamRequest activateTeamRequest);
+
+    CompletableFuture<Team> deactivateTeam(DeactivateTeamRequest deactivateTeamRequest);
+
+    CompletableFuture<Team> getTeam(String uuid);
+}
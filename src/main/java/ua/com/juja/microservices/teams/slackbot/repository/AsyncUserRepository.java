@@ -0,0 +1,16 @@
+package ua.com.juja.microservices.teams.slackbot.repository;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link UserRepository}
+ */
+public interface AsyncUserRepository {
+
+    CompletableFuture<List<User>> findUsersBySlackIds(List<String> slackIds);
+
+    CompletableFuture<List<User>> findUsersByUuids(List<String> uuids);
+}
@@ -0,0 +1,33 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.BatchDispatcher;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link BatchingUserRepository}.
+ */
+public class BatchingAsyncUserRepository implements AsyncUserRepository {
+
+    private final BatchDispatcher<String, User> bySlackIds;
+    private final BatchDispatcher<String, User> byUuids;
+
+    public BatchingAsyncUserRepository(BatchDispatcher<String, User> bySlackIds,
+                                       BatchDispatcher<String, User> byUuids) {
+        this.bySlackIds = bySlackIds;
+        this.byUuids = byUuids;
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersBySlackIds(List<String> slackIds) {
+        return bySlackIds.load(slackIds);
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersByUuids(List<String> uuids) {
+        return byUuids.load(uuids);
+    }
+}
@@ -0,0 +1,33 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.BatchDispatcher;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+
+import java.util.List;
+
+/**
+ * {@link UserRepository} which merges lookups made by concurrent commands into batched Users service requests.
+ * A caller waits for its batch at most until its {@link Deadline}.
+ */
+public class BatchingUserRepository implements UserRepository {
+
+    private final BatchDispatcher<String, User> bySlackIds;
+    private final BatchDispatcher<String, User> byUuids;
+
+    public BatchingUserRepository(BatchDispatcher<String, User> bySlackIds, BatchDispatcher<String, User> byUuids) {
+        this.bySlackIds = bySlackIds;
+        this.byUuids = byUuids;
+    }
+
+    @Override
+    public List<User> findUsersBySlackIds(List<String> slackIds) {
+        return Deadline.join(bySlackIds.load(slackIds));
+    }
+
+    @Override
+    public List<User> findUsersByUuids(List<String> uuids) {
+        return Deadline.join(byUuids.load(uuids));
+    }
+}
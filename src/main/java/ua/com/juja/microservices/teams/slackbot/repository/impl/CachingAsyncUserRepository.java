@@ -0,0 +1,55 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentities;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link CachingUserRepository}, sharing the same {@link UserIdentities}.
+ */
+@Slf4j
+public class CachingAsyncUserRepository implements AsyncUserRepository {
+
+    private final AsyncUserRepository delegate;
+    private final UserIdentities cache;
+
+    public CachingAsyncUserRepository(AsyncUserRepository delegate, UserIdentities cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersBySlackIds(List<String> slackIds) {
+        Map<String, User> found = cache.getAllBySlackIds(slackIds);
+        List<String> missing = CachingUserRepository.missingKeys(slackIds, found);
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(CachingUserRepository.orderedBy(slackIds, found));
+        }
+        return delegate.findUsersBySlackIds(missing)
+                .thenApply(fetched -> {
+                    CachingUserRepository.remember(cache, fetched);
+                    fetched.forEach(user -> found.put(user.getSlackId(), user));
+                    return CachingUserRepository.orderedBy(slackIds, found);
+                });
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersByUuids(List<String> uuids) {
+        Map<String, User> found = cache.getAllByUuids(uuids);
+        List<String> missing = CachingUserRepository.missingKeys(uuids, found);
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(CachingUserRepository.orderedBy(uuids, found));
+        }
+        return delegate.findUsersByUuids(missing)
+                .thenApply(fetched -> {
+                    CachingUserRepository.remember(cache, fetched);
+                    fetched.forEach(user -> found.put(user.getUuid(), user));
+                    return CachingUserRepository.orderedBy(uuids, found);
+                });
+    }
+}
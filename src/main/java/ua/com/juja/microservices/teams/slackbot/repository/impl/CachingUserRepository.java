@@ -0,0 +1,84 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentities;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * {@link UserRepository} which answers from {@link UserIdentities}, the in-memory cache or the on-disk store, and asks
+ * the delegate only for the ids missing in them.
+ */
+@Slf4j
+public class CachingUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final UserIdentities cache;
+
+    public CachingUserRepository(UserRepository delegate, UserIdentities cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<User> findUsersBySlackIds(List<String> slackIds) {
+        Map<String, User> found = cache.getAllBySlackIds(slackIds);
+        List<String> missing = missingKeys(slackIds, found);
+        if (!missing.isEmpty()) {
+            List<User> fetched = delegate.findUsersBySlackIds(missing);
+            remember(cache, fetched);
+            fetched.forEach(user -> found.put(user.getSlackId(), user));
+        }
+        log.debug("Found '{}' of '{}' users by slackIds in known identities", slackIds.size() - missing.size(),
+                slackIds.size());
+        return orderedBy(slackIds, found);
+    }
+
+    @Override
+    public List<User> findUsersByUuids(List<String> uuids) {
+        Map<String, User> found = cache.getAllByUuids(uuids);
+        List<String> missing = missingKeys(uuids, found);
+        if (!missing.isEmpty()) {
+            List<User> fetched = delegate.findUsersByUuids(missing);
+            remember(cache, fetched);
+            fetched.forEach(user -> found.put(user.getUuid(), user));
+        }
+        log.debug("Found '{}' of '{}' users by uuids in known identities", uuids.size() - missing.size(),
+                uuids.size());
+        return orderedBy(uuids, found);
+    }
+
+    /**
+     * Puts fetched users into the known identities; the users were fetched already, so a failure to remember them is
+     * only logged
+     */
+    static void remember(UserIdentities cache, List<User> fetched) {
+        try {
+            cache.putAll(fetched);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to remember '{}' fetched users: '{}'", fetched.size(), ex.toString());
+        }
+    }
+
+    static List<String> missingKeys(Collection<String> keys, Map<String, User> found) {
+        return keys.stream()
+                .filter(key -> !found.containsKey(key))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    static List<User> orderedBy(Collection<String> keys, Map<String, User> found) {
+        return keys.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -0,0 +1,38 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.SingleFlight;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link CoalescingTeamRepository}.
+ */
+public class CoalescingAsyncTeamRepository implements AsyncTeamRepository {
+
+    private final AsyncTeamRepository delegate;
+    private final SingleFlight<String, Team> byMember;
+
+    public CoalescingAsyncTeamRepository(AsyncTeamRepository delegate, SingleFlight<String, Team> byMember) {
+        this.delegate = delegate;
+        this.byMember = byMember;
+    }
+
+    @Override
+    public CompletableFuture<Team> activateTeam(ActivateTeamRequest activateTeamRequest) {
+        return delegate.activateTeam(activateTeamRequest);
+    }
+
+    @Override
+    public CompletableFuture<Team> deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        return delegate.deactivateTeam(deactivateTeamRequest);
+    }
+
+    @Override
+    public CompletableFuture<Team> getTeam(String uuid) {
+        return byMember.executeAsync(uuid, () -> delegate.getTeam(uuid));
+    }
+}
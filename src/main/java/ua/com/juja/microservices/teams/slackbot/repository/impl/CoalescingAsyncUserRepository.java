@@ -0,0 +1,37 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.SingleFlight;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link CoalescingUserRepository}. Blocking and non-blocking lookups with the same
+ * ids share one request when they use the same flights.
+ */
+public class CoalescingAsyncUserRepository implements AsyncUserRepository {
+
+    private final AsyncUserRepository delegate;
+    private final SingleFlight<List<String>, List<User>> bySlackIds;
+    private final SingleFlight<List<String>, List<User>> byUuids;
+
+    public CoalescingAsyncUserRepository(AsyncUserRepository delegate,
+                                         SingleFlight<List<String>, List<User>> bySlackIds,
+                                         SingleFlight<List<String>, List<User>> byUuids) {
+        this.delegate = delegate;
+        this.bySlackIds = bySlackIds;
+        this.byUuids = byUuids;
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersBySlackIds(List<String> slackIds) {
+        return bySlackIds.executeAsync(slackIds, () -> delegate.findUsersBySlackIds(slackIds));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersByUuids(List<String> uuids) {
+        return byUuids.executeAsync(uuids, () -> delegate.findUsersByUuids(uuids));
+    }
+}
@@ -0,0 +1,37 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.SingleFlight;
+
+/**
+ * {@link TeamRepository} which sends one request for concurrent lookups of the same member's team. Activation and
+ * deactivation change state and always go to the delegate.
+ */
+public class CoalescingTeamRepository implements TeamRepository {
+
+    private final TeamRepository delegate;
+    private final SingleFlight<String, Team> byMember;
+
+    public CoalescingTeamRepository(TeamRepository delegate, SingleFlight<String, Team> byMember) {
+        this.delegate = delegate;
+        this.byMember = byMember;
+    }
+
+    @Override
+    public Team activateTeam(ActivateTeamRequest activateTeamRequest) {
+        return delegate.activateTeam(activateTeamRequest);
+    }
+
+    @Override
+    public Team deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        return delegate.deactivateTeam(deactivateTeamRequest);
+    }
+
+    @Override
+    public Team getTeam(String uuid) {
+        return byMember.execute(uuid, () -> delegate.getTeam(uuid));
+    }
+}
@@ -0,0 +1,34 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.SingleFlight;
+
+import java.util.List;
+
+/**
+ * {@link UserRepository} which sends one request for identical lookups made concurrently.
+ */
+public class CoalescingUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final SingleFlight<List<String>, List<User>> bySlackIds;
+    private final SingleFlight<List<String>, List<User>> byUuids;
+
+    public CoalescingUserRepository(UserRepository delegate, SingleFlight<List<String>, List<User>> bySlackIds,
+                                    SingleFlight<List<String>, List<User>> byUuids) {
+        this.delegate = delegate;
+        this.bySlackIds = bySlackIds;
+        this.byUuids = byUuids;
+    }
+
+    @Override
+    public List<User> findUsersBySlackIds(List<String> slackIds) {
+        return bySlackIds.execute(slackIds, () -> delegate.findUsersBySlackIds(slackIds));
+    }
+
+    @Override
+    public List<User> findUsersByUuids(List<String> uuids) {
+        return byUuids.execute(uuids, () -> delegate.findUsersByUuids(uuids));
+    }
+}
@@ -0,0 +1,38 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.ServiceGuard;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link GuardedTeamRepository}.
+ */
+public class GuardedAsyncTeamRepository implements AsyncTeamRepository {
+
+    private final AsyncTeamRepository delegate;
+    private final ServiceGuard guard;
+
+    public GuardedAsyncTeamRepository(AsyncTeamRepository delegate, ServiceGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public CompletableFuture<Team> activateTeam(ActivateTeamRequest activateTeamRequest) {
+        return guard.executeAsync(() -> delegate.activateTeam(activateTeamRequest));
+    }
+
+    @Override
+    public CompletableFuture<Team> deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        return guard.executeAsync(() -> delegate.deactivateTeam(deactivateTeamRequest));
+    }
+
+    @Override
+    public CompletableFuture<Team> getTeam(String uuid) {
+        return guard.executeAsync(() -> delegate.getTeam(uuid));
+    }
+}
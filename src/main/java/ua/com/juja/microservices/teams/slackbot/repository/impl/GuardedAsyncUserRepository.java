@@ -0,0 +1,32 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.ServiceGuard;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link GuardedUserRepository}.
+ */
+public class GuardedAsyncUserRepository implements AsyncUserRepository {
+
+    private final AsyncUserRepository delegate;
+    private final ServiceGuard guard;
+
+    public GuardedAsyncUserRepository(AsyncUserRepository delegate, ServiceGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersBySlackIds(List<String> slackIds) {
+        return guard.executeAsync(() -> delegate.findUsersBySlackIds(slackIds));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersByUuids(List<String> uuids) {
+        return guard.executeAsync(() -> delegate.findUsersByUuids(uuids));
+    }
+}
@@ -0,0 +1,36 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.ServiceGuard;
+
+/**
+ * {@link TeamRepository} which fails fast while the Teams service is failing or busy.
+ */
+public class GuardedTeamRepository implements TeamRepository {
+
+    private final TeamRepository delegate;
+    private final ServiceGuard guard;
+
+    public GuardedTeamRepository(TeamRepository delegate, ServiceGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public Team activateTeam(ActivateTeamRequest activateTeamRequest) {
+        return guard.execute(() -> delegate.activateTeam(activateTeamRequest));
+    }
+
+    @Override
+    public Team deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        return guard.execute(() -> delegate.deactivateTeam(deactivateTeamRequest));
+    }
+
+    @Override
+    public Team getTeam(String slackId) {
+        return guard.execute(() -> delegate.getTeam(slackId));
+    }
+}
@@ -0,0 +1,31 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.ServiceGuard;
+
+import java.util.List;
+
+/**
+ * {@link UserRepository} which fails fast while the Users service is failing or busy.
+ */
+public class GuardedUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final ServiceGuard guard;
+
+    public GuardedUserRepository(UserRepository delegate, ServiceGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public List<User> findUsersBySlackIds(List<String> slackIds) {
+        return guard.execute(() -> delegate.findUsersBySlackIds(slackIds));
+    }
+
+    @Override
+    public List<User> findUsersByUuids(List<String> uuids) {
+        return guard.execute(() -> delegate.findUsersByUuids(uuids));
+    }
+}
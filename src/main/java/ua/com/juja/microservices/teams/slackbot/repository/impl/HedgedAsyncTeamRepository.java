@@ -0,0 +1,39 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Hedger;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncTeamRepository} which hedges team lookups that the Teams service is slow to answer. Activation and
+ * deactivation are not idempotent and are never hedged.
+ */
+public class HedgedAsyncTeamRepository implements AsyncTeamRepository {
+
+    private final AsyncTeamRepository delegate;
+    private final Hedger byMember;
+
+    public HedgedAsyncTeamRepository(AsyncTeamRepository delegate, Hedger byMember) {
+        this.delegate = delegate;
+        this.byMember = byMember;
+    }
+
+    @Override
+    public CompletableFuture<Team> activateTeam(ActivateTeamRequest activateTeamRequest) {
+        return delegate.activateTeam(activateTeamRequest);
+    }
+
+    @Override
+    public CompletableFuture<Team> deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        return delegate.deactivateTeam(deactivateTeamRequest);
+    }
+
+    @Override
+    public CompletableFuture<Team> getTeam(String uuid) {
+        return byMember.executeAsync(() -> delegate.getTeam(uuid));
+    }
+}
@@ -0,0 +1,34 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Hedger;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncUserRepository} which hedges lookups that the Users service is slow to answer.
+ */
+public class HedgedAsyncUserRepository implements AsyncUserRepository {
+
+    private final AsyncUserRepository delegate;
+    private final Hedger bySlackIds;
+    private final Hedger byUuids;
+
+    public HedgedAsyncUserRepository(AsyncUserRepository delegate, Hedger bySlackIds, Hedger byUuids) {
+        this.delegate = delegate;
+        this.bySlackIds = bySlackIds;
+        this.byUuids = byUuids;
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersBySlackIds(List<String> slackIds) {
+        return bySlackIds.executeAsync(() -> delegate.findUsersBySlackIds(slackIds));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersByUuids(List<String> uuids) {
+        return byUuids.executeAsync(() -> delegate.findUsersByUuids(uuids));
+    }
+}
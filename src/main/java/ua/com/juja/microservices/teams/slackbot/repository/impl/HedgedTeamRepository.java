@@ -0,0 +1,38 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+
+/**
+ * {@link TeamRepository} which makes team lookups with a hedged {@link AsyncTeamRepository}, so both attempts are
+ * in flight without holding a thread each and the caller only waits for the first answer.
+ */
+public class HedgedTeamRepository implements TeamRepository {
+
+    private final TeamRepository delegate;
+    private final AsyncTeamRepository hedgedRepository;
+
+    public HedgedTeamRepository(TeamRepository delegate, AsyncTeamRepository hedgedRepository) {
+        this.delegate = delegate;
+        this.hedgedRepository = hedgedRepository;
+    }
+
+    @Override
+    public Team activateTeam(ActivateTeamRequest activateTeamRequest) {
+        return delegate.activateTeam(activateTeamRequest);
+    }
+
+    @Override
+    public Team deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        return delegate.deactivateTeam(deactivateTeamRequest);
+    }
+
+    @Override
+    public Team getTeam(String uuid) {
+        return Deadline.join(hedgedRepository.getTeam(uuid));
+    }
+}
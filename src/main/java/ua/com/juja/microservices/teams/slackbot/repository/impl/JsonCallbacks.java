@@ -0,0 +1,66 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.AsyncRequestCallback;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import ua.com.juja.microservices.teams.slackbot.util.JsonMapping;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Callbacks for RestTemplate and AsyncRestTemplate execute calls which decode a JSON array response straight into
+ * the result list, without the intermediate array and buffers of the message converter.
+ */
+class JsonCallbacks {
+
+    private JsonCallbacks() {
+    }
+
+    static RequestCallback requestCallback(HttpEntity<?> entity) {
+        return request -> {
+            setHeaders(request, entity);
+            writeBody(request.getBody(), entity);
+        };
+    }
+
+    static AsyncRequestCallback asyncRequestCallback(HttpEntity<?> entity) {
+        return request -> {
+            setHeaders(request, entity);
+            writeBody(request.getBody(), entity);
+        };
+    }
+
+    /**
+     * @param expectedSize number of elements the response is expected to have, the result list is sized for it
+     */
+    static <T> ResponseExtractor<List<T>> arrayExtractor(Class<T> elementType, int expectedSize) {
+        return response -> {
+            List<T> result = new ArrayList<>(expectedSize);
+            try {
+                JsonMapping.readArray(response.getBody(), elementType, result::add);
+            } catch (JsonProcessingException ex) {
+                throw new RestClientException("Could not read JSON array of " + elementType.getSimpleName() + ": "
+                        + ex.getOriginalMessage(), ex);
+            }
+            return result;
+        };
+    }
+
+    private static void setHeaders(HttpRequest request, HttpEntity<?> entity) {
+        request.getHeaders().putAll(entity.getHeaders());
+        request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+    }
+
+    private static void writeBody(OutputStream body, HttpEntity<?> entity) throws IOException {
+        JsonMapping.writer(entity.getBody().getClass()).writeValue(body, entity.getBody());
+    }
+}
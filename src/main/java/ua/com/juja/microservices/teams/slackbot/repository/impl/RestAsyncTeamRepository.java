@@ -0,0 +1,96 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import ua.com.juja.microservices.teams.slackbot.aspect.Traced;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
+import ua.com.juja.microservices.teams.slackbot.exceptions.TeamExchangeException;
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Utils;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+
+@Repository
+@Slf4j
+public class RestAsyncTeamRepository implements AsyncTeamRepository {
+
+    private final AsyncRestTemplate asyncRestTemplate;
+    @Value("${teams.endpoint.activateTeam}")
+    private String teamsActivateTeamUrl;
+    @Value("${teams.endpoint.deactivateTeam}")
+    private String teamsDeactivateTeamUrl;
+    @Value("${teams.endpoint.getTeam}")
+    private String teamsGetTeamUrl;
+
+    @Inject
+    public RestAsyncTeamRepository(AsyncRestTemplate asyncRestTemplate) {
+        this.asyncRestTemplate = asyncRestTemplate;
+    }
+
+    @Traced
+    @Override
+    public CompletableFuture<Team> activateTeam(ActivateTeamRequest activateTeamRequest) {
+        HttpEntity<ActivateTeamRequest> request = new HttpEntity<>(activateTeamRequest, Utils.setupJsonHttpHeaders());
+        log.debug("Send 'Activate team' request '{}' to Teams service to url '{}'", activateTeamRequest,
+                teamsActivateTeamUrl);
+        return exchange(teamsActivateTeamUrl, HttpMethod.POST, request)
+                .whenComplete((team, ex) -> {
+                    if (ex == null) {
+                        log.info("Team activated: '{}'", team.getId());
+                    }
+                });
+    }
+
+    @Traced
+    @Override
+    public CompletableFuture<Team> deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        HttpEntity<DeactivateTeamRequest> request = new HttpEntity<>(deactivateTeamRequest,
+                Utils.setupJsonHttpHeaders());
+        log.debug("Send 'Deactivate team' request to Teams service to url '{}'", teamsDeactivateTeamUrl);
+        return exchange(teamsDeactivateTeamUrl, HttpMethod.PUT, request)
+                .whenComplete((team, ex) -> {
+                    if (ex == null) {
+                        log.info("Team deactivated: '{}'", team.getId());
+                    }
+                });
+    }
+
+    @Traced
+    @Override
+    public CompletableFuture<Team> getTeam(String uuid) {
+        HttpEntity<ActivateTeamRequest> request = new HttpEntity<>(Utils.setupJsonHttpHeaders());
+        String teamsServiceURL = teamsGetTeamUrl + "/" + uuid;
+        log.debug("Send 'Get team' request to Teams service to url '{}'", teamsServiceURL);
+        return exchange(teamsServiceURL, HttpMethod.GET, request)
+                .whenComplete((team, ex) -> {
+                    if (ex == null) {
+                        log.info("Team got: '{}'", team.getId());
+                    }
+                });
+    }
+
+    private <T> CompletableFuture<Team> exchange(String url, HttpMethod method, HttpEntity<T> request) {
+        return Utils.toCompletableFuture(asyncRestTemplate.exchange(url, method, request, Team.class))
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        RuntimeException cause = Utils.unwrapCompletionException(ex);
+                        if (cause instanceof HttpClientErrorException) {
+                            ApiError error = Utils.convertToApiError((HttpClientErrorException) cause);
+                            throw new TeamExchangeException(error, cause);
+                        }
+                        throw cause;
+                    }
+                    log.debug("Get response '{}' from Teams service", response);
+                    return response.getBody();
+                });
+    }
+}
@@ -0,0 +1,88 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import ua.com.juja.microservices.teams.slackbot.aspect.Traced;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
+import ua.com.juja.microservices.teams.slackbot.exceptions.UserExchangeException;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.model.users.UserSlackIdRequest;
+import ua.com.juja.microservices.teams.slackbot.model.users.UserUuidRequest;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Utils;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Repository
+@Slf4j
+@Profile({"production", "default"})
+public class RestAsyncUserRepository implements AsyncUserRepository {
+    private final AsyncRestTemplate asyncRestTemplate;
+    @Value("${users.endpoint.usersBySlackIds}")
+    private String usersUrlFindUsersBySlackIds;
+    @Value("${users.endpoint.usersByUuids}")
+    private String usersUrlFindUsersByUuids;
+
+    @Inject
+    public RestAsyncUserRepository(AsyncRestTemplate asyncRestTemplate) {
+        this.asyncRestTemplate = asyncRestTemplate;
+    }
+
+    @Traced
+    @Override
+    public CompletableFuture<List<User>> findUsersBySlackIds(List<String> slackIds) {
+        UserSlackIdRequest userSlackIdRequest = new UserSlackIdRequest(slackIds);
+        HttpEntity<UserSlackIdRequest> request = new HttpEntity<>(userSlackIdRequest, Utils.setupJsonHttpHeaders());
+        return getUsers(request, usersUrlFindUsersBySlackIds, slackIds.size())
+                .whenComplete((users, ex) -> {
+                    if (ex == null) {
+                        log.info("Found '{}' users by '{}' slackIds", users.size(), slackIds.size());
+                        log.debug("Found Users: '{}' by slackIds: '{}'", users, slackIds);
+                    }
+                });
+    }
+
+    @Traced
+    @Override
+    public CompletableFuture<List<User>> findUsersByUuids(List<String> uuids) {
+        UserUuidRequest userUuidRequest = new UserUuidRequest(uuids);
+        HttpEntity<UserUuidRequest> request = new HttpEntity<>(userUuidRequest, Utils.setupJsonHttpHeaders());
+        return getUsers(request, usersUrlFindUsersByUuids, uuids.size())
+                .whenComplete((users, ex) -> {
+                    if (ex == null) {
+                        log.info("Found '{}' users by '{}' uuids", users.size(), uuids.size());
+                        log.debug("Found Users: '{}' by uuids: '{}'", users, uuids);
+                    }
+                });
+    }
+
+    /**
+     * Decodes the users from the response stream straight into the result list
+     */
+    private <T> CompletableFuture<List<User>> getUsers(HttpEntity<T> request, String userServiceURL,
+                                                        int expectedSize) {
+        log.debug("Send request '{}' to User service to url '{}'", request, userServiceURL);
+        return Utils.toCompletableFuture(asyncRestTemplate.execute(userServiceURL, HttpMethod.POST,
+                JsonCallbacks.asyncRequestCallback(request), JsonCallbacks.arrayExtractor(User.class, expectedSize)))
+                .handle((users, ex) -> {
+                    if (ex != null) {
+                        RuntimeException cause = Utils.unwrapCompletionException(ex);
+                        if (cause instanceof HttpClientErrorException) {
+                            ApiError error = Utils.convertToApiError((HttpClientErrorException) cause);
+                            throw new UserExchangeException(error, cause);
+                        }
+                        throw cause;
+                    }
+                    log.debug("Get response '{}' from User service", users);
+                    return users;
+                });
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import ua.com.juja.microservices.teams.slackbot.aspect.Traced;
 import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
 import ua.com.juja.microservices.teams.slackbot.exceptions.TeamExchangeException;
 import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
@@ -38,6 +39,7 @@ public class RestTeamRepository implements TeamRepository {
         this.restTemplate = restTemplate;
     }
 
+    @Traced
     @Override
     public Team activateTeam(ActivateTeamRequest activateTeamRequest) {
         HttpEntity<ActivateTeamRequest> request = new HttpEntity<>(activateTeamRequest, Utils.setupJsonHttpHeaders());
@@ -56,6 +58,7 @@ public class RestTeamRepository implements TeamRepository {
         return activatedTeam;
     }
 
+    @Traced
     @Override
     public Team deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
         HttpEntity<DeactivateTeamRequest> request = new HttpEntity<>(deactivateTeamRequest, Utils.setupJsonHttpHeaders());
@@ -74,6 +77,7 @@ public class RestTeamRepository implements TeamRepository {
         return deactivatedTeam;
     }
 
+    @Traced
     @Override
     public Team getTeam(String uuid) {
         HttpEntity<ActivateTeamRequest> request = new HttpEntity<>(Utils.setupJsonHttpHeaders());
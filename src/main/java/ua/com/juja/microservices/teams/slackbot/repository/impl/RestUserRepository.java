@@ -5,10 +5,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import ua.com.juja.microservices.teams.slackbot.aspect.Traced;
 import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
 import ua.com.juja.microservices.teams.slackbot.exceptions.UserExchangeException;
 import ua.com.juja.microservices.teams.slackbot.model.users.User;
@@ -18,7 +18,6 @@ import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
 import ua.com.juja.microservices.teams.slackbot.util.Utils;
 
 import javax.inject.Inject;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -39,32 +38,38 @@ public class RestUserRepository implements UserRepository {
         this.restTemplate = restTemplate;
     }
 
+    @Traced
     @Override
     public List<User> findUsersBySlackIds(List<String> slackIds) {
         UserSlackIdRequest userSlackIdRequest = new UserSlackIdRequest(slackIds);
         HttpEntity<UserSlackIdRequest> request = new HttpEntity<>(userSlackIdRequest, Utils.setupJsonHttpHeaders());
-        List<User> users = getUsers(request, usersUrlFindUsersBySlackIds);
-        log.info("Found Users: '{}' by slackIds: '{}'", users, slackIds);
+        List<User> users = getUsers(request, usersUrlFindUsersBySlackIds, slackIds.size());
+        log.info("Found '{}' users by '{}' slackIds", users.size(), slackIds.size());
+        log.debug("Found Users: '{}' by slackIds: '{}'", users, slackIds);
         return users;
     }
 
+    @Traced
     @Override
     public List<User> findUsersByUuids(List<String> uuids) {
         UserUuidRequest userUuidRequest = new UserUuidRequest(uuids);
         HttpEntity<UserUuidRequest> request = new HttpEntity<>(userUuidRequest, Utils.setupJsonHttpHeaders());
-        List<User> users = getUsers(request, usersUrlFindUsersByUuids);
-        log.info("Found Users:{} by uuids: '{}'", users, uuids);
+        List<User> users = getUsers(request, usersUrlFindUsersByUuids, uuids.size());
+        log.info("Found '{}' users by '{}' uuids", users.size(), uuids.size());
+        log.debug("Found Users: '{}' by uuids: '{}'", users, uuids);
         return users;
     }
 
-    private <T> List<User> getUsers(HttpEntity<T> request, String userServiceURL) {
+    /**
+     * Decodes the users from the response stream straight into the result list
+     */
+    private <T> List<User> getUsers(HttpEntity<T> request, String userServiceURL, int expectedSize) {
         List<User> users;
         try {
             log.debug("Send request '{}' to User service to url '{}'", request, userServiceURL);
-            ResponseEntity<User[]> response = restTemplate.exchange(userServiceURL,
-                    HttpMethod.POST, request, User[].class);
-            log.debug("Get response '{}' from User service", response);
-            users = Arrays.asList(response.getBody());
+            users = restTemplate.execute(userServiceURL, HttpMethod.POST, JsonCallbacks.requestCallback(request),
+                    JsonCallbacks.arrayExtractor(User.class, expectedSize));
+            log.debug("Get response '{}' from User service", users);
         } catch (HttpClientErrorException ex) {
             ApiError error = Utils.convertToApiError(ex);
             throw new UserExchangeException(error, ex);
@@ -0,0 +1,38 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Retrier;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link RetryingTeamRepository}.
+ */
+public class RetryingAsyncTeamRepository implements AsyncTeamRepository {
+
+    private final AsyncTeamRepository delegate;
+    private final Retrier retrier;
+
+    public RetryingAsyncTeamRepository(AsyncTeamRepository delegate, Retrier retrier) {
+        this.delegate = delegate;
+        this.retrier = retrier;
+    }
+
+    @Override
+    public CompletableFuture<Team> activateTeam(ActivateTeamRequest activateTeamRequest) {
+        return delegate.activateTeam(activateTeamRequest);
+    }
+
+    @Override
+    public CompletableFuture<Team> deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        return delegate.deactivateTeam(deactivateTeamRequest);
+    }
+
+    @Override
+    public CompletableFuture<Team> getTeam(String uuid) {
+        return retrier.executeAsync(() -> delegate.getTeam(uuid));
+    }
+}
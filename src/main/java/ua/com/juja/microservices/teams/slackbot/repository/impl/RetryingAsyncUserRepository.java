@@ -0,0 +1,32 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Retrier;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link RetryingUserRepository}.
+ */
+public class RetryingAsyncUserRepository implements AsyncUserRepository {
+
+    private final AsyncUserRepository delegate;
+    private final Retrier retrier;
+
+    public RetryingAsyncUserRepository(AsyncUserRepository delegate, Retrier retrier) {
+        this.delegate = delegate;
+        this.retrier = retrier;
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersBySlackIds(List<String> slackIds) {
+        return retrier.executeAsync(() -> delegate.findUsersBySlackIds(slackIds));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findUsersByUuids(List<String> uuids) {
+        return retrier.executeAsync(() -> delegate.findUsersByUuids(uuids));
+    }
+}
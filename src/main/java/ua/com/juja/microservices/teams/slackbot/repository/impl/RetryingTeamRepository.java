@@ -0,0 +1,37 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Retrier;
+
+/**
+ * {@link TeamRepository} which retries team lookups failed by a transient error of the Teams service. Activation and
+ * deactivation are not idempotent, a failed one may have been applied, so they are never retried.
+ */
+public class RetryingTeamRepository implements TeamRepository {
+
+    private final TeamRepository delegate;
+    private final Retrier retrier;
+
+    public RetryingTeamRepository(TeamRepository delegate, Retrier retrier) {
+        this.delegate = delegate;
+        this.retrier = retrier;
+    }
+
+    @Override
+    public Team activateTeam(ActivateTeamRequest activateTeamRequest) {
+        return delegate.activateTeam(activateTeamRequest);
+    }
+
+    @Override
+    public Team deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+        return delegate.deactivateTeam(deactivateTeamRequest);
+    }
+
+    @Override
+    public Team getTeam(String slackId) {
+        return retrier.execute(() -> delegate.getTeam(slackId));
+    }
+}
@@ -0,0 +1,31 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.Retrier;
+
+import java.util.List;
+
+/**
+ * {@link UserRepository} which retries user lookups failed by a transient error of the Users service.
+ */
+public class RetryingUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final Retrier retrier;
+
+    public RetryingUserRepository(UserRepository delegate, Retrier retrier) {
+        this.delegate = delegate;
+        this.retrier = retrier;
+    }
+
+    @Override
+    public List<User> findUsersBySlackIds(List<String> slackIds) {
+        return retrier.execute(() -> delegate.findUsersBySlackIds(slackIds));
+    }
+
+    @Override
+    public List<User> findUsersByUuids(List<String> uuids) {
+        return retrier.execute(() -> delegate.findUsersByUuids(uuids));
+    }
+}
@@ -0,0 +1,18 @@
+package ua.com.juja.microservices.teams.slackbot.service;
+
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link TeamService}. Failures are reported through the returned future.
+ */
+public interface AsyncTeamService {
+
+    CompletableFuture<Team> activateTeam(String fromUserId, String text);
+
+    CompletableFuture<Set<String>> getTeam(String text);
+
+    CompletableFuture<Set<String>> deactivateTeam(String fromUserId, String text);
+}
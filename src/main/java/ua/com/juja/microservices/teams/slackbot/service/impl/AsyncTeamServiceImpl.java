@@ -0,0 +1,153 @@
+package ua.com.juja.microservices.teams.slackbot.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ua.com.juja.microservices.teams.slackbot.aspect.Traced;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamCache;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.service.AsyncTeamService;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+import ua.com.juja.microservices.teams.slackbot.util.Utils;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Same rules as {@link TeamServiceImpl}, but every remote call is chained on the previous one instead of
+ * waiting for it, so no thread is held while the Users and Teams services answer. The {@link Deadline} of the
+ * caller is carried to the remote calls made by chained stages.
+ */
+@Slf4j
+@Service
+public class AsyncTeamServiceImpl implements AsyncTeamService {
+
+    private final AsyncUserRepository userRepository;
+    private final AsyncTeamRepository teamRepository;
+    private final TeamCache teamCache;
+    private final TeamView teamView;
+
+    @Inject
+    public AsyncTeamServiceImpl(AsyncTeamRepository teamRepository, AsyncUserRepository userRepository,
+                                TeamCache teamCache, TeamView teamView) {
+        this.teamRepository = teamRepository;
+        this.userRepository = userRepository;
+        this.teamCache = teamCache;
+        this.teamView = teamView;
+    }
+
+    @Traced
+    @Override
+    public CompletableFuture<Team> activateTeam(String fromUserId, String text) {
+        return CompletableFuture.completedFuture(text)
+                .thenApply(commandText -> {
+                    Utils.checkNull(commandText, "Text must not be null!");
+                    Utils.checkNull(fromUserId, "FromUserId must not be null!");
+                    Set<String> slackIds = TeamServiceImpl.extractTeamSlackIds(commandText);
+                    slackIds.add(fromUserId);
+                    return slackIds;
+                })
+                .thenCompose(Deadline.propagate(
+                        slackIds -> userRepository.findUsersBySlackIds(new ArrayList<>(slackIds))))
+                .thenCompose(Deadline.propagate(users -> {
+                    Set<User> uniqueUsers = new HashSet<>(users);
+                    ActivateTeamRequest activateTeamRequest = TeamServiceImpl.createActivateTeamRequest(fromUserId,
+                            uniqueUsers);
+                    return teamRepository.activateTeam(activateTeamRequest)
+                            .thenApply(activatedTeam -> {
+                                TeamServiceImpl.checkTeamMembersEquality(activateTeamRequest.getMembers(),
+                                        activatedTeam.getMembers());
+                                teamCache.put(activatedTeam);
+                                teamView.put(activatedTeam, uniqueUsers);
+                                log.info("Team activated: '{}'", activatedTeam.getId());
+                                return activatedTeam;
+                            });
+                }));
+    }
+
+    @Traced
+    @Override
+    public CompletableFuture<Set<String>> getTeam(String text) {
+        return CompletableFuture.completedFuture(text)
+                .thenApply(commandText -> {
+                    Utils.checkNull(commandText, "Text must not be null!");
+                    return TeamServiceImpl.extractOneSlackId(commandText);
+                })
+                .thenCompose(Deadline.propagate(slackIds -> {
+                    Set<String> viewed = teamView.getTeamSlackIds(slackIds.iterator().next());
+                    if (viewed != null) {
+                        log.info("Team got from team view");
+                        return CompletableFuture.completedFuture(viewed);
+                    }
+                    return getRemoteTeam(slackIds);
+                }));
+    }
+
+    @Traced
+    @Override
+    public CompletableFuture<Set<String>> deactivateTeam(String fromUserId, String text) {
+        return CompletableFuture.completedFuture(text)
+                .thenApply(commandText -> {
+                    Set<String> slackIds = TeamServiceImpl.extractOneSlackId(commandText);
+                    slackIds.add(fromUserId);
+                    return slackIds;
+                })
+                .thenCompose(Deadline.propagate(
+                        slackIds -> userRepository.findUsersBySlackIds(new ArrayList<>(slackIds))))
+                .thenCompose(Deadline.propagate(users -> {
+                    DeactivateTeamRequest deactivateTeamRequest =
+                            TeamServiceImpl.createDeactivateTeamRequest(fromUserId, users);
+                    return teamRepository.deactivateTeam(deactivateTeamRequest);
+                }))
+                .thenApply(team -> {
+                    teamCache.invalidate(team);
+                    teamView.remove(team);
+                    return team;
+                })
+                .thenCompose(Deadline.propagate(team -> userRepository
+                        .findUsersByUuids(new ArrayList<>(team.getMembers()))
+                        .thenApply(teamUsers -> {
+                            log.info("Team deactivated: '{}'", team.getId());
+                            return TeamServiceImpl.toSlackIds(teamUsers);
+                        })));
+    }
+
+    private CompletableFuture<Set<String>> getRemoteTeam(Set<String> slackIds) {
+        return userRepository.findUsersBySlackIds(new ArrayList<>(slackIds))
+                .thenCompose(Deadline.propagate(users -> {
+                    String uuid = users.get(0).getUuid();
+                    Team cached = teamCache.get(uuid);
+                    if (cached != null) {
+                        return getTeamSlackIds(cached, false);
+                    }
+                    return teamRepository.getTeam(uuid)
+                            .thenCompose(Deadline.propagate(team -> {
+                                teamCache.put(team);
+                                return getTeamSlackIds(team, true);
+                            }));
+                }));
+    }
+
+    /**
+     * @param fresh whether the team came from the Teams service rather than the team cache, only such a team is
+     *              written into the view, see {@link TeamServiceImpl}
+     */
+    private CompletableFuture<Set<String>> getTeamSlackIds(Team team, boolean fresh) {
+        return userRepository.findUsersByUuids(new ArrayList<>(team.getMembers()))
+                .thenApply(teamUsers -> {
+                    if (fresh) {
+                        teamView.put(team, teamUsers);
+                    }
+                    log.info("Team got: '{}'", team.getId());
+                    return TeamServiceImpl.toSlackIds(teamUsers);
+                });
+    }
+}
@@ -2,6 +2,9 @@ package ua.com.juja.microservices.teams.slackbot.service.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ua.com.juja.microservices.teams.slackbot.aspect.Traced;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamCache;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
 import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
 import ua.com.juja.microservices.teams.slackbot.exceptions.TeamExchangeException;
 import ua.com.juja.microservices.teams.slackbot.exceptions.WrongCommandFormatException;
@@ -17,6 +20,7 @@ import ua.com.juja.microservices.teams.slackbot.util.Utils;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -26,6 +30,10 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
+ * Teams are answered from the {@link TeamView} first, which is the source of truth for the bot and never older than
+ * its max staleness. On a miss the {@link TeamCache} spares the Teams service call; a team it answers with is served
+ * but not written into the view, which only takes teams fresh from the Teams service, so its sync time stays true.
+ *
  * @author Ivan Shapovalov
  */
 @Slf4j
@@ -35,37 +43,81 @@ public class TeamServiceImpl implements TeamService {
     private static final int TEAM_SIZE = 4;
     private final UserService userService;
     private final TeamRepository teamRepository;
+    private final TeamCache teamCache;
+    private final TeamView teamView;
 
     @Inject
-    public TeamServiceImpl(TeamRepository teamRepository, UserService userService) {
+    public TeamServiceImpl(TeamRepository teamRepository, UserService userService, TeamCache teamCache,
+                           TeamView teamView) {
         this.teamRepository = teamRepository;
         this.userService = userService;
+        this.teamCache = teamCache;
+        this.teamView = teamView;
     }
 
+    @Traced
     @Override
     public Team activateTeam(String fromUserId, String text) {
         Utils.checkNull(text, "Text must not be null!");
         Utils.checkNull(fromUserId, "FromUserId must not be null!");
+        Set<String> slackIds = extractTeamSlackIds(text);
+        slackIds.add(fromUserId);
+        Set<User> users = new HashSet<>(userService.findUsersBySlackIds(new ArrayList<>(slackIds)));
+        ActivateTeamRequest activateTeamRequest = createActivateTeamRequest(fromUserId, users);
+        Team activatedTeam = teamRepository.activateTeam(activateTeamRequest);
+        checkTeamMembersEquality(activateTeamRequest.getMembers(), activatedTeam.getMembers());
+        teamCache.put(activatedTeam);
+        teamView.put(activatedTeam, users);
+        log.info("Team activated: '{}'", activatedTeam.getId());
+        return activatedTeam;
+    }
+
+    static Set<String> extractTeamSlackIds(String text) {
         Set<String> slackIds = SlackIdHandler.getSlackIdsFromText(text);
         if (slackIds.size() != TEAM_SIZE) {
             throw new WrongCommandFormatException(String.format("We found %d slack id in your command." +
                     " But size of the team must be %s.", slackIds.size(), TEAM_SIZE));
         }
-        slackIds.add(fromUserId);
-        Set<User> users = new HashSet<>(userService.findUsersBySlackIds(new ArrayList<>(slackIds)));
-        Map<String, String> usersMap = users.stream()
+        return slackIds;
+    }
+
+    static Set<String> extractOneSlackId(String text) {
+        Set<String> slackIds = SlackIdHandler.getSlackIdsFromText(text);
+        if (slackIds.size() != 1) {
+            throw new WrongCommandFormatException(String.format("We found %d slack id in your command." +
+                    " But expect one slack id.", slackIds.size()));
+        }
+        return slackIds;
+    }
+
+    static ActivateTeamRequest createActivateTeamRequest(String fromUserId, Collection<User> users) {
+        Map<String, String> usersMap = toUsersMap(users);
+        String fromUserUuid = usersMap.get(fromUserId);
+        return new ActivateTeamRequest(fromUserUuid, new HashSet<>(
+                extractMembersFromMap(fromUserId, usersMap, TEAM_SIZE)));
+    }
+
+    static DeactivateTeamRequest createDeactivateTeamRequest(String fromUserId, Collection<User> users) {
+        Map<String, String> usersMap = toUsersMap(users);
+        String fromUserUuid = usersMap.get(fromUserId);
+        String uuid = extractMembersFromMap(fromUserId, usersMap, 1).get(0);
+        return new DeactivateTeamRequest(fromUserUuid, uuid);
+    }
+
+    static Set<String> toSlackIds(Collection<User> users) {
+        return users.stream()
+                .map(User::getSlackId)
+                .collect(Collectors.toSet());
+    }
+
+    private static Map<String, String> toUsersMap(Collection<User> users) {
+        return users.stream()
                 .collect(Collectors.toMap(User::getSlackId, User::getUuid, (e1, e2) -> e1,
                         LinkedHashMap::new));
-        String fromUserUuid = usersMap.get(fromUserId);
-        ActivateTeamRequest activateTeamRequest = new ActivateTeamRequest(fromUserUuid, new HashSet<>
-                (extractMembersFromMap(fromUserId, usersMap, TEAM_SIZE)));
-        Team activatedTeam = teamRepository.activateTeam(activateTeamRequest);
-        checkTeamMembersEquality(activateTeamRequest.getMembers(), activatedTeam.getMembers());
-        log.info("Team activated: '{}'", activatedTeam.getId());
-        return activatedTeam;
     }
 
-    private List<String> extractMembersFromMap(String fromUserId, Map<String, String> usersMap, int expectedSize) {
+    private static List<String> extractMembersFromMap(String fromUserId, Map<String, String> usersMap,
+                                                      int expectedSize) {
         log.debug("Before extract members from users map: '{}'. Expected size '{}'. FromUserId is '{}'", usersMap,
                 expectedSize, fromUserId);
         List<String> uuids;
@@ -81,7 +133,7 @@ public class TeamServiceImpl implements TeamService {
         return uuids;
     }
 
-    private void checkTeamMembersEquality(Set<String> requestMembers, Set<String> responseMembers) {
+    static void checkTeamMembersEquality(Set<String> requestMembers, Set<String> responseMembers) {
         log.debug("Before check team members equality. Request to Team service '{}'. Response from Team service '{}'",
                 requestMembers, responseMembers);
         if (!(requestMembers.containsAll(responseMembers) && responseMembers.containsAll(requestMembers))) {
@@ -97,45 +149,45 @@ public class TeamServiceImpl implements TeamService {
         }
     }
 
+    @Traced
     @Override
     public Set<String> getTeam(String text) {
         Utils.checkNull(text, "Text must not be null!");
-        Set<String> slackIds = SlackIdHandler.getSlackIdsFromText(text);
-        if (slackIds.size() != 1) {
-            throw new WrongCommandFormatException(String.format("We found %d slack id in your command." +
-                    " But expect one slack id.", slackIds.size()));
+        Set<String> slackIds = extractOneSlackId(text);
+        Set<String> viewed = teamView.getTeamSlackIds(slackIds.iterator().next());
+        if (viewed != null) {
+            log.info("Team got from team view");
+            return viewed;
         }
         List<User> users = userService.findUsersBySlackIds(new ArrayList<>(slackIds));
         String uuid = users.get(0).getUuid();
-        Team team = teamRepository.getTeam(uuid);
+        Team team = teamCache.get(uuid);
+        boolean fresh = team == null;
+        if (fresh) {
+            team = teamRepository.getTeam(uuid);
+            teamCache.put(team);
+        }
         List<User> teamUsers = userService.findUsersByUuids(new ArrayList<>(team.getMembers()));
-        Set<String> teamSlackIds = teamUsers.stream()
-                .map(User::getSlackId)
-                .collect(Collectors.toSet());
+        if (fresh) {
+            teamView.put(team, teamUsers);
+        }
+        Set<String> teamSlackIds = toSlackIds(teamUsers);
         log.info("Team got: '{}'", team.getId());
         return teamSlackIds;
     }
 
+    @Traced
     @Override
     public Set<String> deactivateTeam(String fromUser, String text) {
-        Set<String> slackIds = SlackIdHandler.getSlackIdsFromText(text);
-        if (slackIds.size() != 1) {
-            throw new WrongCommandFormatException(String.format("We found %d slack id in your command." +
-                    " But expect one slack id.", slackIds.size()));
-        }
+        Set<String> slackIds = extractOneSlackId(text);
         slackIds.add(fromUser);
         List<User> users = userService.findUsersBySlackIds(new ArrayList<>(slackIds));
-        Map<String, String> usersMap = users.stream()
-                .collect(Collectors.toMap(User::getSlackId, User::getUuid, (e1, e2) -> e1,
-                        LinkedHashMap::new));
-        String fromUserUuid = usersMap.get(fromUser);
-        String uuid = extractMembersFromMap(fromUser, usersMap, 1).get(0);
-        DeactivateTeamRequest deactivateTeamRequest = new DeactivateTeamRequest(fromUserUuid, uuid);
+        DeactivateTeamRequest deactivateTeamRequest = createDeactivateTeamRequest(fromUser, users);
         Team deactivatedTeam = teamRepository.deactivateTeam(deactivateTeamRequest);
+        teamCache.invalidate(deactivatedTeam);
+        teamView.remove(deactivatedTeam);
         List<User> teamUsers = userService.findUsersByUuids(new ArrayList<>(deactivatedTeam.getMembers()));
-        Set<String> teamSlackIds = teamUsers.stream()
-                .map(User::getSlackId)
-                .collect(Collectors.toSet());
+        Set<String> teamSlackIds = toSlackIds(teamUsers);
         log.info("Team deactivated: '{}'", deactivatedTeam.getId());
         return teamSlackIds;
     }
@@ -0,0 +1,264 @@
+package ua.com.juja.microservices.teams.slackbot.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.exceptions.TeamExchangeException;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link TeamView} fresh. The Teams service can only tell the active team of one member, so syncInterval
+ * after a round has ended the teams synced longest ago are asked for again, one by one, and the members of all of
+ * them are then looked up with one Users service request. A round asks for at most a batch of teams and stops asking
+ * once syncRoundMillis have passed.
+ * <p>
+ * The first batch is syncBatchSize, raised when it is too small to sync a full view before its teams become stale: a
+ * team is due after syncInterval and has (maxStaleness - syncInterval) / (syncInterval + syncRound) rounds left to be
+ * synced in, and a full view may hold maxSize teams of one member. Every later batch is the number of teams the last
+ * round took per team to fit into syncRoundMillis, so a slow service shrinks the batch rather than the rounds
+ * overrunning; a warning is logged when it falls below what keeps a full view fresh.
+ * <p>
+ * The repositories are a chain of their own with their own circuit breakers and bulkheads, see
+ * {@link ua.com.juja.microservices.teams.slackbot.config.RepositoryConfiguration}, so a round neither takes the
+ * places of commands in the bulkheads nor opens the circuit breakers of commands. A team the Teams service answers
+ * with an error for is dropped from the view. A team which could not be synced because a service is unreachable is
+ * kept and stops being served once it becomes too stale.
+ */
+@Component
+@Slf4j
+public class TeamViewSynchronizer implements DisposableBean {
+
+    private static final String PROPERTY_PREFIX = "teams.slackbot.view.";
+
+    private final TeamView teamView;
+    private final TeamRepository teamRepository;
+    private final UserRepository userRepository;
+    private final LongSupplier ticker;
+    private final int maxSize;
+    private final int requiredBatchSize;
+    private final long syncRoundNanos;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder synced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile int syncBatchSize;
+
+    @Inject
+    public TeamViewSynchronizer(TeamView teamView, @Qualifier("syncTeamRepository") TeamRepository teamRepository,
+                                @Qualifier("syncUserRepository") UserRepository userRepository,
+                                Environment environment) {
+        this(teamView, teamRepository, userRepository, environment, System::nanoTime);
+    }
+
+    TeamViewSynchronizer(TeamView teamView, TeamRepository teamRepository, UserRepository userRepository,
+                         Environment environment, LongSupplier ticker) {
+        this.teamView = teamView;
+        this.teamRepository = teamRepository;
+        this.userRepository = userRepository;
+        this.ticker = ticker;
+        long syncIntervalSeconds = environment.getRequiredProperty(PROPERTY_PREFIX + "syncIntervalSeconds",
+                Long.class);
+        long syncRoundMillis = environment.getRequiredProperty(PROPERTY_PREFIX + "syncRoundMillis", Long.class);
+        if (syncRoundMillis <= 0) {
+            throw new IllegalArgumentException("Sync round must be positive!");
+        }
+        this.syncRoundNanos = TimeUnit.MILLISECONDS.toNanos(syncRoundMillis);
+        this.maxSize = environment.getRequiredProperty(PROPERTY_PREFIX + "maxSize", Integer.class);
+        this.requiredBatchSize = syncBatchSize(environment.getRequiredProperty(PROPERTY_PREFIX + "syncBatchSize",
+                Integer.class), maxSize, syncIntervalSeconds, syncRoundMillis,
+                environment.getRequiredProperty(PROPERTY_PREFIX + "maxStalenessSeconds", Long.class));
+        this.syncBatchSize = requiredBatchSize;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("team-view-sync-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::syncSafely, syncIntervalSeconds, syncIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Syncs one batch of the teams which are due, as many of them as the round has time for
+     *
+     * @return number of teams asked for
+     */
+    public int sync() {
+        long startedAt = ticker.getAsLong();
+        Map<Team, Team> actualTeams = new LinkedHashMap<>();
+        int asked = 0;
+        for (Team team : teamView.syncCandidates(syncBatchSize)) {
+            if (ticker.getAsLong() - startedAt >= syncRoundNanos) {
+                break;
+            }
+            asked++;
+            Team actual = getActualTeam(team);
+            if (actual != null) {
+                actualTeams.put(team, actual);
+            }
+        }
+        if (!actualTeams.isEmpty()) {
+            putTeams(actualTeams);
+        }
+        if (asked > 0) {
+            resizeBatch(asked, ticker.getAsLong() - startedAt);
+            log.debug("Team view synced '{}' teams, view holds '{}' members", asked, teamView.size());
+        }
+        return asked;
+    }
+
+    /**
+     * Puts the active team of the member into the view
+     *
+     * @return false if the member is not in an active team or the team could not be written
+     */
+    public boolean load(String memberUuid) {
+        try {
+            return putTeamOf(memberUuid);
+        } catch (TeamExchangeException ex) {
+            log.debug("Member '{}' has no active team: '{}'", memberUuid, ex.getMessage());
+            return false;
+        }
+    }
+
+    public long getSyncedCount() {
+        return synced.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    int getSyncBatchSize() {
+        return syncBatchSize;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return active team of the first member of the team or null if it was dropped or could not be synced
+     */
+    private Team getActualTeam(Team team) {
+        try {
+            return teamRepository.getTeam(team.getMembers().iterator().next());
+        } catch (TeamExchangeException ex) {
+            log.debug("Team '{}' dropped from team view: '{}'", team.getId(), ex.getMessage());
+            teamView.remove(team);
+            dropped.increment();
+        } catch (RuntimeException ex) {
+            log.warn("Team '{}' of team view not synced: '{}'", team.getId(), ex.getMessage());
+            failed.increment();
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the members of all the teams with one request and puts the teams into the view
+     *
+     * @param actualTeams active teams by the team of the view they were asked for
+     */
+    private void putTeams(Map<Team, Team> actualTeams) {
+        Set<String> uuids = new LinkedHashSet<>();
+        actualTeams.values().forEach(team -> uuids.addAll(team.getMembers()));
+        Map<String, User> usersByUuid;
+        try {
+            usersByUuid = userRepository.findUsersByUuids(new ArrayList<>(uuids)).stream()
+                    .collect(Collectors.toMap(User::getUuid, user -> user, (first, second) -> first));
+        } catch (RuntimeException ex) {
+            log.warn("Members of '{}' teams of team view not synced: '{}'", actualTeams.size(), ex.getMessage());
+            failed.add(actualTeams.size());
+            return;
+        }
+        actualTeams.forEach((team, actual) -> {
+            List<User> users = actual.getMembers().stream()
+                    .map(usersByUuid::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            if (teamView.put(actual, users)) {
+                synced.increment();
+            } else {
+                teamView.remove(team);
+                dropped.increment();
+            }
+        });
+    }
+
+    private boolean putTeamOf(String memberUuid) {
+        Team team = teamRepository.getTeam(memberUuid);
+        List<User> users = userRepository.findUsersByUuids(new ArrayList<>(team.getMembers()));
+        return teamView.put(team, users);
+    }
+
+    /**
+     * Sizes the next batch to the number of teams which fit into the round at the pace of the last one
+     */
+    private void resizeBatch(int asked, long elapsedNanos) {
+        long perTeamNanos = Math.max(1, elapsedNanos / asked);
+        int next = (int) Math.max(1, Math.min(maxSize, syncRoundNanos / perTeamNanos));
+        if (next < requiredBatchSize && syncBatchSize >= requiredBatchSize) {
+            log.warn("Team view sync batch size lowered to '{}' to fit into the round, '{}' are needed to keep a " +
+                    "full view fresh", next, requiredBatchSize);
+        }
+        syncBatchSize = next;
+    }
+
+    /**
+     * @return configured batch size or the smallest one which syncs a full view before its teams become stale
+     */
+    static int syncBatchSize(int configured, int maxSize, long syncIntervalSeconds, long syncRoundMillis,
+                             long maxStalenessSeconds) {
+        if (configured <= 0) {
+            throw new IllegalArgumentException("Sync batch size must be positive!");
+        }
+        if (syncIntervalSeconds <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive!");
+        }
+        long roundMillis = TimeUnit.SECONDS.toMillis(syncIntervalSeconds) + syncRoundMillis;
+        long rounds = TimeUnit.SECONDS.toMillis(maxStalenessSeconds - syncIntervalSeconds) / roundMillis;
+        if (rounds < 1) {
+            throw new IllegalArgumentException(
+                    "Max staleness must be at least twice the sync interval plus the sync round!");
+        }
+        int required = (int) ((maxSize + rounds - 1) / rounds);
+        if (configured >= required) {
+            return configured;
+        }
+        log.info("Team view sync batch size raised from '{}' to '{}' to sync '{}' teams within '{}' rounds",
+                configured, required, maxSize, rounds);
+        return required;
+    }
+
+    private void syncSafely() {
+        try {
+            sync();
+        } catch (RuntimeException ex) {
+            log.warn("Team view sync failed: '{}'", ex.getMessage());
+        }
+    }
+}
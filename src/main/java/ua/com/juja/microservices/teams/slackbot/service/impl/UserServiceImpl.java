@@ -2,6 +2,7 @@ package ua.com.juja.microservices.teams.slackbot.service.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ua.com.juja.microservices.teams.slackbot.aspect.Traced;
 import ua.com.juja.microservices.teams.slackbot.model.users.User;
 import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
 import ua.com.juja.microservices.teams.slackbot.service.UserService;
@@ -28,6 +29,7 @@ public class UserServiceImpl implements UserService {
         this.userRepository = userRepository;
     }
 
+    @Traced
     @Override
     public List<User> findUsersBySlackIds(List<String> slackIds) {
         Utils.checkNull(slackIds, "SlackIds must not be null!");
@@ -36,6 +38,7 @@ public class UserServiceImpl implements UserService {
         return users;
     }
 
+    @Traced
     @Override
     public List<User> findUsersByUuids(List<String> uuids) {
         Utils.checkNull(uuids, "Uuids must not be null!");
@@ -44,6 +47,7 @@ public class UserServiceImpl implements UserService {
         return users;
     }
 
+    @Traced(sampleRate = 1)
     @Override
     public String replaceUuidsBySlackIdsInExceptionMessage(String message) {
         Set<String> uuids = Utils.extractUuidsFromExceptionMessage(message);
@@ -0,0 +1,211 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Collects keys requested by concurrent callers and loads them with one call. A batch is sent when its window has
+ * elapsed since the first key was added or when it has reached the max batch size, whichever comes first; the keys
+ * of a caller which do not fit into the current batch go into the next one, so no batch is larger than the max batch
+ * size. Every caller gets the values of its own keys, in the order the remote service returned them. A load failed
+ * by the service fails every caller of the batch; a load rejected because of the keys, such as a 4xx response, is
+ * made again for the keys of every caller separately, so only the caller which sent the rejected keys fails.
+ * <p>
+ * A batch is loaded with the latest {@link Deadline} of its callers attached, so it is not made once every caller has
+ * given up and its retries stop then; a caller without a deadline leaves the batch without one too.
+ */
+@Slf4j
+public class BatchDispatcher<K, V> {
+
+    private final Function<List<K>, CompletableFuture<List<V>>> loader;
+    private final Function<V, K> keyOf;
+    private final Predicate<Throwable> isRejected;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private Batch current;
+
+    /**
+     * @param isRejected whether a failed load was rejected because of the keys rather than failed by the service,
+     *                   the failure comes without the CompletionException wrapper
+     * @param windowMillis how long the first caller of a batch waits for others; 0 sends every load at once
+     */
+    public BatchDispatcher(Function<List<K>, CompletableFuture<List<V>>> loader, Function<V, K> keyOf,
+                           Predicate<Throwable> isRejected, long windowMillis, int maxBatchSize,
+                           ScheduledExecutorService scheduler) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive!");
+        }
+        this.loader = loader;
+        this.keyOf = keyOf;
+        this.isRejected = isRejected;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+    }
+
+    public CompletableFuture<List<V>> load(List<K> requested) {
+        if (requested.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        Deadline deadline = Deadline.current();
+        List<Part> parts = new ArrayList<>();
+        List<Batch> full = new ArrayList<>();
+        synchronized (this) {
+            Part part = null;
+            for (K key : requested) {
+                if (current == null) {
+                    current = newBatch();
+                }
+                if (part == null || part.batch != current) {
+                    part = new Part(current, deadline);
+                    current.parts.add(part);
+                    parts.add(part);
+                }
+                part.keys.add(key);
+                current.keys.add(key);
+                if (current.keys.size() >= maxBatchSize) {
+                    full.add(current);
+                    current = null;
+                }
+            }
+            loads.increment();
+            if (windowMillis <= 0 && current != null) {
+                full.add(current);
+                current = null;
+            }
+        }
+        full.forEach(this::dispatch);
+        if (parts.size() == 1) {
+            return parts.get(0).result;
+        }
+        return CompletableFuture.allOf(parts.stream().map(part -> part.result).toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> parts.stream()
+                        .flatMap(part -> part.result.join().stream())
+                        .collect(Collectors.toList()));
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getKeyCount() {
+        return keys.sum();
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    private Batch newBatch() {
+        Batch batch = new Batch();
+        if (windowMillis > 0) {
+            batch.timer = scheduler.schedule(() -> dispatch(batch), windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return batch;
+    }
+
+    private void dispatch(Batch batch) {
+        synchronized (this) {
+            if (current == batch) {
+                current = null;
+            }
+        }
+        if (!batch.dispatched.compareAndSet(false, true)) {
+            return;
+        }
+        if (batch.timer != null) {
+            batch.timer.cancel(false);
+        }
+        Deadline latest = batch.parts.get(0).deadline;
+        for (Part part : batch.parts) {
+            latest = Deadline.latest(latest, part.deadline);
+        }
+        call(batch.keys, latest).whenComplete((values, ex) -> {
+            if (ex == null) {
+                batch.parts.forEach(part -> part.complete(values));
+            } else if (batch.parts.size() > 1 && isRejected.test(unwrap(ex))) {
+                log.debug("Batch of '{}' keys rejected, load the keys of '{}' callers separately: '{}'",
+                        batch.keys.size(), batch.parts.size(), unwrap(ex).getMessage());
+                batch.parts.forEach(part -> call(part.keys, part.deadline).whenComplete((partValues, partEx) -> {
+                    if (partEx == null) {
+                        part.complete(partValues);
+                    } else {
+                        part.result.completeExceptionally(partEx);
+                    }
+                }));
+            } else {
+                batch.parts.forEach(part -> part.result.completeExceptionally(ex));
+            }
+        });
+    }
+
+    private CompletableFuture<List<V>> call(Set<K> callKeys, Deadline deadline) {
+        List<K> keyList = new ArrayList<>(callKeys);
+        batches.increment();
+        keys.add(keyList.size());
+        log.debug("Dispatch batch of '{}' keys", keyList.size());
+        try {
+            if (deadline != null) {
+                return deadline.call(() -> loader.apply(keyList));
+            }
+            try (Deadline.Scope ignored = Deadline.detach()) {
+                return loader.apply(keyList);
+            }
+        } catch (RuntimeException ex) {
+            CompletableFuture<List<V>> call = new CompletableFuture<>();
+            call.completeExceptionally(ex);
+            return call;
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private class Batch {
+        private final Set<K> keys = new LinkedHashSet<>();
+        private final List<Part> parts = new ArrayList<>();
+        private final AtomicBoolean dispatched = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timer;
+    }
+
+    /**
+     * Keys of one caller which went into one batch
+     */
+    private class Part {
+        private final Batch batch;
+        private final Deadline deadline;
+        private final Set<K> keys = new LinkedHashSet<>();
+        private final CompletableFuture<List<V>> result = new CompletableFuture<>();
+
+        private Part(Batch batch, Deadline deadline) {
+            this.batch = batch;
+            this.deadline = deadline;
+        }
+
+        private void complete(List<V> values) {
+            result.complete(values.stream()
+                    .filter(value -> keys.contains(keyOf.apply(value)))
+                    .collect(Collectors.toList()));
+        }
+    }
+}
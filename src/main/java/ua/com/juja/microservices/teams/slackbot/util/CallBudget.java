@@ -0,0 +1,38 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+/**
+ * Token bucket limiting extra calls (hedges, retries) to a share of the calls made: every call deposits percent/100
+ * of a token, every extra call takes a whole one. The balance is capped, so a long quiet period cannot pay for a
+ * burst of extra calls when the service starts failing.
+ */
+public class CallBudget {
+
+    public static final double MAX_BALANCE = 10;
+
+    private final double depositPerCall;
+    private double balance;
+
+    public CallBudget(double percent) {
+        this(percent, 0);
+    }
+
+    public CallBudget(double percent, double initialBalance) {
+        this.depositPerCall = percent / 100;
+        this.balance = Math.min(MAX_BALANCE, initialBalance);
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(MAX_BALANCE, balance + depositPerCall);
+    }
+
+    /**
+     * @return true if an extra call may be made
+     */
+    public synchronized boolean withdraw() {
+        if (balance < 1) {
+            return false;
+        }
+        balance--;
+        return true;
+    }
+}
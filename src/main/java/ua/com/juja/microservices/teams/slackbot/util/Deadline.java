@@ -0,0 +1,195 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import ua.com.juja.microservices.teams.slackbot.exceptions.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Time budget of a command. The deadline attached to the current thread bounds the timeouts of downstream calls
+ * made by the thread and the time it waits for calls of other threads, so a command gives up once its budget is
+ * spent instead of waiting for every hop independently.
+ */
+public class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long budgetMillis;
+    private final long expiresAt;
+
+    private Deadline(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+        this.expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    public static Deadline after(long budgetMillis) {
+        return new Deadline(budgetMillis);
+    }
+
+    /**
+     * @return deadline attached to the current thread, null if there is none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return deadline which passes last, for work shared by callers; null if either is null, as its caller waits
+     * without a deadline
+     */
+    public static Deadline latest(Deadline first, Deadline second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        return second.expiresAt - first.expiresAt > 0 ? second : first;
+    }
+
+    /**
+     * @return function running with the deadline of the thread wrapping it, for stages of a future chain
+     */
+    public static <T, R> Function<T, R> propagate(Function<T, R> function) {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return function;
+        }
+        return value -> {
+            try (Scope ignored = deadline.attach()) {
+                return function.apply(value);
+            }
+        };
+    }
+
+    /**
+     * @return task running with the deadline attached, the task itself if the deadline is null
+     */
+    public static Runnable bind(Deadline deadline, Runnable task) {
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = deadline.attach()) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * @return work running on any thread with the deadline attached, see {@link #call(Supplier)}; the work itself if
+     * the deadline is null
+     */
+    public static <T> Supplier<T> bind(Deadline deadline, Supplier<T> work) {
+        if (deadline == null) {
+            return work;
+        }
+        return () -> deadline.call(work);
+    }
+
+    /**
+     * Waits for the future at most until the deadline of the current thread, or as long as it takes if there is none
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return Utils.join(future);
+        }
+        try {
+            return future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw deadline.exceeded(ex);
+        } catch (ExecutionException ex) {
+            throw Utils.unwrapCompletionException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw deadline.exceeded(ex);
+        }
+    }
+
+    /**
+     * @return time left rounded up to whole millis, so it is 0 only once the deadline has passed
+     */
+    public long remainingMillis() {
+        long remainingNanos = expiresAt - System.nanoTime();
+        return remainingNanos <= 0 ? 0 : (remainingNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI;
+    }
+
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check() {
+        if (isExpired()) {
+            throw exceeded(null);
+        }
+    }
+
+    /**
+     * Attaches the deadline to the current thread, closing the scope puts the previous one back
+     */
+    public Scope attach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Detaches the deadline of the current thread, for work made on behalf of other callers; closing the scope puts
+     * it back
+     */
+    public static Scope detach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.remove();
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Runs the work with the deadline attached, unless the deadline has already passed (e.g. while the command was
+     * queued). A failure of the work after the deadline has passed is reported as {@link DeadlineExceededException}.
+     */
+    public <T> T call(Supplier<T> work) {
+        check();
+        try (Scope ignored = attach()) {
+            return work.get();
+        } catch (RuntimeException ex) {
+            throw translate(ex);
+        }
+    }
+
+    /**
+     * @return {@link DeadlineExceededException} if the failure happened after the deadline had passed, the failure
+     * itself otherwise
+     */
+    public RuntimeException translate(Throwable failure) {
+        RuntimeException cause = Utils.unwrapCompletionException(failure);
+        if (cause instanceof DeadlineExceededException || !isExpired()) {
+            return cause;
+        }
+        return exceeded(cause);
+    }
+
+    private DeadlineExceededException exceeded(Throwable cause) {
+        return new DeadlineExceededException(String.format("Deadline of '%d' ms exceeded", budgetMillis), cause);
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
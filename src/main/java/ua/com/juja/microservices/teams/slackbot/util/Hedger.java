@@ -0,0 +1,161 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedges idempotent calls: if the first attempt has not answered after the given percentile of the latencies of
+ * recent calls, a second attempt is sent and the caller gets whichever answers first. Hedges are paid from a
+ * {@link CallBudget} of budgetPercent, so a slow or failing service gets at most that share of extra calls.
+ * <p>
+ * Until enough latencies are known the delay is maxDelayMillis. A failed attempt fails the call unless the other
+ * attempt is still in flight, retrying is not the business of hedging.
+ */
+@Slf4j
+public class Hedger {
+
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_LATENCIES = 20;
+    private static final int DELAY_UPDATE_INTERVAL = 16;
+
+    private final String name;
+    private final ScheduledExecutorService scheduler;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final CallBudget budget;
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder won = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+
+    private int latencyIndex;
+    private int latencyCount;
+    private int sinceDelayUpdate;
+    private volatile long delayNanos;
+
+    public Hedger(String name, ScheduledExecutorService scheduler, double percentile, long minDelayMillis,
+                  long maxDelayMillis, double budgetPercent) {
+        this.name = name;
+        this.scheduler = scheduler;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.budget = new CallBudget(budgetPercent);
+        this.delayNanos = maxDelayNanos;
+    }
+
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> attempt) {
+        calls.increment();
+        budget.deposit();
+        Deadline deadline = Deadline.current();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger inFlight = new AtomicInteger(1);
+        start(attempt, result, inFlight, false);
+        if (result.isDone()) {
+            return result;
+        }
+        ScheduledFuture<?> hedge = scheduler.schedule(() -> {
+            if (result.isDone() || !withdraw() || !joinInFlight(inFlight)) {
+                return;
+            }
+            fired.increment();
+            log.debug("Hedging call to '{}' after '{}' ms", name, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            Deadline.bind(deadline, () -> start(attempt, result, inFlight, true)).run();
+        }, delayNanos, TimeUnit.NANOSECONDS);
+        result.whenComplete((value, ex) -> hedge.cancel(false));
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getFiredCount() {
+        return fired.sum();
+    }
+
+    public long getWonCount() {
+        return won.sum();
+    }
+
+    public long getOverBudgetCount() {
+        return overBudget.sum();
+    }
+
+    public long getDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(delayNanos);
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> attempt, CompletableFuture<T> result,
+                           AtomicInteger inFlight, boolean hedge) {
+        long start = System.nanoTime();
+        CompletableFuture<T> response;
+        try {
+            response = attempt.get();
+        } catch (RuntimeException ex) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(ex);
+        }
+        response.whenComplete((value, ex) -> {
+            int remaining = inFlight.decrementAndGet();
+            if (ex == null) {
+                recordLatency(System.nanoTime() - start);
+                if (result.complete(value) && hedge) {
+                    won.increment();
+                }
+            } else if (remaining == 0) {
+                result.completeExceptionally(Utils.unwrapCompletionException(ex));
+            }
+        });
+    }
+
+    /**
+     * @return false if the first attempt has already failed, its failure is the result then
+     */
+    private static boolean joinInFlight(AtomicInteger inFlight) {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private boolean withdraw() {
+        if (!budget.withdraw()) {
+            overBudget.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[latencyIndex] = nanos;
+        latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+        if (latencyCount >= MIN_LATENCIES && ++sinceDelayUpdate >= DELAY_UPDATE_INTERVAL) {
+            sinceDelayUpdate = 0;
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * latencyCount) - 1;
+            long latency = sorted[Math.max(0, Math.min(latencyCount - 1, index))];
+            delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, latency));
+        }
+    }
+}
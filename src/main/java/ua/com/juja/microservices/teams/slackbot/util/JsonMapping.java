@@ -0,0 +1,107 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import me.ramswaroop.jbot.core.slack.models.RichMessage;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.model.users.UserSlackIdRequest;
+import ua.com.juja.microservices.teams.slackbot.model.users.UserUuidRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * The one Jackson mapper of the bot, configured like the Spring default, with an {@link ObjectReader} and an
+ * {@link ObjectWriter} per type. Readers and writers look up their root (de)serializer once, when they are built, so
+ * reusing them saves that lookup on every call. Those of the types exchanged with the Users and Teams services and
+ * with slack are built up front.
+ */
+public class JsonMapping {
+
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+    private static final ConcurrentMap<JavaType, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<JavaType, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    /**
+     * Fails on unknown properties, a body which is not an error of our services is reported as unparseable
+     */
+    public static final ObjectReader API_ERROR_READER = reader(ApiError.class)
+            .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    static {
+        reader(Team.class);
+        reader(User[].class);
+        writer(RichMessage.class);
+        writer(ActivateTeamRequest.class);
+        writer(DeactivateTeamRequest.class);
+        writer(UserSlackIdRequest.class);
+        writer(UserUuidRequest.class);
+    }
+
+    private JsonMapping() {
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    public static JavaType constructType(Type type) {
+        return MAPPER.constructType(type);
+    }
+
+    public static ObjectReader reader(Type type) {
+        return reader(constructType(type));
+    }
+
+    public static ObjectReader reader(JavaType type) {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+
+    public static ObjectWriter writer(Type type) {
+        return writer(constructType(type));
+    }
+
+    public static ObjectWriter writer(JavaType type) {
+        return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+    }
+
+    /**
+     * Reads a JSON array from the stream element by element, handing every element to the consumer as soon as it is
+     * read, so only one element at a time is held besides what the consumer keeps
+     *
+     * @return number of elements read
+     */
+    public static <T> int readArray(InputStream in, Class<T> elementType, Consumer<? super T> consumer)
+            throws IOException {
+        ObjectReader reader = reader(elementType);
+        try (JsonParser parser = reader.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw JsonMappingException.from(parser, "Expected JSON array of " + elementType.getSimpleName());
+            }
+            parser.clearCurrentToken();
+            MappingIterator<T> elements = reader.readValues(parser);
+            int count = 0;
+            while (elements.hasNextValue()) {
+                consumer.accept(elements.nextValue());
+                count++;
+            }
+            return count;
+        }
+    }
+}
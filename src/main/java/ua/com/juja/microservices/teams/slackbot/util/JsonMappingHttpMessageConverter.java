@@ -0,0 +1,53 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.TypeUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter of RestTemplate and AsyncRestTemplate reading and writing bodies with the shared readers and writers
+ * of {@link JsonMapping} instead of looking up a (de)serializer for every body. Bodies are always written as UTF-8.
+ */
+public class JsonMappingHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public JsonMappingHttpMessageConverter() {
+        super(JsonMapping.mapper());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return read(getJavaType(type, contextClass), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(getJavaType(clazz, null), inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        JavaType javaType = type != null && TypeUtils.isAssignable(type, object.getClass())
+                ? getJavaType(type, null) : JsonMapping.constructType(object.getClass());
+        try {
+            JsonMapping.writer(javaType).writeValue(outputMessage.getBody(), object);
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getOriginalMessage(), ex);
+        }
+    }
+
+    private Object read(JavaType javaType, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return JsonMapping.reader(javaType).readValue(inputMessage.getBody());
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getOriginalMessage(), ex);
+        }
+    }
+}
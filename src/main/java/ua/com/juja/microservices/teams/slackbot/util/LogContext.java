@@ -0,0 +1,89 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.slf4j.MDC;
+import ua.com.juja.microservices.teams.slackbot.command.CommandType;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * Correlation fields of a slash command kept in the MDC, so every log line of the command carries them as separate
+ * fields instead of in the message. The fields follow the command to executor threads and async callbacks.
+ */
+public class LogContext {
+
+    public static final String COMMAND_ID = "commandId";
+    public static final String COMMAND = "command";
+    public static final String SLACK_USER = "slackUser";
+    /**
+     * Marks synthetic work such as the startup warm-up, logback drops log events of threads carrying it
+     */
+    public static final String SYNTHETIC = "synthetic";
+
+    private LogContext() {
+    }
+
+    /**
+     * Puts the fields of a new command into the MDC of the current thread, closing the scope removes them
+     */
+    public static Scope startCommand(CommandType commandType, String fromUserId) {
+        MDC.put(COMMAND_ID, Long.toHexString(ThreadLocalRandom.current().nextLong()));
+        MDC.put(COMMAND, commandType.getKey());
+        MDC.put(SLACK_USER, fromUserId);
+        return () -> {
+            MDC.remove(COMMAND_ID);
+            MDC.remove(COMMAND);
+            MDC.remove(SLACK_USER);
+        };
+    }
+
+    /**
+     * Marks the current thread as running synthetic commands, closing the scope removes the mark
+     */
+    public static Scope startSynthetic() {
+        MDC.put(SYNTHETIC, Boolean.TRUE.toString());
+        return () -> MDC.remove(SYNTHETIC);
+    }
+
+    /**
+     * @return copy of the MDC of the current thread, null if it is empty
+     */
+    public static Map<String, String> capture() {
+        return MDC.getCopyOfContextMap();
+    }
+
+    /**
+     * Replaces the MDC of the current thread with the captured one, closing the scope puts the previous one back
+     */
+    public static Scope restore(Map<String, String> context) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        setContext(context);
+        return () -> setContext(previous);
+    }
+
+    /**
+     * @return callback running with the MDC of the thread wrapping it
+     */
+    public static <T, U> BiConsumer<T, U> wrap(BiConsumer<T, U> callback) {
+        Map<String, String> context = capture();
+        return (first, second) -> {
+            try (Scope ignored = restore(context)) {
+                callback.accept(first, second);
+            }
+        };
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,168 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Retries idempotent calls failed with one of the {@link RetryOn} classes, at most maxAttempts attempts in all.
+ * Before attempt n it waits a random time between zero and initialBackoffMillis * 2^(n-2), capped at
+ * maxBackoffMillis, so callers failed by the same outage do not come back together. Retries are paid from a
+ * {@link CallBudget} of budgetPercent: while a service is down its callers fail instead of multiplying its traffic.
+ * The budget starts full, so the first failures after a start are retried even at a low call rate.
+ * No retry is made if the {@link Deadline} of the caller would pass during the backoff.
+ */
+@Slf4j
+public class Retrier {
+
+    private final String name;
+    private final ScheduledExecutorService scheduler;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Set<RetryOn> retryOn;
+    private final CallBudget budget;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public Retrier(String name, ScheduledExecutorService scheduler, int maxAttempts, long initialBackoffMillis,
+                   long maxBackoffMillis, Collection<RetryOn> retryOn, double budgetPercent) {
+        this.name = name;
+        this.scheduler = scheduler;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.retryOn = retryOn.isEmpty() ? EnumSet.noneOf(RetryOn.class) : EnumSet.copyOf(retryOn);
+        this.budget = new CallBudget(budgetPercent, CallBudget.MAX_BALANCE);
+    }
+
+    /**
+     * Makes the call, sleeping in the calling thread between attempts
+     */
+    public <T> T execute(Supplier<T> call) {
+        onCall();
+        Deadline deadline = Deadline.current();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException ex) {
+                long backoff = backoffMillis(attempt);
+                if (!shouldRetry(ex, attempt, backoff, deadline)) {
+                    throw ex;
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes the call, scheduling the next attempt after the backoff instead of blocking a thread
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        onCall();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(call, result, 1, Deadline.current());
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public long getOverBudgetCount() {
+        return overBudget.sum();
+    }
+
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    private <T> void attempt(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result, int attempt,
+                             Deadline deadline) {
+        CompletableFuture<T> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(ex);
+        }
+        response.whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable failure = Utils.unwrapCompletionException(ex);
+            long backoff = backoffMillis(attempt);
+            if (!shouldRetry(failure, attempt, backoff, deadline)) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            scheduler.schedule(Deadline.bind(deadline, () -> attempt(call, result, attempt + 1, deadline)),
+                    backoff, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void onCall() {
+        calls.increment();
+        budget.deposit();
+    }
+
+    private boolean shouldRetry(Throwable ex, int attempt, long backoff, Deadline deadline) {
+        if (!isRetryable(ex)) {
+            return false;
+        }
+        if (attempt >= maxAttempts) {
+            exhausted.increment();
+            return false;
+        }
+        if (deadline != null && deadline.remainingMillis() <= backoff) {
+            return false;
+        }
+        if (!budget.withdraw()) {
+            overBudget.increment();
+            log.debug("Call to '{}' not retried, the retry budget is spent", name);
+            return false;
+        }
+        retries.increment();
+        log.info("Retrying call to '{}' in '{}' ms, attempt '{}' failed: '{}'", name, backoff, attempt,
+                ex.getMessage());
+        return true;
+    }
+
+    private boolean isRetryable(Throwable ex) {
+        for (RetryOn retryable : retryOn) {
+            if (retryable.isRetryable(ex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -0,0 +1,71 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.BaseBotException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Failure classes a {@link Retrier} may retry. I/O errors of the blocking client come wrapped in
+ * {@link ResourceAccessException}, those of the non-blocking client in {@link CompletionException}, and the REST
+ * repositories keep the error response as the cause of the exchange exception they throw.
+ */
+public enum RetryOn {
+
+    /**
+     * The request never reached the service: connection refused or timed out, unknown host, no pooled connection
+     */
+    CONNECT {
+        @Override
+        boolean matches(Throwable ex) {
+            Throwable cause = ex instanceof ResourceAccessException ? ex.getCause() : ex;
+            return cause instanceof ConnectException || cause instanceof ConnectTimeoutException
+                    || cause instanceof ConnectionPoolTimeoutException || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException;
+        }
+    },
+    /**
+     * Any I/O error, including read timeouts of requests the service may have processed
+     */
+    IO {
+        @Override
+        boolean matches(Throwable ex) {
+            return ex instanceof ResourceAccessException || ex instanceof IOException;
+        }
+    },
+    /**
+     * 5xx response
+     */
+    SERVER_ERROR {
+        @Override
+        boolean matches(Throwable ex) {
+            return ex instanceof HttpServerErrorException;
+        }
+    },
+    /**
+     * 429 response
+     */
+    TOO_MANY_REQUESTS {
+        @Override
+        boolean matches(Throwable ex) {
+            return ex instanceof HttpStatusCodeException
+                    && ((HttpStatusCodeException) ex).getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+        }
+    };
+
+    abstract boolean matches(Throwable ex);
+
+    public boolean isRetryable(Throwable ex) {
+        return matches(ex) || (ex instanceof BaseBotException || ex instanceof CompletionException)
+                && ex.getCause() != null && matches(ex.getCause());
+    }
+}
@@ -0,0 +1,112 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ServiceUnavailableException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls to one downstream service with its {@link CircuitBreaker} and {@link Bulkhead}. A call rejected by
+ * either of them fails at once with {@link ServiceUnavailableException}. Only failures of the service itself (I/O
+ * errors, 5xx responses, unreadable bodies) count against the breaker, an error response with a business message
+ * means the service is up. Failures of calls whose {@link Deadline} has passed are not counted at all, their
+ * timeouts were cut by the caller.
+ */
+@Slf4j
+public class ServiceGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final String unavailableMessage;
+
+    public ServiceGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, String unavailableMessage) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.unavailableMessage = unavailableMessage;
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        acquire(true);
+        Deadline deadline = Deadline.current();
+        try {
+            T result = call.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException | Error ex) {
+            recordOutcome(ex, deadline);
+            throw ex;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result;
+        Deadline deadline = Deadline.current();
+        try {
+            acquire(false);
+        } catch (ServiceUnavailableException ex) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(ex);
+            return result;
+        }
+        try {
+            result = call.get();
+        } catch (RuntimeException ex) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(ex);
+        }
+        return result.whenComplete((value, ex) -> {
+            bulkhead.release();
+            if (ex == null) {
+                circuitBreaker.onSuccess();
+            } else {
+                recordOutcome(Utils.unwrapCompletionException(ex), deadline);
+            }
+        });
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    private void acquire(boolean wait) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            log.debug("Call to '{}' rejected, circuit breaker is '{}'", circuitBreaker.getName(),
+                    circuitBreaker.getState());
+            throw new ServiceUnavailableException(unavailableMessage);
+        }
+        if (!(wait ? bulkhead.tryAcquire() : bulkhead.tryAcquireNow())) {
+            circuitBreaker.onIgnored();
+            log.debug("Call to '{}' rejected, '{}' calls are in flight", circuitBreaker.getName(),
+                    bulkhead.getActiveCount());
+            throw new ServiceUnavailableException(unavailableMessage);
+        }
+    }
+
+    private void recordOutcome(Throwable ex, Deadline deadline) {
+        if (deadline != null && deadline.isExpired()) {
+            circuitBreaker.onIgnored();
+        } else if (isServiceFailure(ex)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    static boolean isServiceFailure(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() instanceof IOException) {
+            return true;
+        }
+        return ex instanceof RestClientException && !(ex instanceof HttpClientErrorException);
+    }
+}
@@ -4,8 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * @author Ivan Shapovalov
@@ -16,25 +15,62 @@ public class SlackIdHandler {
      * Slack name cannot be longer than 21 characters and
      * can only contain letters, numbers, periods, hyphens, and underscores.
      * ([a-z0-9\.\_\-]){1,21}
-     * quick test regExp http://regexr.com/
+     * Slack escapes mentions in a message as <@ID> or <@ID|name>.
      */
-    private static final String SLACK_ID_PATTERN = "\\<@(.*?)(\\||\\>)";
+    private static final String SLACK_ID_PREFIX = "<@";
+    private static final char SLACK_ID_END = '>';
+    private static final char SLACK_NAME_SEPARATOR = '|';
+    private static final int MAX_SLACK_ID_LENGTH = 21;
+    /**
+     * Text of a command may be as long as a whole Slack message, so the number of mentions taken from it is limited.
+     */
+    private static final int MAX_SLACK_IDS_IN_TEXT = 100;
     private static final String SLACK_ID_WRAPPER_PATTERN = "<@%s>";
 
+    /**
+     * Finds slack ids of all mentions in the text in one pass. A mention is taken only if its id is not empty,
+     * consists of allowed characters, is not longer than {@link #MAX_SLACK_ID_LENGTH} and is followed by '>' or '|'.
+     * Scanning stops after {@link #MAX_SLACK_IDS_IN_TEXT} distinct ids.
+     */
     public static Set<String> getSlackIdsFromText(String text) {
         log.debug("Before extract slackIds from text '{}'", text);
         Set<String> slackIds = new LinkedHashSet<>();
-        Pattern pattern = Pattern.compile(SLACK_ID_PATTERN);
-        Matcher matcher = pattern.matcher(text);
-        while (matcher.find()) {
-            slackIds.add(matcher.group(1));
+        int length = text.length();
+        int position = text.indexOf(SLACK_ID_PREFIX);
+        while (position >= 0 && slackIds.size() < MAX_SLACK_IDS_IN_TEXT) {
+            int start = position + SLACK_ID_PREFIX.length();
+            int end = start;
+            while (end < length && end - start <= MAX_SLACK_ID_LENGTH && isSlackIdChar(text.charAt(end))) {
+                end++;
+            }
+            if (end > start && end - start <= MAX_SLACK_ID_LENGTH && end < length && isSlackIdEnd(text.charAt(end))) {
+                slackIds.add(text.substring(start, end));
+            }
+            position = text.indexOf(SLACK_ID_PREFIX, end);
         }
-        log.info("After extract slackIds '{}' from text '{}'", slackIds.toString(), text);
+        log.debug("After extract slackIds '{}' from text '{}'", slackIds, text);
         return slackIds;
     }
 
     public static String wrapSlackId(String slackId) {
         return String.format(SLACK_ID_WRAPPER_PATTERN, slackId);
     }
-}
 
+    /**
+     * @return wrapped slack ids sorted and separated by spaces, as they are shown in messages to slack
+     */
+    public static String wrapSlackIds(Set<String> slackIds) {
+        return slackIds.stream().sorted()
+                .map(SlackIdHandler::wrapSlackId)
+                .collect(Collectors.joining(" "));
+    }
+
+    private static boolean isSlackIdChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '_' || c == '-';
+    }
+
+    private static boolean isSlackIdEnd(char c) {
+        return c == SLACK_ID_END || c == SLACK_NAME_SEPARATOR;
+    }
+}
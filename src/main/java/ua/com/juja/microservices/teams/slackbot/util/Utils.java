@@ -1,9 +1,9 @@
 package ua.com.juja.microservices.teams.slackbot.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.web.client.HttpClientErrorException;
 import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
 
@@ -12,6 +12,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -32,9 +35,8 @@ public class Utils {
     }
 
     public static ApiError convertToApiError(HttpClientErrorException httpClientErrorException) {
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.readValue(httpClientErrorException.getResponseBodyAsString(), ApiError.class);
+            return JsonMapping.API_ERROR_READER.readValue(httpClientErrorException.getResponseBodyAsByteArray());
         } catch (IOException e) {
             return new ApiError(
                     500, "BotInternalError",
@@ -46,6 +48,41 @@ public class Utils {
         }
     }
 
+    public static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> listenableFuture) {
+        CompletableFuture<T> future = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                listenableFuture.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        listenableFuture.addCallback(future::complete, future::completeExceptionally);
+        return future;
+    }
+
+    /**
+     * Waits for the future and rethrows its failure as is, without the CompletionException wrapper
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw unwrapCompletionException(ex);
+        }
+    }
+
+    /**
+     * Returns the real cause of a failed future, without the CompletionException/ExecutionException wrappers
+     */
+    public static RuntimeException unwrapCompletionException(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    }
+
     private static String listToStringWithDelimeter(Set<String> list, String delimeter) {
         return list.stream().map(slackId -> SlackIdHandler.wrapSlackId(slackId)).collect(Collectors.joining
                 (delimeter));
@@ -0,0 +1,196 @@
+package ua.com.juja.microservices.teams.slackbot.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityCache;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityStore;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.service.impl.TeamViewSynchronizer;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Warms the bot up once the application is started and keeps the health endpoint OUT_OF_SERVICE until it is done or
+ * the timeout has passed, so the instance gets no traffic while it is cold. The identities written last to the
+ * {@link UserIdentityStore} are put into the {@link UserIdentityCache} and the active teams of those users are loaded
+ * into the {@link TeamView} in parallel batches; without the store there is nothing known to preload. Meanwhile
+ * {@link SyntheticCommands} run the command path against local stubs so the JIT has compiled it.
+ */
+@Component
+@Slf4j
+public class StartupWarmUp implements ApplicationListener<ApplicationReadyEvent>, HealthIndicator, DisposableBean {
+
+    static final String DONE = "done";
+    static final String TIMED_OUT = "timed out";
+    static final String FAILED = "failed";
+    static final String DISABLED = "disabled";
+    static final String IN_PROGRESS = "in progress";
+
+    private static final String PROPERTY_PREFIX = "teams.slackbot.warmup.";
+
+    private final TeamView teamView;
+    private final TeamViewSynchronizer teamViewSynchronizer;
+    private final UserIdentityStore identityStore;
+    private final UserIdentityCache identityCache;
+    private final SyntheticCommands syntheticCommands;
+    private final long timeoutMillis;
+    private final int preloadUsers;
+    private final int batchSize;
+    private final int syntheticRounds;
+    private final CustomizableThreadFactory threadFactory;
+    private final ExecutorService executor;
+    private final LongAdder preloadedUsers = new LongAdder();
+    private final LongAdder loadedTeams = new LongAdder();
+    private final LongAdder failedLoads = new LongAdder();
+    private volatile Deadline deadline;
+    private volatile String outcome;
+
+    @Inject
+    public StartupWarmUp(TeamView teamView, TeamViewSynchronizer teamViewSynchronizer,
+                         ObjectProvider<UserIdentityStore> identityStore,
+                         ObjectProvider<UserIdentityCache> identityCache, Environment environment) {
+        this.teamView = teamView;
+        this.teamViewSynchronizer = teamViewSynchronizer;
+        this.identityStore = identityStore.getIfAvailable();
+        this.identityCache = identityCache.getIfAvailable();
+        this.syntheticCommands = new SyntheticCommands(environment);
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(
+                environment.getRequiredProperty(PROPERTY_PREFIX + "timeoutSeconds", Long.class));
+        this.preloadUsers = environment.getRequiredProperty(PROPERTY_PREFIX + "preloadUsers", Integer.class);
+        this.batchSize = environment.getRequiredProperty(PROPERTY_PREFIX + "batchSize", Integer.class);
+        this.syntheticRounds = environment.getRequiredProperty(PROPERTY_PREFIX + "syntheticRounds", Integer.class);
+        this.threadFactory = new CustomizableThreadFactory("warm-up-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(
+                environment.getRequiredProperty(PROPERTY_PREFIX + "threads", Integer.class), threadFactory);
+        if (!environment.getRequiredProperty(PROPERTY_PREFIX + "enabled", Boolean.class)) {
+            outcome = DISABLED;
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (outcome == null && deadline == null) {
+            threadFactory.newThread(this::warmUp).start();
+        }
+    }
+
+    @Override
+    public Health health() {
+        String result = outcome;
+        Deadline current = deadline;
+        if (result == null && current != null && current.isExpired()) {
+            result = TIMED_OUT;
+        }
+        if (result == null) {
+            return Health.outOfService().withDetail("warmUp", IN_PROGRESS).build();
+        }
+        return Health.up()
+                .withDetail("warmUp", result)
+                .withDetail("preloadedUsers", preloadedUsers.sum())
+                .withDetail("loadedTeams", loadedTeams.sum())
+                .withDetail("failedTeamLoads", failedLoads.sum())
+                .build();
+    }
+
+    /**
+     * Preloads the caches on the executor and meanwhile runs the synthetic commands on the calling thread, returns
+     * once both are done or the timeout has passed
+     */
+    void warmUp() {
+        deadline = Deadline.after(timeoutMillis);
+        long startedAt = System.nanoTime();
+        try {
+            List<Future<?>> batches = preload();
+            int rounds = syntheticCommands.run(syntheticRounds, deadline);
+            boolean done = awaitAll(batches);
+            outcome = done && rounds == syntheticRounds ? DONE : TIMED_OUT;
+            log.info("Warm-up {} in '{}' ms: '{}' synthetic rounds, '{}' users preloaded, '{}' teams loaded, '{}' " +
+                            "team loads failed", outcome, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                    rounds, preloadedUsers.sum(), loadedTeams.sum(), failedLoads.sum());
+        } catch (RuntimeException ex) {
+            outcome = FAILED;
+            log.warn("Warm-up failed, instance is reported ready without it: '{}'", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private List<Future<?>> preload() {
+        List<User> users = identityStore == null ? Collections.emptyList() : identityStore.getRecentUsers(preloadUsers);
+        if (identityCache != null) {
+            identityCache.putAll(users);
+        }
+        preloadedUsers.add(users.size());
+        List<Future<?>> batches = new ArrayList<>();
+        for (int from = 0; from < users.size(); from += batchSize) {
+            List<User> batch = users.subList(from, Math.min(from + batchSize, users.size()));
+            batches.add(executor.submit(() -> loadTeams(batch)));
+        }
+        return batches;
+    }
+
+    /**
+     * Loads the active team of every user whose team is not in the view yet, so the other members of a loaded team
+     * are skipped
+     */
+    private void loadTeams(List<User> users) {
+        for (User user : users) {
+            if (deadline.isExpired() || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (teamView.containsMember(user.getSlackId())) {
+                continue;
+            }
+            try {
+                if (teamViewSynchronizer.load(user.getUuid())) {
+                    loadedTeams.increment();
+                }
+            } catch (RuntimeException ex) {
+                log.debug("Team of '{}' not preloaded: '{}'", user.getSlackId(), ex.getMessage());
+                failedLoads.increment();
+            }
+        }
+    }
+
+    private boolean awaitAll(List<Future<?>> batches) {
+        boolean done = true;
+        for (Future<?> batch : batches) {
+            try {
+                batch.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                batch.cancel(true);
+                done = false;
+            } catch (ExecutionException ex) {
+                log.warn("Warm-up batch failed: '{}'", ex.getCause().getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return done;
+    }
+}
@@ -0,0 +1,181 @@
+package ua.com.juja.microservices.teams.slackbot.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import me.ramswaroop.jbot.core.slack.models.RichMessage;
+import org.springframework.core.env.Environment;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamCache;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.model.users.UserSlackIdRequest;
+import ua.com.juja.microservices.teams.slackbot.model.users.UserUuidRequest;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+import ua.com.juja.microservices.teams.slackbot.service.TeamService;
+import ua.com.juja.microservices.teams.slackbot.service.impl.TeamServiceImpl;
+import ua.com.juja.microservices.teams.slackbot.service.impl.UserServiceImpl;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+import ua.com.juja.microservices.teams.slackbot.util.JsonMapping;
+import ua.com.juja.microservices.teams.slackbot.util.LogContext;
+import ua.com.juja.microservices.teams.slackbot.util.SlackIdHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs slash commands through the real {@link TeamServiceImpl} and {@link UserServiceImpl} against in-process stubs
+ * of the Users and Teams services and builds the messages to slack the way the controller does, so the JIT compiles
+ * the command path before the first real command. The stubs encode every request with the shared writers and answer
+ * from canned JSON with the shared readers, like the REST repositories. The commands have their own team cache and
+ * view and log nothing, see {@link LogContext#startSynthetic()}.
+ */
+class SyntheticCommands {
+
+    private static final List<User> USERS = Arrays.asList(
+            new User("00000000-0000-4000-8000-000000000001", "USYNTH0001"),
+            new User("00000000-0000-4000-8000-000000000002", "USYNTH0002"),
+            new User("00000000-0000-4000-8000-000000000003", "USYNTH0003"),
+            new User("00000000-0000-4000-8000-000000000004", "USYNTH0004"));
+    private static final String FROM_USER = USERS.get(0).getSlackId();
+    private static final String TEAM_TEXT = USERS.stream()
+            .map(user -> SlackIdHandler.wrapSlackId(user.getSlackId()))
+            .collect(Collectors.joining(" "));
+    private static final String MEMBER_TEXT = SlackIdHandler.wrapSlackId(USERS.get(1).getSlackId());
+
+    private final TeamService teamService;
+    private final String activateTeamDelayedMessage;
+    private final String getTeamDelayedMessage;
+    private final String getMyTeamDelayedMessage;
+    private final String deactivateTeamDelayedMessage;
+
+    SyntheticCommands(Environment environment) {
+        UserServiceImpl userService = new UserServiceImpl(new StubUserRepository());
+        this.teamService = new TeamServiceImpl(new StubTeamRepository(), userService, new TeamCache(16, 60),
+                new TeamView(16, 60, 300));
+        this.activateTeamDelayedMessage = environment.getRequiredProperty("message.activate.team.delayed");
+        this.getTeamDelayedMessage = environment.getRequiredProperty("message.get.team.delayed");
+        this.getMyTeamDelayedMessage = environment.getRequiredProperty("message.get.my.team.delayed");
+        this.deactivateTeamDelayedMessage = environment.getRequiredProperty("message.deactivate.team.delayed");
+    }
+
+    /**
+     * Runs the given number of rounds of all four commands, stops early once the deadline has passed
+     *
+     * @return number of rounds run
+     */
+    int run(int rounds, Deadline deadline) {
+        try (LogContext.Scope ignored = LogContext.startSynthetic()) {
+            int round = 0;
+            while (round < rounds && !deadline.isExpired()) {
+                runRound();
+                round++;
+            }
+            return round;
+        }
+    }
+
+    /**
+     * Deactivation drops the team from the cache and the view, so the first lookup goes to the stubs and the second
+     * one is answered by the view
+     */
+    private void runRound() {
+        Set<String> deactivated = teamService.deactivateTeam(FROM_USER, MEMBER_TEXT);
+        send(String.format(deactivateTeamDelayedMessage, SlackIdHandler.wrapSlackIds(deactivated)));
+
+        Set<String> team = teamService.getTeam(MEMBER_TEXT);
+        send(String.format(getTeamDelayedMessage, MEMBER_TEXT, SlackIdHandler.wrapSlackIds(team)));
+
+        String wrappedFromUser = SlackIdHandler.wrapSlackId(FROM_USER);
+        Set<String> myTeam = teamService.getTeam(wrappedFromUser);
+        send(String.format(getMyTeamDelayedMessage, wrappedFromUser, SlackIdHandler.wrapSlackIds(myTeam)));
+
+        teamService.activateTeam(FROM_USER, TEAM_TEXT);
+        send(String.format(activateTeamDelayedMessage, TEAM_TEXT));
+    }
+
+    private static void send(String delayedMessage) {
+        encode(new RichMessage(delayedMessage));
+    }
+
+    private static byte[] encode(Object value) {
+        try {
+            return JsonMapping.writer(value.getClass()).writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static class StubUserRepository implements UserRepository {
+
+        private final byte[] usersJson = encode(USERS.toArray(new User[0]));
+
+        @Override
+        public List<User> findUsersBySlackIds(List<String> slackIds) {
+            encode(new UserSlackIdRequest(slackIds));
+            return findUsers(slackIds, User::getSlackId);
+        }
+
+        @Override
+        public List<User> findUsersByUuids(List<String> uuids) {
+            encode(new UserUuidRequest(uuids));
+            return findUsers(uuids, User::getUuid);
+        }
+
+        private List<User> findUsers(Collection<String> ids, Function<User, String> id) {
+            List<User> users = new ArrayList<>(ids.size());
+            try {
+                JsonMapping.readArray(new ByteArrayInputStream(usersJson), User.class, user -> {
+                    if (ids.contains(id.apply(user))) {
+                        users.add(user);
+                    }
+                });
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return users;
+        }
+    }
+
+    private static class StubTeamRepository implements TeamRepository {
+
+        private final byte[] teamJson = encode(new Team(USERS.get(0).getUuid(), "synthetic-team", new Date(), null,
+                USERS.stream().map(User::getUuid).collect(Collectors.toCollection(LinkedHashSet::new))));
+
+        @Override
+        public Team activateTeam(ActivateTeamRequest activateTeamRequest) {
+            encode(activateTeamRequest);
+            return readTeam();
+        }
+
+        @Override
+        public Team deactivateTeam(DeactivateTeamRequest deactivateTeamRequest) {
+            encode(deactivateTeamRequest);
+            return readTeam();
+        }
+
+        @Override
+        public Team getTeam(String uuid) {
+            return readTeam();
+        }
+
+        private Team readTeam() {
+            try {
+                return JsonMapping.reader(Team.class).readValue(teamJson);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import me.ramswaroop.jbot.core.slack.models.RichMessage;
 import net.javacrumbs.jsonunit.core.Option;
 import net.javacrumbs.jsonunit.core.util.ResourceUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -22,6 +23,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.client.RestTemplate;
 import ua.com.juja.microservices.teams.slackbot.TeamSlackBotApplication;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamCache;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.command.CommandDeduplicator;
+import ua.com.juja.microservices.teams.slackbot.command.CommandExecutor;
 import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
 import ua.com.juja.microservices.teams.slackbot.model.users.User;
 import ua.com.juja.microservices.teams.slackbot.util.SlackIdHandler;
@@ -53,9 +58,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = {TeamSlackBotApplication.class})
 @AutoConfigureMockMvc
-@TestPropertySource(value = {"classpath:application.properties", "classpath:messages/message.properties"})
+@TestPropertySource(value = {"classpath:application.properties", "classpath:messages/message.properties"},
+        properties = "teams.slackbot.cache.users.enabled=false")
 public class TeamsSlackBotIntegrationTest {
 
+    private static final int COMMAND_TIMEOUT = 1000;
     private static User user1;
     private static User user2;
     private static User user3;
@@ -102,6 +109,14 @@ public class TeamsSlackBotIntegrationTest {
     private RestTemplate restTemplate;
     @Inject
     private MockMvc mvc;
+    @Inject
+    private CommandExecutor commandExecutor;
+    @Inject
+    private TeamCache teamCache;
+    @Inject
+    private TeamView teamView;
+    @Inject
+    private CommandDeduplicator commandDeduplicator;
     private MockRestServiceServer mockServer;
 
     @BeforeClass
@@ -116,6 +131,17 @@ public class TeamsSlackBotIntegrationTest {
     @Before
     public void setup() {
         mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+        teamCache.invalidateAll();
+        teamView.invalidateAll();
+        commandDeduplicator.clear();
+    }
+
+    @After
+    public void awaitCommandsCompletion() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + COMMAND_TIMEOUT;
+        while (commandExecutor.getPendingCommands() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
     }
 
     @Test
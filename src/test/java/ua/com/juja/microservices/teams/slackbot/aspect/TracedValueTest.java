@@ -0,0 +1,35 @@
+package ua.com.juja.microservices.teams.slackbot.aspect;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class TracedValueTest {
+
+    @Test
+    public void toStringShouldRenderArgumentsLikeDeepToString() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", 1);
+        map.put("b", Arrays.asList("x", null));
+        Object[] args = {"text", null, new int[]{1, 2}, Collections.singleton("@slack-id"), map};
+
+        assertEquals("[text, null, [1, 2], [@slack-id], {a=1, b=[x, null]}]", new TracedValue(args, 256).toString());
+    }
+
+    @Test
+    public void toStringShouldStopAtMaxLength() {
+        List<String> uuids = IntStream.range(0, 100_000).mapToObj(i -> "uuid" + i).collect(Collectors.toList());
+
+        assertEquals("[[uuid0, uuid1, uuid2, ...", new TracedValue(new Object[]{uuids}, 23).toString());
+        assertEquals("abc...", new TracedValue("abcdef", 3).toString());
+        assertEquals("abc", new TracedValue("abc", 3).toString());
+    }
+}
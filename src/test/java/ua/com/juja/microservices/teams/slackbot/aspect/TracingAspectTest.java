@@ -0,0 +1,121 @@
+package ua.com.juja.microservices.teams.slackbot.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import ua.com.juja.microservices.teams.slackbot.config.AspectConfiguration;
+
+import javax.inject.Inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = TracingAspectTest.TracingConfiguration.class)
+@TestPropertySource(locations = "classpath:application.properties",
+        properties = {"teams.slackbot.tracing.enabled=true", "teams.slackbot.tracing.sampleRate=1"})
+public class TracingAspectTest {
+
+    @Inject
+    private TracedBean tracedBean;
+    @Inject
+    private UntracedBean untracedBean;
+    @Inject
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setup() {
+        assumeFalse("Test beans are not woven when the aspects are", AspectConfiguration.isWoven());
+    }
+
+    @Test
+    public void tracedMethodShouldBeTimed() {
+        long before = count("echo", "None");
+
+        assertEquals("text", tracedBean.echo("text"));
+
+        assertEquals(before + 1, count("echo", "None"));
+    }
+
+    @Test
+    public void tracedMethodShouldBeTimedWithExceptionIfThrows() {
+        long before = count("fail", "IllegalStateException");
+
+        try {
+            tracedBean.fail();
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals("failed", ex.getMessage());
+        }
+
+        assertEquals(before + 1, count("fail", "IllegalStateException"));
+    }
+
+    @Test
+    public void onlyBeansWithTracedMethodsShouldBeProxied() {
+        assertTrue(AopUtils.isAopProxy(tracedBean));
+        assertFalse(AopUtils.isAopProxy(untracedBean));
+        assertEquals("text", tracedBean.untraced("text"));
+        assertNull(meterRegistry.find("traced.method").tags("method", "untraced").timer());
+    }
+
+    private long count(String method, String exception) {
+        Timer timer = meterRegistry.find("traced.method")
+                .tags("class", "TracedBean", "method", method, "exception", exception)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Configuration
+    @Import({AspectConfiguration.class, SimpleMeterRegistry.class})
+    static class TracingConfiguration {
+
+        @Bean
+        public TracedBean tracedBean() {
+            return new TracedBean();
+        }
+
+        @Bean
+        public UntracedBean untracedBean() {
+            return new UntracedBean();
+        }
+    }
+
+    public static class TracedBean {
+
+        @Traced
+        public String echo(String text) {
+            return text;
+        }
+
+        @Traced
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        public String untraced(String text) {
+            return text;
+        }
+    }
+
+    public static class UntracedBean {
+
+        public String untraced(String text) {
+            return text;
+        }
+    }
+}
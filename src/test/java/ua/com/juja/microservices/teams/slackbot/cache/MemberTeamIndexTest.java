@@ -0,0 +1,122 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class MemberTeamIndexTest {
+    private static final String UUID1 = "f827811f-51e8-4fc4-a56d-000000000001";
+    private static final String UUID2 = "f827811f-51e8-4fc4-a56d-000000000002";
+
+    @Test
+    public void putAndGetUuidMembers() {
+        MemberTeamIndex index = new MemberTeamIndex();
+
+        assertThat(index.put(UUID1, 1), is(MemberTeamIndex.NO_TEAM));
+        assertThat(index.put(UUID2, 2), is(MemberTeamIndex.NO_TEAM));
+        assertThat(index.put(UUID1, 3), is(1));
+
+        assertThat(index.get(UUID1), is(3));
+        assertThat(index.get(UUID2), is(2));
+        assertThat(index.get("f827811f-51e8-4fc4-a56d-000000000003"), is(MemberTeamIndex.NO_TEAM));
+        assertThat(index.size(), is(2));
+    }
+
+    @Test
+    public void otherMemberIdsAreKeptApartFromUuids() {
+        MemberTeamIndex index = new MemberTeamIndex();
+        index.put("uuid1", 1);
+        index.put(UUID1.toUpperCase(), 2);
+        index.put(UUID1, 3);
+
+        assertThat(index.get("uuid1"), is(1));
+        assertThat(index.get(UUID1.toUpperCase()), is(2));
+        assertThat(index.get(UUID1), is(3));
+        assertThat(index.remove("uuid1"), is(1));
+        assertThat(index.get("uuid1"), is(MemberTeamIndex.NO_TEAM));
+        assertThat(index.size(), is(2));
+    }
+
+    @Test
+    public void malformedUuidsAreKeptAsOtherMemberIds() {
+        MemberTeamIndex index = new MemberTeamIndex();
+        String badDigit = "f827811f-51e8-4fc4-a56d-00000000000g";
+        String misplacedDash = "f827811f51e8-4fc4-a56d-0000000000001";
+        index.put(badDigit, 1);
+        index.put(misplacedDash, 2);
+
+        assertThat(index.get(badDigit), is(1));
+        assertThat(index.get(misplacedDash), is(2));
+        assertThat(index.getTableBytes(), is(16L * (Long.BYTES * 2 + Integer.BYTES)));
+        assertThat(index.get("f827811f-51e8-4fc4-a56d-000000000000"), is(MemberTeamIndex.NO_TEAM));
+    }
+
+    @Test
+    public void indexAgreesWithHashMapUnderRandomPutsAndRemoves() {
+        MemberTeamIndex index = new MemberTeamIndex();
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            members.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+
+        for (int i = 0; i < 50000; i++) {
+            String member = members.get(random.nextInt(members.size()));
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(member);
+                assertThat(index.remove(member), is(removed == null ? MemberTeamIndex.NO_TEAM : removed));
+            } else {
+                int team = random.nextInt(1000);
+                Integer previous = expected.put(member, team);
+                assertThat(index.put(member, team), is(previous == null ? MemberTeamIndex.NO_TEAM : previous));
+            }
+        }
+
+        assertThat(index.size(), is(expected.size()));
+        for (String member : members) {
+            Integer team = expected.get(member);
+            assertThat(index.get(member), is(team == null ? MemberTeamIndex.NO_TEAM : team));
+        }
+    }
+
+    @Test
+    public void clearDropsAllMembers() {
+        MemberTeamIndex index = new MemberTeamIndex();
+        index.put(UUID1, 1);
+        index.put("uuid1", 1);
+
+        index.clear();
+
+        assertThat(index.size(), is(0));
+        assertThat(index.get(UUID1), is(MemberTeamIndex.NO_TEAM));
+    }
+
+    @Test
+    public void threeHundredThousandMembersTakeLessThanElevenMegabytes() {
+        MemberTeamIndex index = new MemberTeamIndex();
+        int members = 300_000;
+        for (int i = 0; i < members; i++) {
+            index.put(String.format("f827811f-51e8-4fc4-a56d-%012d", i), i / 4);
+        }
+
+        assertThat(index.size(), is(members));
+        assertThat(index.getTableBytes(), lessThan(11L * 1024 * 1024));
+        assertThat(index.getTableBytes() / members, lessThan(40L));
+        assertThat(index.get(String.format("f827811f-51e8-4fc4-a56d-%012d", members - 1)), is((members - 1) / 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTeamNumberIsRejected() {
+        new MemberTeamIndex().put(UUID1, MemberTeamIndex.NO_TEAM);
+    }
+}
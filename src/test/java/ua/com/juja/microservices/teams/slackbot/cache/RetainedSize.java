@@ -0,0 +1,118 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates bytes of heap reachable from an object as laid out by a 64 bit HotSpot with compressed oops: 12 byte
+ * object headers, 16 byte array headers, 4 byte references and 8 byte alignment. Static fields and classes are not
+ * counted. The estimate does not depend on the collector or on what else is on the heap, so footprints of two
+ * structures can be compared in a plain unit test.
+ */
+final class RetainedSize {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private RetainedSize() {
+    }
+
+    static long of(Object root) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        long bytes = 0;
+        while (!pending.isEmpty()) {
+            Object object = pending.pop();
+            if (object instanceof Class || !visited.add(object)) {
+                continue;
+            }
+            Class<?> type = object.getClass();
+            if (type.isArray()) {
+                bytes += arraySize(object, pending);
+            } else {
+                bytes += objectSize(object, pending);
+            }
+        }
+        return bytes;
+    }
+
+    private static long arraySize(Object array, Deque<Object> pending) {
+        Class<?> component = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+        if (!component.isPrimitive()) {
+            for (Object element : (Object[]) array) {
+                if (element != null) {
+                    pending.push(element);
+                }
+            }
+        }
+        return align(ARRAY_HEADER + (long) length * sizeOf(component));
+    }
+
+    private static long objectSize(Object object, Deque<Object> pending) {
+        long size = OBJECT_HEADER;
+        for (Field field : fieldsOf(object.getClass())) {
+            size += sizeOf(field.getType());
+            if (!field.getType().isPrimitive()) {
+                try {
+                    Object value = field.get(object);
+                    if (value != null) {
+                        pending.push(value);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static List<Field> fieldsOf(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, key -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = key; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+}
@@ -0,0 +1,93 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import org.junit.Test;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class TeamCacheTest {
+    private static final long TTL_SECONDS = 60;
+    private final Team team = new Team(new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4")));
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    public void everyMemberSharesOneCachedTeam() {
+        TeamCache cache = new TeamCache(100, TTL_SECONDS, ticker::get);
+        cache.put(team);
+
+        assertThat(cache.get("uuid1"), sameInstance(team));
+        assertThat(cache.get("uuid4"), sameInstance(team));
+        assertThat(cache.get("uuid5"), nullValue());
+        assertThat(cache.size(), is(4));
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void expiredTeamIsDroppedForAllMembers() {
+        TeamCache cache = new TeamCache(100, TTL_SECONDS, ticker::get);
+        cache.put(team);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(TTL_SECONDS));
+
+        assertThat(cache.get("uuid1"), nullValue());
+        assertThat(cache.size(), is(0));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void servedAgeIsAccumulatedOnHits() {
+        TeamCache cache = new TeamCache(100, TTL_SECONDS, ticker::get);
+        cache.put(team);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        cache.get("uuid1");
+        cache.get("uuid2");
+
+        assertThat(cache.getServedAgeSeconds(), is(20.0));
+    }
+
+    @Test
+    public void newTeamOfMemberReplacesWholeOldTeam() {
+        TeamCache cache = new TeamCache(100, TTL_SECONDS, ticker::get);
+        cache.put(team);
+        Team newTeam = new Team(new LinkedHashSet<>(Arrays.asList("uuid1", "uuid5", "uuid6", "uuid7")));
+
+        cache.put(newTeam);
+
+        assertThat(cache.get("uuid1"), sameInstance(newTeam));
+        assertThat(cache.get("uuid2"), nullValue());
+        assertThat(cache.size(), is(4));
+    }
+
+    @Test
+    public void invalidateDropsTeamForAllMembers() {
+        TeamCache cache = new TeamCache(100, TTL_SECONDS, ticker::get);
+        cache.put(team);
+
+        cache.invalidate(team);
+
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void leastRecentlyUsedTeamIsEvictedWhenFull() {
+        TeamCache cache = new TeamCache(6, TTL_SECONDS, ticker::get);
+        cache.put(team);
+        Team anotherTeam = new Team(new LinkedHashSet<>(Arrays.asList("uuid5", "uuid6", "uuid7", "uuid8")));
+
+        cache.put(anotherTeam);
+
+        assertThat(cache.size(), is(4));
+        assertThat(cache.get("uuid1"), nullValue());
+        assertThat(cache.get("uuid5"), sameInstance(anotherTeam));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+}
@@ -0,0 +1,241 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import org.junit.Test;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class TeamViewTest {
+    private static final long SYNC_INTERVAL_SECONDS = 60;
+    private static final long MAX_STALENESS_SECONDS = 300;
+    private final Team team = new Team(new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4")));
+    private final List<User> users = Arrays.asList(new User("uuid1", "slack-id1"), new User("uuid2", "slack-id2"),
+            new User("uuid3", "slack-id3"), new User("uuid4", "slack-id4"));
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    public void everyMemberGetsSlackIdsOfWholeTeam() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        view.put(team, users);
+
+        assertThat(view.getTeamSlackIds("slack-id1"),
+                containsInAnyOrder("slack-id1", "slack-id2", "slack-id3", "slack-id4"));
+        assertThat(view.getTeamSlackIds("slack-id4").size(), is(4));
+        assertThat(view.getTeamSlackIds("slack-id5"), nullValue());
+        assertThat(view.getHitCount(), is(2L));
+        assertThat(view.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void teamIsNotWrittenIfSlackIdOfSomeMemberIsUnknown() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+
+        boolean written = view.put(team, users.subList(0, 3));
+
+        assertThat(written, is(false));
+        assertThat(view.size(), is(0));
+    }
+
+    @Test
+    public void usersWhichAreNotMembersAreIgnored() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        List<User> usersWithFromUser = new ArrayList<>(users);
+        usersWithFromUser.add(new User("uuid-from", "from-id"));
+
+        view.put(team, usersWithFromUser);
+
+        assertThat(view.getTeamSlackIds("from-id"), nullValue());
+        assertThat(view.size(), is(4));
+    }
+
+    @Test
+    public void staleTeamIsNotServedButKeptForSync() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        view.put(team, users);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(MAX_STALENESS_SECONDS));
+
+        assertThat(view.getTeamSlackIds("slack-id1"), nullValue());
+        assertThat(view.getStaleCount(), is(1L));
+        assertThat(membersOf(view.syncCandidates(10)), contains(team.getMembers()));
+    }
+
+    @Test
+    public void containsMemberSeesOnlyFreshTeamsAndIsNotCounted() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        view.put(team, users);
+
+        assertThat(view.containsMember("slack-id3"), is(true));
+        assertThat(view.containsMember("slack-id5"), is(false));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(MAX_STALENESS_SECONDS));
+        assertThat(view.containsMember("slack-id3"), is(false));
+        assertThat(view.getHitCount() + view.getMissCount() + view.getStaleCount(), is(0L));
+    }
+
+    @Test
+    public void syncCandidatesAreTeamsDueForSyncOldestFirst() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        view.put(team, users);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Team otherTeam = new Team(new LinkedHashSet<>(Collections.singletonList("uuid5")));
+        view.put(otherTeam, Collections.singletonList(new User("uuid5", "slack-id5")));
+
+        assertThat(view.syncCandidates(10), empty());
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(SYNC_INTERVAL_SECONDS - 10));
+        assertThat(membersOf(view.syncCandidates(10)), contains(team.getMembers()));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(membersOf(view.syncCandidates(10)), contains(team.getMembers(), otherTeam.getMembers()));
+        assertThat(membersOf(view.syncCandidates(1)), contains(team.getMembers()));
+    }
+
+    @Test
+    public void syncedTeamIsNotDueAgain() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        view.put(team, users);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(SYNC_INTERVAL_SECONDS));
+
+        view.put(team, users);
+
+        assertThat(view.syncCandidates(10), empty());
+    }
+
+    @Test
+    public void newTeamOfMemberReplacesWholeOldTeam() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        view.put(team, users);
+        Team newTeam = new Team(new LinkedHashSet<>(Arrays.asList("uuid1", "uuid5")));
+
+        view.put(newTeam, Arrays.asList(users.get(0), new User("uuid5", "slack-id5")));
+
+        assertThat(view.getTeamSlackIds("slack-id1"), containsInAnyOrder("slack-id1", "slack-id5"));
+        assertThat(view.getTeamSlackIds("slack-id2"), nullValue());
+        assertThat(view.size(), is(2));
+    }
+
+    @Test
+    public void removeDropsTeamForAllMembers() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        view.put(team, users);
+
+        view.remove(team);
+
+        assertThat(view.size(), is(0));
+        assertThat(view.getRemovalCount(), is(1L));
+    }
+
+    @Test
+    public void teamSyncedLongestAgoIsEvictedWhenFull() {
+        TeamView view = new TeamView(5, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        view.put(team, users);
+        Team otherTeam = new Team(new LinkedHashSet<>(Arrays.asList("uuid5", "uuid6")));
+
+        view.put(otherTeam, Arrays.asList(new User("uuid5", "slack-id5"), new User("uuid6", "slack-id6")));
+
+        assertThat(view.getTeamSlackIds("slack-id1"), nullValue());
+        assertThat(view.getTeamSlackIds("slack-id5").size(), is(2));
+        assertThat(view.size(), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void syncIntervalMustBeShorterThanMaxStaleness() {
+        new TeamView(100, MAX_STALENESS_SECONDS, MAX_STALENESS_SECONDS);
+    }
+
+    @Test
+    public void uuidsAndSlackIdsAreGivenBackAsTheyWerePut() {
+        TeamView view = new TeamView(100, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        Team packedTeam = new Team(null, "5a2fd1f8e4b0c7d3a9c1e2f4", null, null, new LinkedHashSet<>(Arrays.asList(
+                "f827b8a3-4c7b-4c09-8f31-1b2ea5d7c4e0", "0a6e24b5-c8e9-4f1d-b2a7-3d5f60e91c28", "uuid-other")));
+        view.put(packedTeam, Arrays.asList(new User("f827b8a3-4c7b-4c09-8f31-1b2ea5d7c4e0", "U0G9QF9C6"),
+                new User("0a6e24b5-c8e9-4f1d-b2a7-3d5f60e91c28", "W012A3CDE4FGH5IJK6LMN7OP"),
+                new User("uuid-other", "slack-id-other")));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(SYNC_INTERVAL_SECONDS));
+
+        assertThat(view.getTeamSlackIds("W012A3CDE4FGH5IJK6LMN7OP"),
+                containsInAnyOrder("U0G9QF9C6", "W012A3CDE4FGH5IJK6LMN7OP", "slack-id-other"));
+        List<Team> candidates = view.syncCandidates(10);
+        assertThat(candidates.get(0).getId(), is("5a2fd1f8e4b0c7d3a9c1e2f4"));
+        assertThat(candidates.get(0).getMembers(), contains(packedTeam.getMembers().toArray()));
+        view.remove(packedTeam);
+        assertThat(view.size(), is(0));
+    }
+
+    @Test
+    public void threeHundredThousandMembersTakeLessThanHalfOfHashMapView() {
+        TeamView view = new TeamView(Integer.MAX_VALUE, SYNC_INTERVAL_SECONDS, MAX_STALENESS_SECONDS, ticker::get);
+        HashMapTeamView hashMapView = new HashMapTeamView();
+        Random random = new Random(42);
+        for (int i = 0; i < 75_000; i++) {
+            Set<String> members = new LinkedHashSet<>();
+            List<User> teamUsers = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                String uuid = new UUID(random.nextLong(), random.nextLong()).toString();
+                members.add(uuid);
+                teamUsers.add(new User(uuid, String.format("U%010d", 4 * i + j)));
+            }
+            Team team = new Team(null, String.format("%024x", i), null, null, members);
+            view.put(team, teamUsers);
+            hashMapView.put(team, teamUsers);
+        }
+
+        long viewBytes = RetainedSize.of(view);
+        long hashMapViewBytes = RetainedSize.of(hashMapView);
+
+        assertThat(view.size(), is(300_000));
+        assertThat(viewBytes, lessThan(hashMapViewBytes / 2));
+    }
+
+    private static List<Set<String>> membersOf(List<Team> teams) {
+        return teams.stream().map(Team::getMembers).collect(Collectors.toList());
+    }
+
+    /**
+     * Team view as it was kept before the compact indexes: a map node, a Team and a set of slack ids per member
+     */
+    private static class HashMapTeamView {
+        private final Map<String, Entry> byMemberUuid = new LinkedHashMap<>();
+        private final Map<String, Entry> byMemberSlackId = new HashMap<>();
+
+        void put(Team team, List<User> users) {
+            Set<String> slackIds = new HashSet<>();
+            users.forEach(user -> slackIds.add(user.getSlackId()));
+            Entry entry = new Entry(team, Collections.unmodifiableSet(slackIds), 0);
+            team.getMembers().forEach(member -> byMemberUuid.put(member, entry));
+            slackIds.forEach(slackId -> byMemberSlackId.put(slackId, entry));
+        }
+
+        private static class Entry {
+            private final Team team;
+            private final Set<String> slackIds;
+            private final long syncedAt;
+
+            Entry(Team team, Set<String> slackIds, long syncedAt) {
+                this.team = team;
+                this.slackIds = slackIds;
+                this.syncedAt = syncedAt;
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import org.junit.Test;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class UserIdentityCacheTest {
+    private static final long TTL_SECONDS = 60;
+    private final User user1 = new User("uuid1", "slack-id1");
+    private final User user2 = new User("uuid2", "slack-id2");
+    private final User user3 = new User("uuid3", "slack-id3");
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    public void cachedUserIsFoundBothBySlackIdAndByUuid() {
+        UserIdentityCache cache = new UserIdentityCache(10, TTL_SECONDS, ticker::get);
+        cache.putAll(Arrays.asList(user1, user2));
+
+        Map<String, User> bySlackIds = cache.getAllBySlackIds(Arrays.asList("slack-id1", "slack-id3"));
+        Map<String, User> byUuids = cache.getAllByUuids(Collections.singletonList("uuid2"));
+
+        assertThat(bySlackIds, is(Collections.singletonMap("slack-id1", user1)));
+        assertThat(byUuids, is(Collections.singletonMap("uuid2", user2)));
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void entryExpiresAfterTtl() {
+        UserIdentityCache cache = new UserIdentityCache(10, TTL_SECONDS, ticker::get);
+        cache.putAll(Collections.singletonList(user1));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(TTL_SECONDS));
+
+        Map<String, User> actual = cache.getAllByUuids(Collections.singletonList("uuid1"));
+
+        assertTrue(actual.isEmpty());
+        assertThat(cache.size(), is(0));
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertTrue(cache.getAllBySlackIds(Collections.singletonList("slack-id1")).isEmpty());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvictedFromBothIndexesWhenFull() {
+        UserIdentityCache cache = new UserIdentityCache(2, TTL_SECONDS, ticker::get);
+        cache.putAll(Arrays.asList(user1, user2));
+        cache.getAllBySlackIds(Collections.singletonList("slack-id1"));
+
+        cache.putAll(Collections.singletonList(user3));
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertTrue(cache.getAllBySlackIds(Collections.singletonList("slack-id2")).isEmpty());
+        assertTrue(cache.getAllByUuids(Collections.singletonList("uuid2")).isEmpty());
+        assertThat(cache.getAllByUuids(Arrays.asList("uuid1", "uuid3")).size(), is(2));
+    }
+
+    @Test
+    public void changedSlackIdReplacesOldMapping() {
+        UserIdentityCache cache = new UserIdentityCache(10, TTL_SECONDS, ticker::get);
+        cache.putAll(Collections.singletonList(user1));
+
+        cache.putAll(Collections.singletonList(new User("uuid1", "slack-id-new")));
+
+        assertThat(cache.size(), is(1));
+        assertTrue(cache.getAllBySlackIds(Collections.singletonList("slack-id1")).isEmpty());
+        assertThat(cache.getAllByUuids(Collections.singletonList("uuid1")).get("uuid1").getSlackId(),
+                is("slack-id-new"));
+    }
+}
@@ -0,0 +1,239 @@
+package ua.com.juja.microservices.teams.slackbot.cache;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class UserIdentityStoreTest {
+    private static final long MAX_AGE_SECONDS = 3600;
+    private static final int FIRST_RECORD = 8;
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    private final User user1 = new User("f827811f-51e8-4fc4-a56d-000000000001", "slack-id1");
+    private final User user2 = new User("f827811f-51e8-4fc4-a56d-000000000002", "slack-id2");
+    private final AtomicLong clock = new AtomicLong(1_500_000_000_000L);
+    private UserIdentityStore store;
+
+    @After
+    public void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    public void storedUsersAreFoundBySlackIdAndUuid() throws IOException {
+        store = open();
+
+        store.putAll(Arrays.asList(user1, user2));
+
+        Map<String, User> bySlackIds = store.getAllBySlackIds(Arrays.asList("slack-id1", "slack-id3"));
+        assertThat(bySlackIds.size(), is(1));
+        assertThat(bySlackIds.get("slack-id1").getUuid(), is(user1.getUuid()));
+        assertThat(store.getAllByUuids(Collections.singletonList(user2.getUuid())).get(user2.getUuid()).getSlackId(),
+                is("slack-id2"));
+        assertThat(store.getHitCount(), is(2L));
+        assertThat(store.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void reopenedStoreServesUsersWrittenBeforeRestart() throws IOException {
+        store = open();
+        store.putAll(Arrays.asList(user1, user2));
+        store.close();
+
+        store = open();
+
+        assertThat(store.size(), is(2));
+        assertThat(store.getAllBySlackIds(Arrays.asList("slack-id1", "slack-id2")).size(), is(2));
+        assertThat(store.getAppendCount(), is(0L));
+    }
+
+    @Test
+    public void knownUserIsNotAppendedAgain() throws IOException {
+        store = open();
+        store.putAll(Collections.singletonList(user1));
+        int logBytes = store.getLogBytes();
+
+        store.putAll(Collections.singletonList(new User(user1.getUuid(), user1.getSlackId())));
+
+        assertThat(store.getLogBytes(), is(logBytes));
+        assertThat(store.getAppendCount(), is(1L));
+    }
+
+    @Test
+    public void changedSlackIdReplacesOldIdentity() throws IOException {
+        store = open();
+        store.putAll(Collections.singletonList(user1));
+
+        store.putAll(Collections.singletonList(new User(user1.getUuid(), "slack-id9")));
+
+        assertThat(store.getAllBySlackIds(Collections.singletonList("slack-id1")).isEmpty(), is(true));
+        assertThat(store.getAllByUuids(Collections.singletonList(user1.getUuid())).get(user1.getUuid()).getSlackId(),
+                is("slack-id9"));
+        assertThat(store.size(), is(1));
+    }
+
+    @Test
+    public void recentUsersAreListedLastWrittenFirst() throws IOException {
+        store = open();
+        User user3 = new User("f827811f-51e8-4fc4-a56d-000000000003", "slack-id3");
+        store.putAll(Arrays.asList(user1, user2, user3));
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(MAX_AGE_SECONDS / 2));
+        store.putAll(Collections.singletonList(user1));
+
+        assertThat(store.getRecentUsers(2), contains(user1, user3));
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(MAX_AGE_SECONDS / 2));
+        assertThat(store.getRecentUsers(10), contains(user1));
+        store.close();
+        store = open();
+        assertThat(store.getRecentUsers(10), contains(user1));
+    }
+
+    @Test
+    public void tornRecordAtEndOfLogIsDroppedOnOpen() throws IOException {
+        store = open();
+        store.putAll(Collections.singletonList(user1));
+        int firstRecordEnd = store.getLogBytes();
+        store.putAll(Collections.singletonList(user2));
+        int secondRecordEnd = store.getLogBytes();
+        store.close();
+        try (RandomAccessFile file = new RandomAccessFile(logFile().toFile(), "rw")) {
+            file.seek(secondRecordEnd - 1);
+            file.write('X');
+        }
+
+        store = open();
+
+        assertThat(store.size(), is(1));
+        assertThat(store.getLogBytes(), is(firstRecordEnd));
+        store.putAll(Collections.singletonList(user2));
+        store.close();
+        store = open();
+        assertThat(store.getAllByUuids(Arrays.asList(user1.getUuid(), user2.getUuid())).size(), is(2));
+    }
+
+    @Test
+    public void recordWithDamagedLengthEndsTheLog() throws IOException {
+        store = open();
+        store.putAll(Arrays.asList(user1, user2));
+        store.close();
+        try (RandomAccessFile file = new RandomAccessFile(logFile().toFile(), "rw")) {
+            file.seek(FIRST_RECORD);
+            file.writeInt(-5);
+        }
+
+        store = open();
+
+        assertThat(store.size(), is(0));
+        assertThat(store.getLogBytes(), is(FIRST_RECORD));
+    }
+
+    @Test
+    public void expiredUserIsNotServed() throws IOException {
+        store = open();
+        store.putAll(Collections.singletonList(user1));
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(MAX_AGE_SECONDS));
+
+        assertThat(store.getAllBySlackIds(Collections.singletonList("slack-id1")).isEmpty(), is(true));
+    }
+
+    @Test
+    public void userHalfWayToExpiryIsWrittenAgain() throws IOException {
+        store = open();
+        store.putAll(Collections.singletonList(user1));
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(MAX_AGE_SECONDS / 2));
+
+        store.putAll(Collections.singletonList(user1));
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(MAX_AGE_SECONDS / 2));
+
+        assertThat(store.getAllBySlackIds(Collections.singletonList("slack-id1")).size(), is(1));
+        assertThat(store.getAppendCount(), is(2L));
+    }
+
+    @Test
+    public void logOfMostlyDeadRecordsIsCompacted() throws IOException {
+        store = open();
+        for (int i = 0; i < 5000; i++) {
+            store.putAll(Arrays.asList(user2, new User(user1.getUuid(), "slack-id-" + i)));
+        }
+
+        assertThat(store.getCompactionCount(), greaterThan(0L));
+        assertThat(store.getLogBytes(), lessThan(100_000));
+        store.close();
+        store = open();
+        assertThat(store.size(), is(2));
+        assertThat(store.getAllBySlackIds(Arrays.asList("slack-id-4999", "slack-id2")).size(), is(2));
+        assertThat(Files.exists(folder.getRoot().toPath().resolve(UserIdentityStore.COMPACTED_FILE)), is(false));
+    }
+
+    @Test
+    public void compactionOverwritesCompactedFileLeftByFailedOne() throws IOException {
+        store = open();
+        Path leftover = folder.getRoot().toPath().resolve(UserIdentityStore.COMPACTED_FILE);
+        Files.write(leftover, new byte[200_000]);
+
+        for (int i = 0; i < 5000; i++) {
+            store.putAll(Arrays.asList(user2, new User(user1.getUuid(), "slack-id-" + i)));
+        }
+
+        assertThat(store.getCompactionCount(), greaterThan(0L));
+        assertThat(store.getWriteFailureCount(), is(0L));
+        assertThat(store.getLogBytes(), lessThan(100_000));
+        assertThat(Files.exists(leftover), is(false));
+    }
+
+    @Test
+    public void failedWriteIsCountedNotThrown() throws IOException {
+        store = open();
+        store.close();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            users.add(new User(String.format("f827811f-51e8-4fc4-a56d-%012d", i), "slack-id-" + i));
+        }
+
+        store.putAll(users);
+
+        assertThat(store.getWriteFailureCount(), is(1L));
+        assertThat(store.getAppendCount(), lessThan(2000L));
+    }
+
+    @Test
+    public void fileOfUnknownFormatIsStartedEmpty() throws IOException {
+        Files.write(logFile(), "not a user identity store".getBytes());
+
+        store = open();
+        store.putAll(Collections.singletonList(user1));
+
+        assertThat(store.size(), is(1));
+    }
+
+    private UserIdentityStore open() throws IOException {
+        return new UserIdentityStore(folder.getRoot().toPath(), MAX_AGE_SECONDS, clock::get);
+    }
+
+    private Path logFile() {
+        return folder.getRoot().toPath().resolve(UserIdentityStore.LOG_FILE);
+    }
+}
@@ -0,0 +1,143 @@
+package ua.com.juja.microservices.teams.slackbot.command;
+
+import org.junit.After;
+import org.junit.Test;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ServiceUnavailableException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CommandDeduplicatorTest {
+    private static final long WINDOW_MILLIS = 10_000;
+    private static final String TEAM_TEXT = "<@slack-id1> <@slack-id2> <@slack-id3> <@slack-id4>";
+    private final AtomicLong ticker = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CommandDeduplicator deduplicator = new CommandDeduplicator(WINDOW_MILLIS, ticker::get);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void duplicateJoinsCommandInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CommandDeduplicator.Key key = CommandDeduplicator.key(CommandType.ACTIVATE_TEAM, "from-id", TEAM_TEXT);
+        Future<String> first = executor.submit(() -> deduplicator.execute(key, () -> {
+            started.countDown();
+            await(release);
+            return "team" + calls.incrementAndGet();
+        }));
+        started.await();
+
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() -> deduplicator.execute(key,
+                () -> "team" + calls.incrementAndGet()));
+        while (deduplicator.getJoinedCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS), is("team1"));
+        assertThat(duplicate.get(1, TimeUnit.SECONDS), is("team1"));
+        assertThat(deduplicator.getExecutedCount(), is(1L));
+    }
+
+    @Test
+    public void completedResultIsReusedWithinWindowOnly() {
+        CommandDeduplicator.Key key = CommandDeduplicator.key(CommandType.GET_TEAM, "from-id", "<@slack-id1>");
+        deduplicator.execute(key, () -> "team" + calls.incrementAndGet());
+
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS - 1));
+        assertThat(deduplicator.execute(key, () -> "team" + calls.incrementAndGet()), is("team1"));
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(deduplicator.execute(key, () -> "team" + calls.incrementAndGet()), is("team2"));
+        assertThat(deduplicator.getReusedCount(), is(1L));
+    }
+
+    @Test
+    public void failedCommandIsExecutedAgain() {
+        CommandDeduplicator.Key key = CommandDeduplicator.key(CommandType.ACTIVATE_TEAM, "from-id", TEAM_TEXT);
+        try {
+            deduplicator.execute(key, () -> {
+                throw new ServiceUnavailableException("Teams is unavailable");
+            });
+            fail();
+        } catch (ServiceUnavailableException ex) {
+            assertThat(deduplicator.size(), is(0));
+        }
+
+        assertThat(deduplicator.execute(key, () -> "team" + calls.incrementAndGet()), is("team1"));
+        assertThat(deduplicator.getExecutedCount(), is(2L));
+    }
+
+    @Test
+    public void teamChangeStopsReuseOfCompletedCommands() {
+        CommandDeduplicator.Key getTeam = CommandDeduplicator.key(CommandType.GET_TEAM, "from-id", "<@slack-id1>");
+        CommandDeduplicator.Key deactivate = CommandDeduplicator.key(CommandType.DEACTIVATE_TEAM, "other-id",
+                "<@slack-id1>");
+        deduplicator.execute(getTeam, () -> "team" + calls.incrementAndGet());
+
+        deduplicator.execute(deactivate, () -> "deactivated");
+
+        assertThat(deduplicator.execute(getTeam, () -> "team" + calls.incrementAndGet()), is("team2"));
+        assertThat(deduplicator.execute(deactivate, () -> "deactivated again"), is("deactivated"));
+    }
+
+    @Test
+    public void asyncDuplicateJoinsCommandInFlight() throws Exception {
+        CommandDeduplicator.Key key = CommandDeduplicator.key(CommandType.GET_MY_TEAM, "from-id", "<@from-id>");
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> first = deduplicator.executeAsync(key, () -> call);
+
+        CompletableFuture<String> duplicate = deduplicator.executeAsync(key, () -> {
+            throw new IllegalStateException("Duplicate must not be executed");
+        });
+        call.complete("team");
+
+        assertThat(first.get(), is("team"));
+        assertThat(duplicate.get(), is("team"));
+        assertThat(deduplicator.getJoinedCount(), is(1L));
+    }
+
+    @Test
+    public void keyComparesSlackIdsOfTextInAnyOrder() {
+        CommandDeduplicator.Key key = CommandDeduplicator.key(CommandType.ACTIVATE_TEAM, "from-id", TEAM_TEXT);
+
+        assertThat(CommandDeduplicator.key(CommandType.ACTIVATE_TEAM, "from-id",
+                " <@slack-id4|name4>  <@slack-id2> <@slack-id3> <@slack-id1>"), is(key));
+        assertThat(CommandDeduplicator.key(CommandType.ACTIVATE_TEAM, "other-id", TEAM_TEXT), is(not(key)));
+        assertThat(CommandDeduplicator.key(CommandType.DEACTIVATE_TEAM, "from-id", TEAM_TEXT), is(not(key)));
+    }
+
+    @Test
+    public void zeroWindowOnlyJoinsCommandsInFlight() {
+        CommandDeduplicator inFlightOnly = new CommandDeduplicator(0, ticker::get);
+        CommandDeduplicator.Key key = CommandDeduplicator.key(CommandType.GET_TEAM, "from-id", "<@slack-id1>");
+
+        inFlightOnly.execute(key, () -> "team" + calls.incrementAndGet());
+
+        assertThat(inFlightOnly.size(), is(0));
+        assertThat(inFlightOnly.execute(key, () -> "team" + calls.incrementAndGet()), is("team2"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package ua.com.juja.microservices.teams.slackbot.command.impl;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.MDC;
+import org.springframework.mock.env.MockEnvironment;
+import ua.com.juja.microservices.teams.slackbot.command.CommandRejectionPolicy;
+import ua.com.juja.microservices.teams.slackbot.command.CommandType;
+import ua.com.juja.microservices.teams.slackbot.exceptions.CommandRejectedException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ExceptionsHandler;
+import ua.com.juja.microservices.teams.slackbot.util.LogContext;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class ThreadPoolCommandExecutorTest {
+    private static final String REJECTED_MESSAGE = "Too many commands";
+    private static final String RESPONSE_URL = "http://example.com";
+    private static final int COMMAND_TIMEOUT = 1000;
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+    private final ExceptionsHandler exceptionsHandler = mock(ExceptionsHandler.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolCommandExecutor commandExecutor;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        if (commandExecutor != null) {
+            commandExecutor.destroy();
+        }
+    }
+
+    @Test
+    public void executeRunsCommandOffCallerThread() throws InterruptedException {
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler, environment(CommandRejectionPolicy.ABORT));
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        commandExecutor.execute(CommandType.GET_TEAM, RESPONSE_URL, () -> {
+            worker.set(Thread.currentThread());
+            done.countDown();
+        });
+
+        assertTrue(done.await(COMMAND_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertThat(worker.get(), not(is(Thread.currentThread())));
+        assertTrue(worker.get().getName().startsWith("command-getTeam-"));
+        verifyZeroInteractions(exceptionsHandler);
+    }
+
+    @Test
+    public void executeRunsCommandWithLogContextOfCaller() throws InterruptedException {
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler, environment(CommandRejectionPolicy.ABORT));
+        AtomicReference<String> command = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        try (LogContext.Scope ignored = LogContext.startCommand(CommandType.GET_TEAM, "slack-id1")) {
+            commandExecutor.execute(CommandType.GET_TEAM, RESPONSE_URL, () -> {
+                command.set(MDC.get(LogContext.COMMAND) + " " + MDC.get(LogContext.SLACK_USER));
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(COMMAND_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertThat(command.get(), is("getTeam slack-id1"));
+        assertNull(MDC.get(LogContext.COMMAND));
+    }
+
+    @Test
+    public void executeWhenCommandThrowsExceptionShouldPassItToExceptionsHandler() {
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler, environment(CommandRejectionPolicy.ABORT));
+        RuntimeException exception = new RuntimeException("Something went wrong");
+
+        commandExecutor.execute(CommandType.ACTIVATE_TEAM, RESPONSE_URL, () -> {
+            throw exception;
+        });
+
+        verify(exceptionsHandler, timeout(COMMAND_TIMEOUT)).handleCommandException(RESPONSE_URL, exception);
+    }
+
+    @Test
+    public void executeWhenPoolAndQueueAreFullAndPolicyIsAbortShouldThrowException() {
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler, environment(CommandRejectionPolicy.ABORT));
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+
+        expectedException.expect(CommandRejectedException.class);
+        expectedException.expectMessage(REJECTED_MESSAGE);
+
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+    }
+
+    @Test
+    public void executeWhenPoolAndQueueAreFullAndPolicyIsDiscardOldestShouldNotifyDiscardedCommand() {
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler,
+                environment(CommandRejectionPolicy.DISCARD_OLDEST));
+        String discardedResponseUrl = "http://example.com/discarded";
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+        commandExecutor.execute(CommandType.GET_MY_TEAM, discardedResponseUrl, this::awaitRelease);
+
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+
+        ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+        verify(exceptionsHandler, timeout(COMMAND_TIMEOUT)).handleCommandException(eq(discardedResponseUrl),
+                captor.capture());
+        assertTrue(captor.getValue() instanceof CommandRejectedException);
+        assertThat(captor.getValue().getMessage(), is(REJECTED_MESSAGE));
+        assertThat(commandExecutor.getPendingCommands(), is(2));
+    }
+
+    @Test
+    public void executeWhenPolicyIsDiscardOldestShouldNotifyDiscardedCommandOffSubmittingThread()
+            throws InterruptedException {
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler,
+                environment(CommandRejectionPolicy.DISCARD_OLDEST));
+        AtomicReference<Thread> notifier = new AtomicReference<>();
+        CountDownLatch notified = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            notifier.set(Thread.currentThread());
+            notified.countDown();
+            return null;
+        }).when(exceptionsHandler).handleCommandException(eq(RESPONSE_URL), any(CommandRejectedException.class));
+        commandExecutor.execute(CommandType.GET_MY_TEAM, "http://example.com/running", this::awaitRelease);
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+
+        commandExecutor.execute(CommandType.GET_MY_TEAM, "http://example.com/newer", this::awaitRelease);
+
+        assertTrue(notified.await(COMMAND_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(notifier.get().getName().startsWith("command-reply-"));
+    }
+
+    @Test
+    public void executeWhenPoolIsBusyWithoutQueueAndPolicyIsDiscardOldestShouldThrowException() {
+        MockEnvironment environment = environment(CommandRejectionPolicy.DISCARD_OLDEST);
+        environment.setProperty("teams.slackbot.executor.getMyTeam.queueCapacity", "0");
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler, environment);
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+
+        expectedException.expect(CommandRejectedException.class);
+        expectedException.expectMessage(REJECTED_MESSAGE);
+
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+    }
+
+    @Test
+    public void executeWhenPoolAndQueueAreFullAndPolicyIsCallerRunsShouldRunOnCallerThread() {
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler,
+                environment(CommandRejectionPolicy.CALLER_RUNS));
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, this::awaitRelease);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+
+        commandExecutor.execute(CommandType.GET_MY_TEAM, RESPONSE_URL, () -> worker.set(Thread.currentThread()));
+
+        assertThat(worker.get(), is(Thread.currentThread()));
+        verifyZeroInteractions(exceptionsHandler);
+    }
+
+    @Test
+    public void replyExecutorRunsRepliesOnReplyPool() throws InterruptedException {
+        commandExecutor = new ThreadPoolCommandExecutor(exceptionsHandler, environment(CommandRejectionPolicy.ABORT));
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        commandExecutor.getReplyExecutor().execute(() -> {
+            worker.set(Thread.currentThread());
+            done.countDown();
+        });
+
+        assertTrue(done.await(COMMAND_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(worker.get().getName().startsWith("command-reply-"));
+    }
+
+    @Test
+    public void callerRunsPolicyIsRefusedInAsyncMode() {
+        MockEnvironment environment = environment(CommandRejectionPolicy.CALLER_RUNS);
+        environment.setProperty("teams.slackbot.async.enabled", "true");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("CALLER_RUNS");
+
+        new ThreadPoolCommandExecutor(exceptionsHandler, environment);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(COMMAND_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private MockEnvironment environment(CommandRejectionPolicy rejectionPolicy) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("message.command.rejected", REJECTED_MESSAGE)
+                .withProperty("teams.slackbot.executor.keepAliveSeconds", "60")
+                .withProperty("teams.slackbot.executor.shutdownTimeoutSeconds", "1")
+                .withProperty("teams.slackbot.async.enabled", "false")
+                .withProperty("teams.slackbot.executor.replies.poolSize", "1")
+                .withProperty("teams.slackbot.executor.replies.queueCapacity", "10");
+        for (CommandType commandType : CommandType.values()) {
+            String prefix = "teams.slackbot.executor." + commandType.getKey() + ".";
+            environment.setProperty(prefix + "poolSize", "1");
+            environment.setProperty(prefix + "queueCapacity", "1");
+            environment.setProperty(prefix + "rejectionPolicy", rejectionPolicy.name());
+        }
+        return environment;
+    }
+}
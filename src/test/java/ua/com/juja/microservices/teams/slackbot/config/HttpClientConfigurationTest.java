@@ -0,0 +1,96 @@
+package ua.com.juja.microservices.teams.slackbot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import ua.com.juja.microservices.teams.slackbot.exceptions.DeadlineExceededException;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+
+import javax.inject.Inject;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class HttpClientConfigurationTest {
+
+    @Inject
+    private PoolingHttpClientConnectionManager httpConnectionManager;
+    @Inject
+    private MeterRegistry meterRegistry;
+    @Inject
+    private HttpClientConfiguration.DeadlineHttpRequestFactory httpRequestFactory;
+    @Value("${http.client.readTimeoutMillis}")
+    private int readTimeoutMillis;
+    @Value("${http.client.connectTimeoutMillis}")
+    private int connectTimeoutMillis;
+    @Value("${http.client.pool.maxTotal}")
+    private int maxTotal;
+    @Value("${http.client.pool.defaultMaxPerRoute}")
+    private int defaultMaxPerRoute;
+    @Value("${http.client.pool.users.maxPerRoute}")
+    private int usersMaxPerRoute;
+    @Value("${http.client.pool.slack.maxPerRoute}")
+    private int slackMaxPerRoute;
+
+    @Test
+    public void httpConnectionManagerHasConfiguredLimits() {
+        assertThat(httpConnectionManager.getMaxTotal(), is(maxTotal));
+        assertThat(httpConnectionManager.getDefaultMaxPerRoute(), is(defaultMaxPerRoute));
+        assertThat(httpConnectionManager.getMaxPerRoute(new HttpRoute(new HttpHost("users", 80, "http"))),
+                is(usersMaxPerRoute));
+        assertThat(httpConnectionManager.getMaxPerRoute(
+                new HttpRoute(new HttpHost("hooks.slack.com", 443, "https"), null, true)), is(slackMaxPerRoute));
+        assertThat(httpConnectionManager.getMaxPerRoute(new HttpRoute(new HttpHost("example.com", 80, "http"))),
+                is(defaultMaxPerRoute));
+    }
+
+    @Test
+    public void httpConnectionPoolMetricsAreRegistered() {
+        assertThat(meterRegistry.find("http.client.pool.max").tags("route", "total").gauge(), notNullValue());
+        assertThat(meterRegistry.find("http.client.pool.leased").tags("route", "users").gauge(), notNullValue());
+        assertThat(meterRegistry.find("http.client.pool.pending").tags("route", "teams").gauge(), notNullValue());
+        assertThat(meterRegistry.find("http.client.pool.available").tags("route", "slack").gauge().value(), is(0.0));
+    }
+
+    @Test
+    public void requestWithoutDeadlineUsesConfiguredTimeouts() {
+        HttpGet request = new HttpGet("http://users/v1/users");
+
+        httpRequestFactory.postProcessHttpRequest(request);
+
+        assertThat(request.getConfig(), nullValue());
+    }
+
+    @Test
+    public void requestTimeoutsAreCutToDeadline() {
+        HttpGet request = new HttpGet("http://users/v1/users");
+        Deadline deadline = Deadline.after(500);
+
+        try (Deadline.Scope ignored = deadline.attach()) {
+            httpRequestFactory.postProcessHttpRequest(request);
+        }
+
+        assertTrue(request.getConfig().getSocketTimeout() <= 500);
+        assertTrue(request.getConfig().getSocketTimeout() < readTimeoutMillis);
+        assertTrue(request.getConfig().getConnectTimeout() <= Math.min(500, connectTimeoutMillis));
+    }
+
+    @Test(expected = DeadlineExceededException.class)
+    public void requestIsNotSentAfterDeadline() {
+        try (Deadline.Scope ignored = Deadline.after(0).attach()) {
+            httpRequestFactory.postProcessHttpRequest(new HttpGet("http://users/v1/users"));
+        }
+    }
+}
@@ -1,25 +1,39 @@
 package ua.com.juja.microservices.teams.slackbot.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import me.ramswaroop.jbot.core.slack.models.RichMessage;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import ua.com.juja.microservices.teams.slackbot.command.CommandDeduplicator;
+import ua.com.juja.microservices.teams.slackbot.command.impl.ThreadPoolCommandExecutor;
+import ua.com.juja.microservices.teams.slackbot.config.RetryConfiguration;
 import ua.com.juja.microservices.teams.slackbot.exceptions.ExceptionsHandler;
+import ua.com.juja.microservices.teams.slackbot.metrics.CommandMetrics;
+import ua.com.juja.microservices.teams.slackbot.metrics.CommandPhase;
 import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.service.AsyncTeamService;
 import ua.com.juja.microservices.teams.slackbot.service.TeamService;
 import ua.com.juja.microservices.teams.slackbot.util.SlackIdHandler;
 import ua.com.juja.microservices.utils.SlackUrlUtils;
 
 import javax.inject.Inject;
+import java.net.ConnectException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -27,9 +41,11 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -42,9 +58,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 @RunWith(SpringRunner.class)
 @WebMvcTest(TeamSlackbotController.class)
+@Import({ThreadPoolCommandExecutor.class, CommandDeduplicator.class, CommandMetrics.class,
+        SimpleMeterRegistry.class, RetryConfiguration.class})
 @TestPropertySource(value = {"classpath:application.properties", "classpath:messages/message.properties"})
 public class TeamSlackbotControllerTest {
 
+    private static final int COMMAND_TIMEOUT = 1000;
+
     @Value("${message.sorry}")
     private String SORRY_MESSAGE;
     @Value("${message.activate.team.instant}")
@@ -75,12 +95,25 @@ public class TeamSlackbotControllerTest {
 
     @Inject
     private MockMvc mvc;
+    @Inject
+    private MeterRegistry meterRegistry;
+    @Inject
+    private CommandDeduplicator commandDeduplicator;
     @MockBean
     private TeamService teamService;
     @MockBean
+    private AsyncTeamService asyncTeamService;
+    @MockBean
     private ExceptionsHandler exceptionsHandler;
     @MockBean
     private RestTemplate restTemplate;
+    @MockBean
+    private AsyncRestTemplate asyncRestTemplate;
+
+    @Before
+    public void setup() {
+        commandDeduplicator.clear();
+    }
 
     @Test
     public void onReceiveAllSlashCommandsWhenIncorrectTokenShouldReturnSorryMessage() throws Exception {
@@ -152,13 +185,72 @@ public class TeamSlackbotControllerTest {
                 .andExpect(content().string(ACTIVATE_TEAM_INSTANT_MESSAGE));
 
         verify(exceptionsHandler).setResponseUrl(responseUrl);
-        verify(teamService).activateTeam(from, commandText);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, commandText);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains(String.format(ACTIVATE_TEAM_DELAYED_MESSAGE, commandText)));
         verifyNoMoreInteractions(teamService, exceptionsHandler, restTemplate);
     }
 
+    @Test
+    public void onReceiveDuplicateSlashCommandActivateTeamShouldActivateOnceAndAnswerBoth() throws Exception {
+        String from = "from-id";
+        final String commandText = String.format("%s %s %s %s",
+                SlackIdHandler.wrapSlackId("slack-id1"),
+                SlackIdHandler.wrapSlackId("slack-id2"),
+                SlackIdHandler.wrapSlackId("slack-id3"),
+                SlackIdHandler.wrapSlackId("slack-id4"));
+        final String duplicateText = String.format("%s %s %s %s",
+                SlackIdHandler.wrapSlackId("slack-id4"),
+                SlackIdHandler.wrapSlackId("slack-id3"),
+                SlackIdHandler.wrapSlackId("slack-id2"),
+                SlackIdHandler.wrapSlackId("slack-id1"));
+        Team activatedTeam = new Team(new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4")));
+        String responseUrl = "http://example.com";
+        String duplicateResponseUrl = "http://example.com/duplicate";
+        when(teamService.activateTeam(from, commandText)).thenReturn(activatedTeam);
+        when(restTemplate.postForObject(any(String.class), any(RichMessage.class), eq(String.class))).thenReturn("");
+
+        mvc.perform(MockMvcRequestBuilders.post(SlackUrlUtils.getUrlTemplate(teamsSlackbotActivateTeamUrl),
+                SlackUrlUtils.getUriVars("slashCommandToken", "/command", commandText, responseUrl))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk());
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), any(RichMessage.class),
+                eq(String.class));
+        mvc.perform(MockMvcRequestBuilders.post(SlackUrlUtils.getUrlTemplate(teamsSlackbotActivateTeamUrl),
+                SlackUrlUtils.getUriVars("slashCommandToken", "/command", duplicateText, duplicateResponseUrl))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(content().string(ACTIVATE_TEAM_INSTANT_MESSAGE));
+
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(duplicateResponseUrl),
+                any(RichMessage.class), eq(String.class));
+        verify(teamService).activateTeam(from, commandText);
+        verifyNoMoreInteractions(teamService);
+    }
+
+    @Test
+    public void onReceiveSlashCommandWhenSlackIsUnreachableShouldRetryDelayedMessage() throws Exception {
+        final String commandText = SlackIdHandler.wrapSlackId("slack-id1");
+        String responseUrl = "http://example.com";
+        when(teamService.getTeam(commandText)).thenReturn(Collections.singleton("slack-id1"));
+        when(restTemplate.postForObject(eq(responseUrl), any(RichMessage.class), eq(String.class)))
+                .thenThrow(new ResourceAccessException("connection refused", new ConnectException()))
+                .thenReturn("");
+
+        mvc.perform(MockMvcRequestBuilders.post(SlackUrlUtils.getUrlTemplate(teamsSlackbotGetTeamUrl),
+                SlackUrlUtils.getUriVars("slashCommandToken", "/teams", commandText, responseUrl))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk());
+
+        verify(exceptionsHandler).setResponseUrl(responseUrl);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).getTeam(commandText);
+        verify(restTemplate, timeout(COMMAND_TIMEOUT).times(2)).postForObject(eq(responseUrl),
+                any(RichMessage.class), eq(String.class));
+        verifyNoMoreInteractions(teamService, exceptionsHandler, restTemplate);
+    }
+
     @Test
     public void onReceiveSlashCommandGetTeamWhenAllCorrectShouldReturnOkMessage() throws Exception {
         final String commandText = SlackIdHandler.wrapSlackId("slack-id2");
@@ -177,9 +269,10 @@ public class TeamSlackbotControllerTest {
                         SlackIdHandler.wrapSlackId("slack-id2"))));
 
         verify(exceptionsHandler).setResponseUrl(responseUrl);
-        verify(teamService).getTeam(commandText);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).getTeam(commandText);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains(String.format(GET_TEAM_DELAYED_MESSAGE, commandText,
                 slackIds.stream().sorted()
                         .map(SlackIdHandler::wrapSlackId)
@@ -208,9 +301,10 @@ public class TeamSlackbotControllerTest {
                 .andExpect(content().string(String.format(GET_MY_TEAM_INSTANT_MESSAGE, wrappedFrom)));
 
         verify(exceptionsHandler).setResponseUrl(responseUrl);
-        verify(teamService).getTeam(wrappedFrom);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).getTeam(wrappedFrom);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains(String.format(GET_MY_TEAM_DELAYED_MESSAGE,
                 wrappedFrom, wrappedSlackIdsAsText)));
         verifyNoMoreInteractions(teamService, exceptionsHandler, restTemplate);
@@ -234,13 +328,50 @@ public class TeamSlackbotControllerTest {
                         ("slack-id1"))));
 
         verify(exceptionsHandler).setResponseUrl(responseUrl);
-        verify(teamService).deactivateTeam(from, commandText);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).deactivateTeam(from, commandText);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains(String.format(DEACTIVATE_TEAM_DELAYED_MESSAGE,
                 slackIds.stream().sorted()
                         .map(SlackIdHandler::wrapSlackId)
                         .collect(Collectors.joining(" ")))));
         verifyNoMoreInteractions(teamService, exceptionsHandler, restTemplate);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void onReceiveSlashCommandGetTeamShouldTimeCommandPhases() throws Exception {
+        final String commandText = SlackIdHandler.wrapSlackId("slack-id1");
+        String responseUrl = "http://example.com";
+        long validated = phaseCount(CommandPhase.VALIDATION, CommandMetrics.SUCCESS);
+        long invalid = phaseCount(CommandPhase.VALIDATION, CommandMetrics.INVALID);
+        long replied = phaseCount(CommandPhase.INSTANT_REPLY, CommandMetrics.SUCCESS);
+        long queued = phaseCount(CommandPhase.QUEUE, CommandMetrics.SUCCESS);
+        long served = phaseCount(CommandPhase.SERVICE, CommandMetrics.SUCCESS);
+        when(teamService.getTeam(commandText)).thenReturn(Collections.singleton("slack-id1"));
+
+        mvc.perform(MockMvcRequestBuilders.post(SlackUrlUtils.getUrlTemplate(teamsSlackbotGetTeamUrl),
+                SlackUrlUtils.getUriVars("slashCommandToken", "/command", commandText, responseUrl))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.post(SlackUrlUtils.getUrlTemplate(teamsSlackbotGetTeamUrl),
+                SlackUrlUtils.getUriVars("wrongSlackToken", "/command", commandText, responseUrl))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk());
+
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), any(RichMessage.class),
+                eq(String.class));
+        assertEquals(validated + 1, phaseCount(CommandPhase.VALIDATION, CommandMetrics.SUCCESS));
+        assertEquals(invalid + 1, phaseCount(CommandPhase.VALIDATION, CommandMetrics.INVALID));
+        assertEquals(replied + 2, phaseCount(CommandPhase.INSTANT_REPLY, CommandMetrics.SUCCESS));
+        assertEquals(queued + 1, phaseCount(CommandPhase.QUEUE, CommandMetrics.SUCCESS));
+        assertEquals(served + 1, phaseCount(CommandPhase.SERVICE, CommandMetrics.SUCCESS));
+    }
+
+    private long phaseCount(CommandPhase phase, String outcome) {
+        Timer timer = meterRegistry.find("command.phase")
+                .tags("command", "getTeam", "phase", phase.getKey(), "outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
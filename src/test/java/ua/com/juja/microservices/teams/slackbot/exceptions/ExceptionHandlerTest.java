@@ -1,5 +1,6 @@
 package ua.com.juja.microservices.teams.slackbot.exceptions;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import me.ramswaroop.jbot.core.slack.models.RichMessage;
 import org.junit.Before;
 import org.junit.Test;
@@ -9,13 +10,20 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
+import ua.com.juja.microservices.teams.slackbot.command.CommandDeduplicator;
+import ua.com.juja.microservices.teams.slackbot.command.impl.ThreadPoolCommandExecutor;
+import ua.com.juja.microservices.teams.slackbot.config.RetryConfiguration;
 import ua.com.juja.microservices.teams.slackbot.controller.TeamSlackbotController;
+import ua.com.juja.microservices.teams.slackbot.metrics.CommandMetrics;
+import ua.com.juja.microservices.teams.slackbot.service.AsyncTeamService;
 import ua.com.juja.microservices.teams.slackbot.service.TeamService;
 import ua.com.juja.microservices.teams.slackbot.service.UserService;
 import ua.com.juja.microservices.teams.slackbot.util.SlackIdHandler;
@@ -28,6 +36,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -39,9 +48,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 @RunWith(SpringRunner.class)
 @WebMvcTest(TeamSlackbotController.class)
+@Import({ThreadPoolCommandExecutor.class, CommandDeduplicator.class, CommandMetrics.class,
+        SimpleMeterRegistry.class, RetryConfiguration.class})
 public class ExceptionHandlerTest {
 
     private final static String ACTIVATE_TEAM_MESSAGE = "Thanks, Activate Team job started!";
+    private final static int COMMAND_TIMEOUT = 1000;
 
     @Value("${teams.slackbot.endpoint.activateTeam}")
     private String teamsSlackbotActivateTeamUrl;
@@ -50,13 +62,20 @@ public class ExceptionHandlerTest {
     @MockBean
     private TeamService teamService;
     @MockBean
+    private AsyncTeamService asyncTeamService;
+    @MockBean
     private RestTemplate restTemplate;
     @MockBean
+    private AsyncRestTemplate asyncRestTemplate;
+    @MockBean
     private UserService userService;
+    @Inject
+    private CommandDeduplicator commandDeduplicator;
 
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        commandDeduplicator.clear();
     }
 
     @Test
@@ -96,10 +115,11 @@ public class ExceptionHandlerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
 
-        verify(teamService).activateTeam(from, activateTeamCommandText);
-        verify(userService).replaceUuidsBySlackIdsInExceptionMessage(messageWithUuids);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
+        verify(userService, timeout(COMMAND_TIMEOUT)).replaceUuidsBySlackIdsInExceptionMessage(messageWithUuids);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains(messageWithSlackIds));
         verifyNoMoreInteractions(teamService, restTemplate, userService);
     }
@@ -132,9 +152,10 @@ public class ExceptionHandlerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
 
-        verify(teamService).activateTeam(from, activateTeamCommandText);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains(apiError.getExceptionMessage()));
         verifyNoMoreInteractions(teamService, restTemplate);
     }
@@ -160,9 +181,10 @@ public class ExceptionHandlerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
 
-        verify(teamService).activateTeam(from, activateTeamCommandText);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains("wrong command"));
         verifyNoMoreInteractions(teamService, restTemplate);
     }
@@ -188,13 +210,74 @@ public class ExceptionHandlerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
 
-        verify(teamService).activateTeam(from, activateTeamCommandText);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains("Some service unavailable"));
         verifyNoMoreInteractions(teamService, restTemplate);
     }
 
+    @Test
+    public void handleServiceUnavailableException() throws Exception {
+        final String from = "from-id";
+        final String activateTeamCommandText = String.format("%s %s %s %s",
+                SlackIdHandler.wrapSlackId("a"),
+                SlackIdHandler.wrapSlackId("b"),
+                SlackIdHandler.wrapSlackId("c"),
+                SlackIdHandler.wrapSlackId("d")
+        );
+        final String responseUrl = "example.com";
+        final String message = "Sorry! Teams service is not available right now, please try again in a minute.";
+        when(teamService.activateTeam(from, activateTeamCommandText)).thenThrow(
+                new ServiceUnavailableException(message));
+        when(restTemplate.postForObject(eq(responseUrl), any(RichMessage.class), eq(String.class))).thenReturn("");
+
+        mvc.perform(MockMvcRequestBuilders.post(SlackUrlUtils.getUrlTemplate(teamsSlackbotActivateTeamUrl),
+                SlackUrlUtils.getUriVars("slashCommandToken", "/teams-activate", activateTeamCommandText,
+                        responseUrl))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
+
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
+        ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
+        assertTrue(captor.getValue().getText().contains(message));
+        verifyNoMoreInteractions(teamService, restTemplate);
+    }
+
+    @Test
+    public void handleDeadlineExceededException() throws Exception {
+        final String from = "from-id";
+        final String activateTeamCommandText = String.format("%s %s %s %s",
+                SlackIdHandler.wrapSlackId("a"),
+                SlackIdHandler.wrapSlackId("b"),
+                SlackIdHandler.wrapSlackId("c"),
+                SlackIdHandler.wrapSlackId("d")
+        );
+        final String responseUrl = "example.com";
+        final String message = "Sorry! It takes too long right now, please try again in a minute.";
+        when(teamService.activateTeam(from, activateTeamCommandText)).thenThrow(
+                new DeadlineExceededException("Deadline of '8000' ms exceeded"));
+        when(restTemplate.postForObject(eq(responseUrl), any(RichMessage.class), eq(String.class))).thenReturn("");
+
+        mvc.perform(MockMvcRequestBuilders.post(SlackUrlUtils.getUrlTemplate(teamsSlackbotActivateTeamUrl),
+                SlackUrlUtils.getUriVars("slashCommandToken", "/teams-activate", activateTeamCommandText,
+                        responseUrl))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
+
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
+        ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
+        assertTrue(captor.getValue().getText().contains(message));
+        verifyNoMoreInteractions(teamService, restTemplate);
+    }
+
     @Test
     public void handleAllOtherExceptions() throws Exception {
         final String from = "from-id";
@@ -216,9 +299,10 @@ public class ExceptionHandlerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
 
-        verify(teamService).activateTeam(from, activateTeamCommandText);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains("other command"));
         verifyNoMoreInteractions(teamService, restTemplate);
     }
@@ -256,10 +340,11 @@ public class ExceptionHandlerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
 
-        verify(teamService).activateTeam(from, activateTeamCommandText);
-        verify(userService).replaceUuidsBySlackIdsInExceptionMessage(anyString());
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
+        verify(userService, timeout(COMMAND_TIMEOUT)).replaceUuidsBySlackIdsInExceptionMessage(anyString());
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains(apiError.getClientMessage()));
         verifyNoMoreInteractions(teamService, restTemplate, userService);
     }
@@ -301,10 +386,11 @@ public class ExceptionHandlerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(ACTIVATE_TEAM_MESSAGE));
 
-        verify(teamService).activateTeam(from, activateTeamCommandText);
-        verify(userService).replaceUuidsBySlackIdsInExceptionMessage(messageWithUuids);
+        verify(teamService, timeout(COMMAND_TIMEOUT)).activateTeam(from, activateTeamCommandText);
+        verify(userService, timeout(COMMAND_TIMEOUT)).replaceUuidsBySlackIdsInExceptionMessage(messageWithUuids);
         ArgumentCaptor<RichMessage> captor = ArgumentCaptor.forClass(RichMessage.class);
-        verify(restTemplate).postForObject(eq(responseUrl), captor.capture(), eq(String.class));
+        verify(restTemplate, timeout(COMMAND_TIMEOUT)).postForObject(eq(responseUrl), captor.capture(),
+                eq(String.class));
         assertTrue(captor.getValue().getText().contains(messageWithSlackIds));
         verifyNoMoreInteractions(teamService, restTemplate, userService);
     }
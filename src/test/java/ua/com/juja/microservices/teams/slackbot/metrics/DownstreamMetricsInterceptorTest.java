@@ -0,0 +1,89 @@
+package ua.com.juja.microservices.teams.slackbot.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {DownstreamMetricsInterceptor.class, SimpleMeterRegistry.class})
+@TestPropertySource("classpath:application.properties")
+public class DownstreamMetricsInterceptorTest {
+
+    @Value("${users.endpoint.usersBySlackIds}")
+    private String usersBySlackIdsUrl;
+    @Value("${users.endpoint.usersByUuids}")
+    private String usersByUuidsUrl;
+    @Value("${teams.endpoint.activateTeam}")
+    private String teamsActivateTeamUrl;
+    @Value("${teams.endpoint.getTeam}")
+    private String teamsGetTeamUrl;
+    @Value("${slack.responseUrl.baseURL}")
+    private String slackBaseUrl;
+
+    @Inject
+    private DownstreamMetricsInterceptor interceptor;
+    @Inject
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void endpointOfShouldNameEndpointsWithoutIds() {
+        assertEquals("usersBySlackIds", interceptor.endpointOf(URI.create(usersBySlackIdsUrl)));
+        assertEquals("usersByUuids", interceptor.endpointOf(URI.create(usersByUuidsUrl)));
+        assertEquals("teams", interceptor.endpointOf(URI.create(teamsActivateTeamUrl)));
+        assertEquals("teams/users/{uuid}", interceptor.endpointOf(URI.create(teamsGetTeamUrl + "/uuid1")));
+        assertEquals("response_url", interceptor.endpointOf(URI.create(slackBaseUrl + "/commands/T1/123/abc")));
+        assertEquals("other", interceptor.endpointOf(URI.create("http://example.com/uuid1")));
+    }
+
+    @Test
+    public void interceptShouldTimeResponsesAndFailures() throws Exception {
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create(teamsGetTeamUrl + "/uuid1"));
+        when(execution.execute(any(), any()))
+                .thenReturn(new MockClientHttpResponse(new byte[0], HttpStatus.BAD_REQUEST))
+                .thenThrow(new IOException("Connection refused"));
+
+        interceptor.intercept(request, new byte[0], execution);
+        try {
+            interceptor.intercept(request, new byte[0], execution);
+            fail();
+        } catch (IOException ex) {
+            assertEquals("Connection refused", ex.getMessage());
+        }
+
+        Timer clientError = meterRegistry.find("downstream.requests")
+                .tags("endpoint", "teams/users/{uuid}", "method", "GET", "status", "400",
+                        "outcome", "CLIENT_ERROR", "exception", "None")
+                .timer();
+        Timer ioError = meterRegistry.find("downstream.requests")
+                .tags("endpoint", "teams/users/{uuid}", "status", "IO_ERROR", "exception", "IOException")
+                .timer();
+        assertNotNull(clientError);
+        assertNotNull(ioError);
+        assertEquals(1, clientError.count());
+        assertEquals(1, ioError.count());
+    }
+}
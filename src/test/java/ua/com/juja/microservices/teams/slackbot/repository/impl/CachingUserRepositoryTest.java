@@ -0,0 +1,74 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import org.junit.Test;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentities;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityCache;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class CachingUserRepositoryTest {
+    private final User user1 = new User("uuid1", "slack-id1");
+    private final User user2 = new User("uuid2", "slack-id2");
+    private final User user3 = new User("uuid3", "slack-id3");
+    private final UserRepository delegate = mock(UserRepository.class);
+    private final UserRepository userRepository = new CachingUserRepository(delegate,
+            new UserIdentityCache(100, 60));
+
+    @Test
+    public void findUsersBySlackIdsFetchesOnlyMissingSlackIds() {
+        when(delegate.findUsersBySlackIds(Collections.singletonList("slack-id1")))
+                .thenReturn(Collections.singletonList(user1));
+        when(delegate.findUsersBySlackIds(Arrays.asList("slack-id2", "slack-id3")))
+                .thenReturn(Arrays.asList(user2, user3));
+        userRepository.findUsersBySlackIds(Collections.singletonList("slack-id1"));
+
+        List<User> actual = userRepository.findUsersBySlackIds(Arrays.asList("slack-id2", "slack-id1", "slack-id3"));
+
+        assertThat(actual, is(Arrays.asList(user2, user1, user3)));
+        verify(delegate).findUsersBySlackIds(Collections.singletonList("slack-id1"));
+        verify(delegate).findUsersBySlackIds(Arrays.asList("slack-id2", "slack-id3"));
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    public void findUsersByUuidsIsServedFromUsersFoundBySlackIds() {
+        when(delegate.findUsersBySlackIds(Arrays.asList("slack-id1", "slack-id2")))
+                .thenReturn(Arrays.asList(user1, user2));
+        userRepository.findUsersBySlackIds(Arrays.asList("slack-id1", "slack-id2"));
+
+        List<User> actual = userRepository.findUsersByUuids(Arrays.asList("uuid1", "uuid2"));
+
+        assertThat(actual, is(Arrays.asList(user1, user2)));
+        verify(delegate).findUsersBySlackIds(Arrays.asList("slack-id1", "slack-id2"));
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    public void findUsersByUuidsReturnsFetchedUsersWhenTheyCannotBeRemembered() {
+        UserIdentities identities = mock(UserIdentities.class);
+        when(identities.getAllByUuids(Arrays.asList("uuid1", "uuid2"))).thenReturn(new HashMap<>());
+        doThrow(new UncheckedIOException(new IOException("No space left on device"))).when(identities).putAll(any());
+        when(delegate.findUsersByUuids(Arrays.asList("uuid1", "uuid2"))).thenReturn(Arrays.asList(user1, user2));
+
+        List<User> actual = new CachingUserRepository(delegate, identities)
+                .findUsersByUuids(Arrays.asList("uuid1", "uuid2"));
+
+        assertThat(actual, is(Arrays.asList(user1, user2)));
+    }
+}
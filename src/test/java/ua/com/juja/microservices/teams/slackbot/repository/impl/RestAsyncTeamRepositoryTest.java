@@ -0,0 +1,151 @@
+package ua.com.juja.microservices.teams.slackbot.repository.impl;
+
+import net.javacrumbs.jsonunit.core.util.ResourceUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.AsyncRestTemplate;
+import ua.com.juja.microservices.teams.slackbot.exceptions.TeamExchangeException;
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.utils.TestUtils;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class RestAsyncTeamRepositoryTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+    @Inject
+    @Qualifier("restAsyncTeamRepository")
+    private AsyncTeamRepository teamRepository;
+    @Inject
+    private AsyncRestTemplate asyncRestTemplate;
+    private MockRestServiceServer mockServer;
+    @Value("${teams.endpoint.activateTeam}")
+    private String teamsActivateTeamUrl;
+    @Value("${teams.endpoint.deactivateTeam}")
+    private String teamsDeactivateTeamUrl;
+    @Value("${teams.endpoint.getTeam}")
+    private String teamsGetTeamUrl;
+
+    @Before
+    public void setup() {
+        mockServer = MockRestServiceServer.bindTo(asyncRestTemplate).build();
+    }
+
+    @Test
+    public void activateTeamSendRequestToRemoteTeamsServerAndReturnActivatedTeamExecutedCorrectly()
+            throws Exception {
+        Set<String> members = new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4"));
+        ActivateTeamRequest activateTeamRequest = new ActivateTeamRequest("uuid-from", members);
+        String expectedJsonRequestBody = TestUtils.convertToString(ResourceUtils.resource
+                ("request/requestTeamRepositoryActivateTeamIfUsersNotInActiveTeamAndFromUserNotInText.json"));
+        String expectedJsonResponseBody = TestUtils.convertToString(ResourceUtils.resource
+                ("response/responseTeamRepositoryActivateTeamIfUsersNotInActiveTeam.json"));
+        mockServer.expect(requestTo(teamsActivateTeamUrl))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(request -> assertThat(request.getHeaders().getContentType().toString(),
+                        containsString("application/json")))
+                .andExpect(request -> assertThat(request.getBody().toString(), equalTo(expectedJsonRequestBody)))
+                .andRespond(withSuccess(expectedJsonResponseBody, MediaType.APPLICATION_JSON));
+
+        Team actual = teamRepository.activateTeam(activateTeamRequest).get();
+
+        assertNotNull(actual);
+        assertThat(actual.getMembers(), is(members));
+    }
+
+    @Test
+    public void activateTeamSendRequestToRemoteTeamsServerWhichReturnsErrorCompletesExceptionally()
+            throws Exception {
+        Set<String> members = new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4"));
+        ActivateTeamRequest activateTeamRequest = new ActivateTeamRequest("uuid-from", members);
+        String expectedJsonResponseBody = TestUtils.convertToString(ResourceUtils.resource
+                ("response/responseTeamRepositoryActivateTeamIfUsersInActiveTeamThrowsException.json"));
+        mockServer.expect(requestTo(teamsActivateTeamUrl))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withBadRequest().body(expectedJsonResponseBody));
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectCause(instanceOf(TeamExchangeException.class));
+        expectedException.expectMessage(containsString("Sorry, but the user already exists in team"));
+
+        teamRepository.activateTeam(activateTeamRequest).get();
+    }
+
+    @Test
+    public void getTeamSendRequestToRemoteTeamsServerAndReturnTeamExecutedCorrectly() throws Exception {
+        String uuid = "uuid";
+        Set<String> expected = new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4"));
+        String expectedJsonResponseBody = TestUtils.convertToString(ResourceUtils.resource
+                ("response/responseTeamRepositoryGetAndDeactivateTeamIfUsersInActiveTeam.json"));
+        mockServer.expect(requestTo(teamsGetTeamUrl + "/" + uuid))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(expectedJsonResponseBody, MediaType.APPLICATION_JSON));
+
+        Team actual = teamRepository.getTeam(uuid).get();
+
+        assertNotNull(actual);
+        assertThat(actual.getMembers(), is(expected));
+    }
+
+    @Test
+    public void getTeamSendRequestToRemoteTeamsServerWhichReturnsErrorCompletesExceptionally() throws Exception {
+        String uuid = "uuid";
+        String expectedJsonResponseBody = TestUtils.convertToString(ResourceUtils.resource
+                ("response/responseTeamRepositoryGetAndDeactivateTeamIfUsersNotInActiveTeamThrowsException.json"));
+        mockServer.expect(requestTo(teamsGetTeamUrl + "/" + uuid))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withBadRequest().body(expectedJsonResponseBody));
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectCause(instanceOf(TeamExchangeException.class));
+        expectedException.expectMessage(
+                containsString("You cannot get/deactivate team if the user not a member of any team!"));
+
+        teamRepository.getTeam(uuid).get();
+    }
+
+    @Test
+    public void deactivateTeamSendRequestToRemoteTeamsServerAndReturnDeactivatedTeamExecutedCorrectly()
+            throws Exception {
+        DeactivateTeamRequest deactivateTeamRequest = new DeactivateTeamRequest("uuid-from", "uuid1");
+        Set<String> expected = new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4"));
+        String expectedJsonResponseBody = TestUtils.convertToString(ResourceUtils.resource
+                ("response/responseTeamRepositoryGetAndDeactivateTeamIfUsersInActiveTeam.json"));
+        mockServer.expect(requestTo(teamsDeactivateTeamUrl))
+                .andExpect(method(HttpMethod.PUT))
+                .andRespond(withSuccess(expectedJsonResponseBody, MediaType.APPLICATION_JSON));
+
+        Team actual = teamRepository.deactivateTeam(deactivateTeamRequest).get();
+
+        assertNotNull(actual);
+        assertThat(actual.getMembers(), is(expected));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpMethod;
@@ -45,6 +46,7 @@ public class RestTeamRepositoryTest {
     @Rule
     public final ExpectedException expectedException = ExpectedException.none();
     @Inject
+    @Qualifier("restTeamRepository")
     private TeamRepository teamRepository;
     @Inject
     private RestTemplate restTemplate;
@@ -8,12 +8,15 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import ua.com.juja.microservices.teams.slackbot.exceptions.UserExchangeException;
 import ua.com.juja.microservices.teams.slackbot.model.users.User;
@@ -23,13 +26,17 @@ import ua.com.juja.microservices.utils.TestUtils;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static net.javacrumbs.jsonunit.core.util.ResourceUtils.resource;
 import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
@@ -50,6 +57,7 @@ public class RestUserRepositoryTest {
     @Rule
     final public ExpectedException expectedException = ExpectedException.none();
     @Inject
+    @Qualifier("restUserRepository")
     private UserRepository userRepository;
     @Inject
     private RestTemplate restTemplate;
@@ -94,6 +102,21 @@ public class RestUserRepositoryTest {
         assertThat(actual, is(expected));
     }
 
+    @Test
+    public void findUsersBySlackIdsIfUserServerReturnsMalformedBodyThrowsRestClientException() {
+        List<String> slackIds = Collections.singletonList(user1.getSlackId());
+        mockServer.expect(requestTo(usersFindUsersBySlackIdsUrl))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("[{\"uuid\":\"uuid1\",", MediaType.APPLICATION_JSON_UTF8));
+
+        try {
+            userRepository.findUsersBySlackIds(slackIds);
+            fail();
+        } catch (RestClientException ex) {
+            assertThat(ex, not(instanceOf(ResourceAccessException.class)));
+        }
+    }
+
     @Test
     public void findUsersBySlackIdsIfUserServerReturnsException() throws IOException {
         List<String> slackIds = Arrays.asList(user1.getSlackId(), user2.getSlackId(),
@@ -0,0 +1,209 @@
+package ua.com.juja.microservices.teams.slackbot.service;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamCache;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
+import ua.com.juja.microservices.teams.slackbot.exceptions.TeamExchangeException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.WrongCommandFormatException;
+import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.DeactivateTeamRequest;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncTeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.AsyncUserRepository;
+import ua.com.juja.microservices.teams.slackbot.util.SlackIdHandler;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "teams.slackbot.cache.users.enabled=false")
+public class AsyncTeamServiceTest {
+    private static User user1;
+    private static User user2;
+    private static User user3;
+    private static User user4;
+    private static User userFrom;
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+    @MockBean
+    @Qualifier("restAsyncTeamRepository")
+    private AsyncTeamRepository teamRepository;
+    @MockBean
+    @Qualifier("restAsyncUserRepository")
+    private AsyncUserRepository userRepository;
+    @Inject
+    private AsyncTeamService teamService;
+    @Inject
+    private TeamCache teamCache;
+    @Inject
+    private TeamView teamView;
+
+    @BeforeClass
+    public static void oneTimeSetUp() {
+        user1 = new User("uuid1", "slack-id1");
+        user2 = new User("uuid2", "slack-id2");
+        user3 = new User("uuid3", "slack-id3");
+        user4 = new User("uuid4", "slack-id4");
+        userFrom = new User("uuid-from", "from-id");
+    }
+
+    @Before
+    public void setup() {
+        teamCache.invalidateAll();
+        teamView.invalidateAll();
+    }
+
+    @Test
+    public void activateTeamIfMembersSizeEqualsFourAndFromUserNotInTeamExecutedCorrectly() throws Exception {
+        String text = String.format("%s %s %s %s",
+                SlackIdHandler.wrapSlackId(user1.getSlackId()),
+                SlackIdHandler.wrapSlackId(user2.getSlackId()),
+                SlackIdHandler.wrapSlackId(user3.getSlackId()),
+                SlackIdHandler.wrapSlackId(user4.getSlackId()));
+        Set<String> uuids = new LinkedHashSet<>(Arrays.asList(
+                user1.getUuid(), user2.getUuid(), user3.getUuid(), user4.getUuid()));
+        List<User> users = Arrays.asList(user1, user2, user3, user4, userFrom);
+        Team expected = new Team(uuids);
+        when(userRepository.findUsersBySlackIds(anyListOf(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(users));
+        when(teamRepository.activateTeam(any(ActivateTeamRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(expected));
+
+        Team actual = teamService.activateTeam(userFrom.getSlackId(), text).get();
+
+        assertEquals(expected, actual);
+        ArgumentCaptor<ActivateTeamRequest> captor = ArgumentCaptor.forClass(ActivateTeamRequest.class);
+        verify(teamRepository).activateTeam(captor.capture());
+        assertThat(captor.getValue().getMembers(), is(uuids));
+        assertThat(captor.getValue().getFrom(), is(userFrom.getUuid()));
+        verify(userRepository).findUsersBySlackIds(anyListOf(String.class));
+        verifyNoMoreInteractions(userRepository, teamRepository);
+    }
+
+    @Test
+    public void activateTeamIfMembersSizeNotEqualsFourCompletesExceptionally() throws Exception {
+        String text = String.format("%s %s %s",
+                SlackIdHandler.wrapSlackId(user1.getSlackId()),
+                SlackIdHandler.wrapSlackId(user2.getSlackId()),
+                SlackIdHandler.wrapSlackId(user3.getSlackId()));
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectCause(instanceOf(WrongCommandFormatException.class));
+
+        try {
+            teamService.activateTeam(userFrom.getSlackId(), text).get();
+        } finally {
+            verifyZeroInteractions(userRepository, teamRepository);
+        }
+    }
+
+    @Test
+    public void activateTeamIfTeamsServiceFailsCompletesExceptionally() throws Exception {
+        String text = String.format("%s %s %s %s",
+                SlackIdHandler.wrapSlackId(user1.getSlackId()),
+                SlackIdHandler.wrapSlackId(user2.getSlackId()),
+                SlackIdHandler.wrapSlackId(user3.getSlackId()),
+                SlackIdHandler.wrapSlackId(user4.getSlackId()));
+        List<User> users = Arrays.asList(user1, user2, user3, user4, userFrom);
+        CompletableFuture<Team> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new TeamExchangeException(new ApiError(400, "TMF-F2-D3",
+                "Sorry, but the user already exists in team!", "", "", Collections.emptyList()), null));
+        when(userRepository.findUsersBySlackIds(anyListOf(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(users));
+        when(teamRepository.activateTeam(any(ActivateTeamRequest.class))).thenReturn(failed);
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectCause(instanceOf(TeamExchangeException.class));
+
+        teamService.activateTeam(userFrom.getSlackId(), text).get();
+    }
+
+    @Test
+    public void getTeamIfOneSlackIdInTextExecutedCorrectly() throws Exception {
+        String text = SlackIdHandler.wrapSlackId(user1.getSlackId());
+        List<User> teamUsers = Arrays.asList(user1, user2, user3, user4);
+        Team team = new Team(new LinkedHashSet<>(Arrays.asList(
+                user1.getUuid(), user2.getUuid(), user3.getUuid(), user4.getUuid())));
+        Set<String> expected = new LinkedHashSet<>(Arrays.asList(
+                user1.getSlackId(), user2.getSlackId(), user3.getSlackId(), user4.getSlackId()));
+        when(userRepository.findUsersBySlackIds(Collections.singletonList(user1.getSlackId())))
+                .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(user1)));
+        when(teamRepository.getTeam(user1.getUuid())).thenReturn(CompletableFuture.completedFuture(team));
+        when(userRepository.findUsersByUuids(anyListOf(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(teamUsers));
+
+        Set<String> actual = teamService.getTeam(text).get();
+
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void getTeamFromTeamCacheIsNotWrittenToTeamView() throws Exception {
+        List<User> teamUsers = Arrays.asList(user1, user2, user3, user4);
+        Team team = new Team(new LinkedHashSet<>(Arrays.asList(
+                user1.getUuid(), user2.getUuid(), user3.getUuid(), user4.getUuid())));
+        teamCache.put(team);
+        when(userRepository.findUsersBySlackIds(Collections.singletonList(user1.getSlackId())))
+                .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(user1)));
+        when(userRepository.findUsersByUuids(anyListOf(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(teamUsers));
+
+        Set<String> actual = teamService.getTeam(SlackIdHandler.wrapSlackId(user1.getSlackId())).get();
+
+        assertThat(actual.size(), is(4));
+        assertThat(teamView.size(), is(0));
+        verify(teamRepository, never()).getTeam(user1.getUuid());
+    }
+
+    @Test
+    public void deactivateTeamIfOneSlackIdsInTextAndItIsNotFromUserExecutedCorrectly() throws Exception {
+        String text = SlackIdHandler.wrapSlackId(user1.getSlackId());
+        List<User> teamUsers = Arrays.asList(user1, user2, user3, user4);
+        Team team = new Team(new LinkedHashSet<>(Arrays.asList(
+                user1.getUuid(), user2.getUuid(), user3.getUuid(), user4.getUuid())));
+        Set<String> expected = new LinkedHashSet<>(Arrays.asList(
+                user1.getSlackId(), user2.getSlackId(), user3.getSlackId(), user4.getSlackId()));
+        when(userRepository.findUsersBySlackIds(anyListOf(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(Arrays.asList(userFrom, user1)));
+        when(teamRepository.deactivateTeam(any(DeactivateTeamRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(team));
+        when(userRepository.findUsersByUuids(anyListOf(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(teamUsers));
+
+        Set<String> actual = teamService.deactivateTeam(userFrom.getSlackId(), text).get();
+
+        assertThat(actual, is(expected));
+        ArgumentCaptor<DeactivateTeamRequest> captor = ArgumentCaptor.forClass(DeactivateTeamRequest.class);
+        verify(teamRepository).deactivateTeam(captor.capture());
+        assertThat(captor.getValue().getFrom(), is(userFrom.getUuid()));
+        assertThat(captor.getValue().getUuid(), is(user1.getUuid()));
+    }
+}
@@ -8,9 +8,12 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringRunner;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamCache;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
 import ua.com.juja.microservices.teams.slackbot.exceptions.TeamExchangeException;
 import ua.com.juja.microservices.teams.slackbot.exceptions.WrongCommandFormatException;
 import ua.com.juja.microservices.teams.slackbot.model.teams.ActivateTeamRequest;
@@ -29,6 +32,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -54,11 +58,16 @@ public class TeamServiceTest {
     @Rule
     public final ExpectedException expectedException = ExpectedException.none();
     @MockBean
+    @Qualifier("restTeamRepository")
     private TeamRepository teamRepository;
     @MockBean
     private UserService userService;
     @Inject
     private TeamService teamService;
+    @Inject
+    private TeamCache teamCache;
+    @Inject
+    private TeamView teamView;
 
     @BeforeClass
     public static void oneTimeSetUp() {
@@ -72,6 +81,8 @@ public class TeamServiceTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        teamCache.invalidateAll();
+        teamView.invalidateAll();
     }
 
     @Test
@@ -238,6 +249,95 @@ public class TeamServiceTest {
         teamService.getTeam(text);
     }
 
+    @Test
+    public void getTeamOfAnotherMemberOfCachedTeamDoesNotCallTeamsService() {
+        List<User> teamUsers = Arrays.asList(user1, user2, user3, user4);
+        Team team = new Team(teamUsers.stream().map(User::getUuid).collect(Collectors.toSet()));
+        given(userService.findUsersBySlackIds(Collections.singletonList(user1.getSlackId())))
+                .willReturn(Collections.singletonList(user1));
+        given(userService.findUsersBySlackIds(Collections.singletonList(user2.getSlackId())))
+                .willReturn(Collections.singletonList(user2));
+        given(teamRepository.getTeam(user1.getUuid())).willReturn(team);
+        given(userService.findUsersByUuids(anyListOf(String.class))).willReturn(teamUsers);
+        teamService.getTeam(SlackIdHandler.wrapSlackId(user1.getSlackId()));
+
+        Set<String> actual = teamService.getTeam(SlackIdHandler.wrapSlackId(user2.getSlackId()));
+
+        assertThat(actual.size(), is(TEAM_SIZE));
+        verify(teamRepository).getTeam(user1.getUuid());
+        verifyNoMoreInteractions(teamRepository);
+    }
+
+    @Test
+    public void getTeamFromTeamCacheIsNotWrittenToTeamView() {
+        List<User> teamUsers = Arrays.asList(user1, user2, user3, user4);
+        Team team = new Team(teamUsers.stream().map(User::getUuid).collect(Collectors.toSet()));
+        teamCache.put(team);
+        given(userService.findUsersBySlackIds(Collections.singletonList(user1.getSlackId())))
+                .willReturn(Collections.singletonList(user1));
+        given(userService.findUsersByUuids(anyListOf(String.class))).willReturn(teamUsers);
+
+        Set<String> actual = teamService.getTeam(SlackIdHandler.wrapSlackId(user1.getSlackId()));
+
+        assertThat(actual.size(), is(TEAM_SIZE));
+        assertThat(teamView.size(), is(0));
+        verifyNoMoreInteractions(teamRepository);
+    }
+
+    @Test
+    public void getTeamOfMemberOfActivatedTeamIsAnsweredFromTeamView() {
+        String text = String.format("%s %s %s %s",
+                SlackIdHandler.wrapSlackId(user1.getSlackId()),
+                SlackIdHandler.wrapSlackId(user2.getSlackId()),
+                SlackIdHandler.wrapSlackId(user3.getSlackId()),
+                SlackIdHandler.wrapSlackId(user4.getSlackId()));
+        List<User> teamUsers = Arrays.asList(user1, user2, user3, user4);
+        Team team = new Team(teamUsers.stream().map(User::getUuid).collect(Collectors.toSet()));
+        given(userService.findUsersBySlackIds(anyListOf(String.class)))
+                .willReturn(Arrays.asList(user1, user2, user3, user4, userFrom));
+        given(teamRepository.activateTeam(any(ActivateTeamRequest.class))).willReturn(team);
+        teamService.activateTeam(userFrom.getSlackId(), text);
+
+        Set<String> actual = teamService.getTeam(SlackIdHandler.wrapSlackId(user3.getSlackId()));
+
+        assertEquals(teamUsers.stream().map(User::getSlackId).collect(Collectors.toSet()), actual);
+        verify(userService).findUsersBySlackIds(anyListOf(String.class));
+        verify(teamRepository).activateTeam(any(ActivateTeamRequest.class));
+        verifyNoMoreInteractions(userService, teamRepository);
+    }
+
+    @Test
+    public void getTeamAfterDeactivateTeamIsNotAnsweredFromTeamView() {
+        List<User> teamUsers = Arrays.asList(user1, user2, user3, user4);
+        Team team = new Team(teamUsers.stream().map(User::getUuid).collect(Collectors.toSet()));
+        teamView.put(team, teamUsers);
+        given(userService.findUsersBySlackIds(anyListOf(String.class))).willReturn(Arrays.asList(userFrom, user1));
+        given(teamRepository.deactivateTeam(any(DeactivateTeamRequest.class))).willReturn(team);
+        given(userService.findUsersByUuids(anyListOf(String.class))).willReturn(teamUsers);
+        teamService.deactivateTeam(userFrom.getSlackId(), SlackIdHandler.wrapSlackId(user1.getSlackId()));
+
+        assertThat(teamView.getTeamSlackIds(user2.getSlackId()), is(nullValue()));
+    }
+
+    @Test
+    public void getTeamAfterDeactivateTeamCallsTeamsService() {
+        List<User> teamUsers = Arrays.asList(user1, user2, user3, user4);
+        Team team = new Team(teamUsers.stream().map(User::getUuid).collect(Collectors.toSet()));
+        teamCache.put(team);
+        given(userService.findUsersBySlackIds(anyListOf(String.class))).willReturn(Arrays.asList(userFrom, user1));
+        given(teamRepository.deactivateTeam(any(DeactivateTeamRequest.class))).willReturn(team);
+        given(userService.findUsersByUuids(anyListOf(String.class))).willReturn(teamUsers);
+        teamService.deactivateTeam(userFrom.getSlackId(), SlackIdHandler.wrapSlackId(user1.getSlackId()));
+        given(userService.findUsersBySlackIds(anyListOf(String.class))).willReturn(Collections.singletonList(user1));
+        given(teamRepository.getTeam(user1.getUuid())).willReturn(team);
+
+        teamService.getTeam(SlackIdHandler.wrapSlackId(user1.getSlackId()));
+
+        verify(teamRepository).deactivateTeam(any(DeactivateTeamRequest.class));
+        verify(teamRepository).getTeam(user1.getUuid());
+        verifyNoMoreInteractions(teamRepository);
+    }
+
     @Test
     public void deactivateTeamIfOneFromUserSlackIdInTextExecutedCorrectly() {
         String from = userFrom.getSlackId();
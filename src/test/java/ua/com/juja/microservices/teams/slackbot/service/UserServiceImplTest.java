@@ -2,6 +2,7 @@ package ua.com.juja.microservices.teams.slackbot.service;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -24,13 +25,14 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
  * @author Ivan Shapovalov
  */
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "teams.slackbot.cache.users.enabled=false")
 public class UserServiceImplTest {
 
     @Inject
     private UserService userService;
 
     @MockBean
+    @Qualifier("restUserRepository")
     private UserRepository userRepository;
 
     @Test
@@ -0,0 +1,198 @@
+package ua.com.juja.microservices.teams.slackbot.service.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.mock.env.MockEnvironment;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ServiceUnavailableException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.TeamExchangeException;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class TeamViewSynchronizerTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+    private final TeamRepository teamRepository = mock(TeamRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicLong ticker = new AtomicLong();
+    private final Team team = new Team(new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2")));
+    private final List<User> users = Arrays.asList(new User("uuid1", "slack-id1"), new User("uuid2", "slack-id2"));
+    private TeamView teamView;
+    private TeamViewSynchronizer synchronizer;
+
+    @Before
+    public void setup() {
+        teamView = new TeamView(100, 0, 300);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("teams.slackbot.view.syncBatchSize", "10")
+                .withProperty("teams.slackbot.view.syncIntervalSeconds", "3600")
+                .withProperty("teams.slackbot.view.syncRoundMillis", "1500")
+                .withProperty("teams.slackbot.view.maxSize", "100")
+                .withProperty("teams.slackbot.view.maxStalenessSeconds", "10800");
+        synchronizer = new TeamViewSynchronizer(teamView, teamRepository, userRepository, environment, ticker::get);
+    }
+
+    @After
+    public void tearDown() {
+        synchronizer.destroy();
+    }
+
+    @Test
+    public void syncReplacesTeamWithActualTeamOfMember() {
+        teamView.put(team, users);
+        Team actual = new Team(new LinkedHashSet<>(Arrays.asList("uuid1", "uuid3")));
+        given(teamRepository.getTeam("uuid1")).willReturn(actual);
+        given(userRepository.findUsersByUuids(anyListOf(String.class)))
+                .willReturn(Arrays.asList(users.get(0), new User("uuid3", "slack-id3")));
+
+        int synced = synchronizer.sync();
+
+        assertThat(synced, is(1));
+        assertThat(teamView.getTeamSlackIds("slack-id1"), containsInAnyOrder("slack-id1", "slack-id3"));
+        assertThat(teamView.getTeamSlackIds("slack-id2"), nullValue());
+        assertThat(synchronizer.getSyncedCount(), is(1L));
+        verify(teamRepository).getTeam("uuid1");
+    }
+
+    @Test
+    public void syncLooksUpMembersOfAllTeamsOfRoundWithOneRequest() {
+        Team other = new Team(new LinkedHashSet<>(Arrays.asList("uuid3", "uuid4")));
+        List<User> otherUsers = Arrays.asList(new User("uuid3", "slack-id3"), new User("uuid4", "slack-id4"));
+        teamView.put(team, users);
+        teamView.put(other, otherUsers);
+        given(teamRepository.getTeam("uuid1")).willReturn(team);
+        given(teamRepository.getTeam("uuid3")).willReturn(other);
+        given(userRepository.findUsersByUuids(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4")))
+                .willReturn(Arrays.asList(users.get(0), users.get(1), otherUsers.get(0), otherUsers.get(1)));
+
+        int synced = synchronizer.sync();
+
+        assertThat(synced, is(2));
+        assertThat(synchronizer.getSyncedCount(), is(2L));
+        assertThat(teamView.getTeamSlackIds("slack-id4"), containsInAnyOrder("slack-id3", "slack-id4"));
+        verify(userRepository, times(1)).findUsersByUuids(anyListOf(String.class));
+    }
+
+    @Test
+    public void syncRoundStopsAskingForTeamsOnceItsTimeIsSpentAndNextBatchFitsIntoRound() {
+        for (int i = 0; i < 3; i++) {
+            teamView.put(new Team(Collections.singleton("uuid" + i)),
+                    Collections.singletonList(new User("uuid" + i, "slack-id" + i)));
+        }
+        given(teamRepository.getTeam(anyString())).willAnswer(invocation -> {
+            ticker.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            return new Team(Collections.singleton(invocation.getArgumentAt(0, String.class)));
+        });
+        given(userRepository.findUsersByUuids(anyListOf(String.class)))
+                .willReturn(Arrays.asList(new User("uuid0", "slack-id0"), new User("uuid1", "slack-id1")));
+
+        int synced = synchronizer.sync();
+
+        assertThat(synced, is(2));
+        assertThat(synchronizer.getSyncBatchSize(), is(1));
+        verify(teamRepository, times(2)).getTeam(anyString());
+    }
+
+    @Test
+    public void syncKeepsTeamsIfUsersServiceIsUnavailable() {
+        teamView.put(team, users);
+        given(teamRepository.getTeam("uuid1")).willReturn(team);
+        given(userRepository.findUsersByUuids(anyListOf(String.class)))
+                .willThrow(new ServiceUnavailableException("Users is unavailable"));
+
+        synchronizer.sync();
+
+        assertThat(teamView.getTeamSlackIds("slack-id2"), containsInAnyOrder("slack-id1", "slack-id2"));
+        assertThat(synchronizer.getFailedCount(), is(1L));
+    }
+
+    @Test
+    public void loadPutsActiveTeamOfMemberIntoView() {
+        given(teamRepository.getTeam("uuid2")).willReturn(team);
+        given(userRepository.findUsersByUuids(anyListOf(String.class))).willReturn(users);
+
+        boolean loaded = synchronizer.load("uuid2");
+
+        assertThat(loaded, is(true));
+        assertThat(teamView.getTeamSlackIds("slack-id1"), containsInAnyOrder("slack-id1", "slack-id2"));
+    }
+
+    @Test
+    public void loadOfMemberWithoutActiveTeamPutsNothing() {
+        ApiError apiError = new ApiError(400, "TMF-F5-D", "You cannot get/deactivate team if the user not a member " +
+                "of any team!", "The reason of the exception is 'User not in team'", "User not in team",
+                Collections.singletonList(""));
+        given(teamRepository.getTeam("uuid2")).willThrow(new TeamExchangeException(apiError, new RuntimeException()));
+
+        assertThat(synchronizer.load("uuid2"), is(false));
+        assertThat(teamView.size(), is(0));
+    }
+
+    @Test
+    public void syncDropsTeamWhichTeamsServiceAnswersWithError() {
+        teamView.put(team, users);
+        ApiError apiError = new ApiError(400, "TMF-F5-D", "You cannot get/deactivate team if the user not a member " +
+                "of any team!", "The reason of the exception is 'User not in team'", "User not in team",
+                Collections.singletonList(""));
+        given(teamRepository.getTeam("uuid1")).willThrow(new TeamExchangeException(apiError, new RuntimeException()));
+
+        synchronizer.sync();
+
+        assertThat(teamView.size(), is(0));
+        assertThat(synchronizer.getDroppedCount(), is(1L));
+        verifyZeroInteractions(userRepository);
+    }
+
+    @Test
+    public void syncKeepsTeamIfTeamsServiceIsUnavailable() {
+        teamView.put(team, users);
+        given(teamRepository.getTeam("uuid1")).willThrow(new ServiceUnavailableException("Teams is unavailable"));
+
+        synchronizer.sync();
+
+        assertThat(teamView.getTeamSlackIds("slack-id2"), containsInAnyOrder("slack-id1", "slack-id2"));
+        assertThat(synchronizer.getFailedCount(), is(1L));
+    }
+
+    @Test
+    public void syncBatchSizeIsRaisedToSyncFullViewBeforeItBecomesStale() {
+        assertThat(synchronizer.getSyncBatchSize(), is(100));
+        assertThat(TeamViewSynchronizer.syncBatchSize(50, 10000, 60, 0, 300), is(2500));
+        assertThat(TeamViewSynchronizer.syncBatchSize(3000, 10000, 60, 0, 300), is(3000));
+        assertThat(TeamViewSynchronizer.syncBatchSize(50, 10001, 60, 0, 300), is(2501));
+        assertThat(TeamViewSynchronizer.syncBatchSize(50, 10000, 60, 20000, 300), is(3334));
+    }
+
+    @Test
+    public void maxStalenessShorterThanTwiceSyncIntervalPlusSyncRoundIsRejected() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Max staleness must be at least twice the sync interval plus the sync round!");
+
+        TeamViewSynchronizer.syncBatchSize(50, 10000, 60, 20000, 139);
+    }
+}
@@ -0,0 +1,211 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.junit.After;
+import org.junit.Test;
+import ua.com.juja.microservices.teams.slackbot.exceptions.DeadlineExceededException;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class BatchDispatcherTest {
+    private static final int LOAD_TIMEOUT = 1000;
+    private static final long LONG_WINDOW_MILLIS = 60000;
+    private static final Predicate<Throwable> REJECTED = IllegalArgumentException.class::isInstance;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<String>> sentBatches = new CopyOnWriteArrayList<>();
+    private final Function<List<String>, CompletableFuture<List<User>>> usersService = slackIds -> {
+        sentBatches.add(new ArrayList<>(slackIds));
+        return CompletableFuture.completedFuture(slackIds.stream()
+                .filter(slackId -> !slackId.equals("unknown"))
+                .map(slackId -> new User("uuid-" + slackId, slackId))
+                .collect(Collectors.toList()));
+    };
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void loadsWithinWindowAreSentAsOneBatchAndFannedOut() throws Exception {
+        BatchDispatcher<String, User> dispatcher = new BatchDispatcher<>(usersService, User::getSlackId, REJECTED,
+                20, 100, scheduler);
+
+        CompletableFuture<List<User>> first = dispatcher.load(Arrays.asList("slack-id1", "slack-id2"));
+        CompletableFuture<List<User>> second = dispatcher.load(Arrays.asList("slack-id3", "unknown", "slack-id1"));
+
+        assertThat(slackIds(first.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS)),
+                is(Arrays.asList("slack-id1", "slack-id2")));
+        assertThat(slackIds(second.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS)),
+                is(Arrays.asList("slack-id1", "slack-id3")));
+        assertThat(sentBatches, is(Collections.singletonList(
+                Arrays.asList("slack-id1", "slack-id2", "slack-id3", "unknown"))));
+        assertThat(dispatcher.getLoadCount(), is(2L));
+        assertThat(dispatcher.getBatchCount(), is(1L));
+        assertThat(dispatcher.getKeyCount(), is(4L));
+    }
+
+    @Test
+    public void fullBatchIsSentWithoutWaitingForWindow() throws Exception {
+        BatchDispatcher<String, User> dispatcher = new BatchDispatcher<>(usersService, User::getSlackId, REJECTED,
+                LONG_WINDOW_MILLIS, 3, scheduler);
+
+        CompletableFuture<List<User>> first = dispatcher.load(Arrays.asList("slack-id1", "slack-id2"));
+        CompletableFuture<List<User>> second = dispatcher.load(Collections.singletonList("slack-id3"));
+
+        assertThat(first.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS).size(), is(2));
+        assertThat(second.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS).size(), is(1));
+        assertThat(sentBatches.size(), is(1));
+    }
+
+    @Test
+    public void zeroWindowSendsEveryLoadAtOnce() throws Exception {
+        BatchDispatcher<String, User> dispatcher = new BatchDispatcher<>(usersService, User::getSlackId, REJECTED,
+                0, 100, scheduler);
+
+        dispatcher.load(Collections.singletonList("slack-id1")).get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+        dispatcher.load(Collections.singletonList("slack-id2")).get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        assertThat(sentBatches.size(), is(2));
+    }
+
+    @Test
+    public void failedBatchFailsEveryCaller() throws Exception {
+        IllegalStateException error = new IllegalStateException("Users service failed");
+        BatchDispatcher<String, User> dispatcher = new BatchDispatcher<>(slackIds -> {
+            throw error;
+        }, User::getSlackId, REJECTED, 20, 100, scheduler);
+
+        CompletableFuture<List<User>> first = dispatcher.load(Collections.singletonList("slack-id1"));
+        CompletableFuture<List<User>> second = dispatcher.load(Collections.singletonList("slack-id2"));
+
+        for (CompletableFuture<List<User>> future : Arrays.asList(first, second)) {
+            try {
+                future.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+                fail();
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause(), sameInstance(error));
+            }
+        }
+    }
+
+    @Test
+    public void loadLargerThanMaxBatchSizeIsSplitIntoFullBatches() throws Exception {
+        BatchDispatcher<String, User> dispatcher = new BatchDispatcher<>(usersService, User::getSlackId, REJECTED,
+                LONG_WINDOW_MILLIS, 2, scheduler);
+
+        CompletableFuture<List<User>> first = dispatcher.load(Collections.singletonList("slack-id1"));
+        CompletableFuture<List<User>> second = dispatcher.load(
+                Arrays.asList("slack-id2", "slack-id3", "slack-id4", "slack-id5"));
+
+        assertThat(slackIds(first.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS)),
+                is(Collections.singletonList("slack-id1")));
+        assertThat(second.isDone(), is(false));
+        dispatcher.load(Collections.singletonList("slack-id6")).get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        assertThat(slackIds(second.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS)),
+                is(Arrays.asList("slack-id2", "slack-id3", "slack-id4", "slack-id5")));
+        assertThat(sentBatches, is(Arrays.asList(
+                Arrays.asList("slack-id1", "slack-id2"),
+                Arrays.asList("slack-id3", "slack-id4"),
+                Arrays.asList("slack-id5", "slack-id6"))));
+    }
+
+    @Test
+    public void rejectedBatchFailsOnlyCallerOfRejectedKeys() throws Exception {
+        IllegalArgumentException rejection = new IllegalArgumentException("Users service rejected 'bad-id'");
+        BatchDispatcher<String, User> dispatcher = new BatchDispatcher<>(slackIds -> {
+            if (slackIds.contains("bad-id")) {
+                sentBatches.add(new ArrayList<>(slackIds));
+                CompletableFuture<List<User>> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(rejection);
+                return rejected;
+            }
+            return usersService.apply(slackIds);
+        }, User::getSlackId, REJECTED, 20, 100, scheduler);
+
+        CompletableFuture<List<User>> good = dispatcher.load(Arrays.asList("slack-id1", "slack-id2"));
+        CompletableFuture<List<User>> bad = dispatcher.load(Arrays.asList("slack-id3", "bad-id"));
+
+        assertThat(slackIds(good.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS)),
+                is(Arrays.asList("slack-id1", "slack-id2")));
+        try {
+            bad.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), sameInstance(rejection));
+        }
+        assertThat(sentBatches, is(Arrays.asList(
+                Arrays.asList("slack-id1", "slack-id2", "slack-id3", "bad-id"),
+                Arrays.asList("slack-id1", "slack-id2"),
+                Arrays.asList("slack-id3", "bad-id"))));
+    }
+
+
+    @Test
+    public void batchIsLoadedWithLatestDeadlineOfItsCallers() throws Exception {
+        List<Deadline> loadDeadlines = new CopyOnWriteArrayList<>();
+        BatchDispatcher<String, User> dispatcher = new BatchDispatcher<>(slackIds -> {
+            loadDeadlines.add(Deadline.current());
+            return usersService.apply(slackIds);
+        }, User::getSlackId, REJECTED, LONG_WINDOW_MILLIS, 2, scheduler);
+        Deadline early = Deadline.after(LOAD_TIMEOUT);
+        Deadline late = Deadline.after(10 * LOAD_TIMEOUT);
+
+        CompletableFuture<List<User>> first;
+        try (Deadline.Scope ignored = late.attach()) {
+            first = dispatcher.load(Collections.singletonList("slack-id1"));
+        }
+        try (Deadline.Scope ignored = early.attach()) {
+            dispatcher.load(Collections.singletonList("slack-id2"));
+        }
+        first.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+        dispatcher.load(Collections.singletonList("slack-id3"));
+        try (Deadline.Scope ignored = late.attach()) {
+            dispatcher.load(Collections.singletonList("slack-id4"));
+        }
+
+        assertThat(loadDeadlines, is(Arrays.asList(late, null)));
+        assertThat(Deadline.current(), nullValue());
+    }
+
+    @Test
+    public void batchIsNotLoadedOnceDeadlinesOfAllItsCallersHavePassed() throws Exception {
+        BatchDispatcher<String, User> dispatcher = new BatchDispatcher<>(usersService, User::getSlackId, REJECTED,
+                0, 100, scheduler);
+
+        CompletableFuture<List<User>> result;
+        try (Deadline.Scope ignored = Deadline.after(0).attach()) {
+            result = dispatcher.load(Collections.singletonList("slack-id1"));
+        }
+
+        try {
+            result.get(LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause() instanceof DeadlineExceededException, is(true));
+        }
+        assertThat(sentBatches, is(Collections.emptyList()));
+    }
+    private static List<String> slackIds(List<User> users) {
+        return users.stream().map(User::getSlackId).collect(Collectors.toList());
+    }
+}
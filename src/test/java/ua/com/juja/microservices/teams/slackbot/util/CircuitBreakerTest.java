@@ -0,0 +1,112 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+    private static final long OPEN_MILLIS = 1000;
+
+    private long now;
+    private final CircuitBreaker breaker = new CircuitBreaker("users", 50, 4, 2, OPEN_MILLIS, 2, () -> now);
+
+    @Test
+    public void staysClosedUntilMinimumCallsWereMade() {
+        call(false);
+
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void opensWhenFailureRateReachesThreshold() {
+        call(false);
+        call(false);
+        call(true);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+
+        call(true);
+
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+        assertFalse(breaker.tryAcquirePermission());
+        assertThat(breaker.getRejectedCount(), is(1L));
+        assertThat(breaker.getTransitionCount(CircuitBreaker.State.OPEN), is(1L));
+    }
+
+    @Test
+    public void failureRateIsTakenOverSlidingWindow() {
+        call(false);
+        call(false);
+        call(false);
+        call(true);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+
+        call(true);
+
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void letsProbesThroughAfterOpenDurationAndClosesIfTheySucceed() {
+        open();
+        now += TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS);
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        assertThat(breaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        breaker.onSuccess();
+        breaker.onSuccess();
+
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+        call(true);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(breaker.getTransitionCount(CircuitBreaker.State.HALF_OPEN), is(1L));
+        assertThat(breaker.getTransitionCount(CircuitBreaker.State.CLOSED), is(1L));
+    }
+
+    @Test
+    public void opensAgainIfProbeFails() {
+        open();
+        now += TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS);
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+        assertFalse(breaker.tryAcquirePermission());
+        assertThat(breaker.getTransitionCount(CircuitBreaker.State.OPEN), is(2L));
+    }
+
+    @Test
+    public void ignoredProbeFreesItsPermission() {
+        open();
+        now += TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS);
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+
+        breaker.onIgnored();
+
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    private void open() {
+        call(true);
+        call(true);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    private void call(boolean failure) {
+        assertTrue(breaker.tryAcquirePermission());
+        if (failure) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.junit.Test;
+import org.springframework.web.client.ResourceAccessException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DeadlineTest {
+    private static final int CALL_TIMEOUT = 1000;
+
+    @Test
+    public void callAttachesDeadlineToCurrentThread() {
+        Deadline deadline = Deadline.after(CALL_TIMEOUT);
+
+        Deadline attached = deadline.call(Deadline::current);
+
+        assertThat(attached, sameInstance(deadline));
+        assertThat(Deadline.current(), nullValue());
+    }
+
+    @Test
+    public void expiredDeadlineDoesNotRunWork() {
+        Deadline deadline = Deadline.after(0);
+        AtomicBoolean called = new AtomicBoolean();
+
+        try {
+            deadline.call(() -> called.getAndSet(true));
+            fail();
+        } catch (DeadlineExceededException ex) {
+            assertFalse(called.get());
+        }
+    }
+
+    @Test
+    public void failureAfterDeadlineIsReportedAsDeadlineExceeded() {
+        Deadline deadline = Deadline.after(100);
+        ResourceAccessException timeout = new ResourceAccessException("Read timed out");
+
+        try {
+            deadline.call(() -> {
+                while (deadline.remainingMillis() > 0) {
+                    sleep(10);
+                }
+                throw timeout;
+            });
+            fail();
+        } catch (DeadlineExceededException ex) {
+            assertThat(ex.getCause(), sameInstance(timeout));
+        }
+    }
+
+    @Test
+    public void failureBeforeDeadlineIsKept() {
+        Deadline deadline = Deadline.after(CALL_TIMEOUT);
+        ResourceAccessException failure = new ResourceAccessException("Connection refused");
+
+        assertThat(deadline.translate(failure), sameInstance(failure));
+    }
+
+    @Test
+    public void joinWaitsAtMostUntilDeadline() {
+        CompletableFuture<String> neverCompleted = new CompletableFuture<>();
+        long start = System.nanoTime();
+
+        try {
+            Deadline.after(50).call(() -> Deadline.join(neverCompleted));
+            fail();
+        } catch (DeadlineExceededException ex) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < CALL_TIMEOUT);
+        }
+    }
+
+    @Test
+    public void propagateCarriesDeadlineToOtherThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Deadline deadline = Deadline.after(CALL_TIMEOUT);
+            Function<String, Deadline> stage = deadline.call(() -> Deadline.propagate(value -> Deadline.current()));
+
+            Deadline attached = CompletableFuture.supplyAsync(() -> "value", executor).thenApplyAsync(stage, executor)
+                    .get(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+            assertThat(attached, sameInstance(deadline));
+            assertThat(executor.submit(Deadline::current).get(), nullValue());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void latestDeadlineIsTheOnePassingLastOrNoneIfEitherIsMissing() {
+        Deadline early = Deadline.after(CALL_TIMEOUT);
+        Deadline late = Deadline.after(2 * CALL_TIMEOUT);
+
+        assertThat(Deadline.latest(early, late), sameInstance(late));
+        assertThat(Deadline.latest(late, early), sameInstance(late));
+        assertThat(Deadline.latest(early, null), nullValue());
+    }
+
+    @Test
+    public void boundWorkRunsWithDeadlineOnAnotherThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Deadline deadline = Deadline.after(CALL_TIMEOUT);
+
+            Deadline attached = CompletableFuture.supplyAsync(Deadline.bind(deadline, Deadline::current), executor)
+                    .get(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+            assertThat(attached, sameInstance(deadline));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void remainingTimeIsNeverNegative() {
+        assertThat(Deadline.after(-CALL_TIMEOUT).remainingMillis(), is(0L));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class HedgerTest {
+    private static final int CALL_TIMEOUT = 1000;
+    private static final long MIN_DELAY_MILLIS = 5;
+    private static final long MAX_DELAY_MILLIS = 20;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void fastCallIsNotHedged() throws Exception {
+        Hedger hedger = hedger(100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.executeAsync(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture("value");
+        }).get(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        assertThat(result, is("value"));
+        Thread.sleep(MAX_DELAY_MILLIS * 2);
+        assertThat(attempts.get(), is(1));
+        assertThat(hedger.getFiredCount(), is(0L));
+    }
+
+    @Test
+    public void slowCallIsHedgedAndFirstAnswerWins() throws Exception {
+        Hedger hedger = hedger(100);
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+
+        CompletableFuture<String> result = hedger.executeAsync(() -> attempt(attempts));
+        awaitAttempts(attempts, 2);
+        attempts.get(1).complete("hedge");
+        attempts.get(0).complete("first");
+
+        assertThat(result.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS), is("hedge"));
+        assertThat(hedger.getFiredCount(), is(1L));
+        assertThat(hedger.getWonCount(), is(1L));
+    }
+
+    @Test
+    public void callIsNotHedgedWhenBudgetIsSpent() throws Exception {
+        Hedger hedger = hedger(0);
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+
+        CompletableFuture<String> result = hedger.executeAsync(() -> attempt(attempts));
+        Thread.sleep(MAX_DELAY_MILLIS * 3);
+        attempts.get(0).complete("first");
+
+        assertThat(result.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS), is("first"));
+        assertThat(attempts.size(), is(1));
+        assertThat(hedger.getOverBudgetCount(), is(1L));
+    }
+
+    @Test
+    public void failedAttemptWaitsForOtherAttempt() throws Exception {
+        Hedger hedger = hedger(100);
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+
+        CompletableFuture<String> result = hedger.executeAsync(() -> attempt(attempts));
+        awaitAttempts(attempts, 2);
+        attempts.get(0).completeExceptionally(new ResourceAccessException("Read timed out"));
+        attempts.get(1).complete("hedge");
+
+        assertThat(result.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS), is("hedge"));
+    }
+
+    @Test
+    public void callFailsWhenEveryAttemptFailed() throws Exception {
+        Hedger hedger = hedger(100);
+        ResourceAccessException failure = new ResourceAccessException("Connection refused");
+
+        CompletableFuture<String> result = hedger.executeAsync(() -> {
+            CompletableFuture<String> attempt = new CompletableFuture<>();
+            attempt.completeExceptionally(failure);
+            return attempt;
+        });
+
+        try {
+            result.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), sameInstance(failure));
+        }
+        assertThat(hedger.getFiredCount(), is(0L));
+    }
+
+    @Test
+    public void delayFollowsLatenciesOfRecentCalls() throws Exception {
+        Hedger hedger = hedger(100);
+        assertThat(hedger.getDelayMillis(), is(MAX_DELAY_MILLIS));
+
+        for (int i = 0; i < 40; i++) {
+            hedger.executeAsync(() -> CompletableFuture.completedFuture("value")).get();
+        }
+
+        assertThat(hedger.getDelayMillis(), is(MIN_DELAY_MILLIS));
+    }
+
+    private Hedger hedger(double budgetPercent) {
+        return new Hedger("users.byUuids", scheduler, 95, MIN_DELAY_MILLIS, MAX_DELAY_MILLIS, budgetPercent);
+    }
+
+    private static CompletableFuture<String> attempt(List<CompletableFuture<String>> attempts) {
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+        synchronized (attempts) {
+            attempts.add(attempt);
+        }
+        return attempt;
+    }
+
+    private static void awaitAttempts(List<CompletableFuture<String>> attempts, int count)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + CALL_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (attempts) {
+                if (attempts.size() >= count) {
+                    return;
+                }
+            }
+            Thread.sleep(1);
+        }
+        fail();
+    }
+}
@@ -0,0 +1,59 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import me.ramswaroop.jbot.core.slack.models.RichMessage;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.web.client.HttpClientErrorException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.nio.charset.StandardCharsets;
+
+import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class JsonMappingHttpMessageConverterTest {
+
+    private final JsonMappingHttpMessageConverter converter = new JsonMappingHttpMessageConverter();
+
+    @Test
+    public void readsUsersWithSharedReader() throws Exception {
+        MockHttpInputMessage inputMessage = new MockHttpInputMessage(
+                "[{\"uuid\":\"uuid1\",\"slackId\":\"slack1\",\"unknown\":true}]".getBytes(StandardCharsets.UTF_8));
+
+        User[] users = (User[]) converter.read(User[].class, null, inputMessage);
+
+        assertThat(users.length, is(1));
+        assertThat(users[0].getUuid(), is("uuid1"));
+        assertThat(users[0].getSlackId(), is("slack1"));
+    }
+
+    @Test(expected = HttpMessageNotReadableException.class)
+    public void unreadableBodyFailsAsNotReadable() throws Exception {
+        converter.read(User[].class, null, new MockHttpInputMessage("<html/>".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void writesRichMessageWithSharedWriter() throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(new RichMessage("text"), RichMessage.class, MediaType.APPLICATION_JSON_UTF8, outputMessage);
+
+        assertThatJson(outputMessage.getBodyAsString(StandardCharsets.UTF_8)).node("text").isEqualTo("text");
+    }
+
+    @Test
+    public void convertToApiErrorFallsBackOnUnparseableBody() {
+        HttpClientErrorException ex = new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Bad Request",
+                "<html/>".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+        ApiError apiError = Utils.convertToApiError(ex);
+
+        assertThat(apiError.getInternalErrorCode(), is("BotInternalError"));
+    }
+}
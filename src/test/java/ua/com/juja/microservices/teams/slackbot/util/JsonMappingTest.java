@@ -0,0 +1,48 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.junit.Test;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class JsonMappingTest {
+
+    @Test
+    public void readArrayHandsElementsToConsumerInOrder() throws IOException {
+        List<User> users = new ArrayList<>();
+
+        int count = JsonMapping.readArray(stream("[{\"uuid\":\"uuid1\",\"slackId\":\"slack-id1\"},"
+                + "{\"uuid\":\"uuid2\",\"slackId\":\"slack-id2\"}]"), User.class, users::add);
+
+        assertThat(count, is(2));
+        assertThat(users, is(Arrays.asList(new User("uuid1", "slack-id1"), new User("uuid2", "slack-id2"))));
+    }
+
+    @Test
+    public void readArrayOfEmptyArrayReadsNothing() throws IOException {
+        List<User> users = new ArrayList<>();
+
+        assertThat(JsonMapping.readArray(stream("[]"), User.class, users::add), is(0));
+        assertThat(users.isEmpty(), is(true));
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void readArrayFailsIfBodyIsNotArray() throws IOException {
+        JsonMapping.readArray(stream("{\"uuid\":\"uuid1\",\"slackId\":\"slack-id1\"}"), User.class, user -> {
+        });
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,151 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ApiError;
+import ua.com.juja.microservices.teams.slackbot.exceptions.UserExchangeException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RetrierTest {
+    private static final int CALL_TIMEOUT = 1000;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void transientFailureIsRetried() {
+        Retrier retrier = retrier(10, RetryOn.IO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retrier.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ResourceAccessException("connection refused", new ConnectException());
+            }
+            return "value";
+        });
+
+        assertThat(result, is("value"));
+        assertThat(attempts.get(), is(2));
+        assertThat(retrier.getRetryCount(), is(1L));
+    }
+
+    @Test
+    public void clientErrorIsNotRetried() {
+        Retrier retrier = retrier(10, RetryOn.IO, RetryOn.SERVER_ERROR, RetryOn.TOO_MANY_REQUESTS);
+        HttpClientErrorException failure = new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+
+        assertFailsAfterAttempts(retrier, failure, 1);
+        assertThat(retrier.getRetryCount(), is(0L));
+    }
+
+    @Test
+    public void callFailsWithLastFailureAfterMaxAttempts() {
+        Retrier retrier = retrier(10, RetryOn.SERVER_ERROR);
+        HttpServerErrorException failure = new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+
+        assertFailsAfterAttempts(retrier, failure, MAX_ATTEMPTS);
+        assertThat(retrier.getExhaustedCount(), is(1L));
+    }
+
+    @Test
+    public void readTimeoutIsNotRetriedOnConnectFailuresOnly() {
+        Retrier retrier = retrier(10, RetryOn.CONNECT);
+        ResourceAccessException failure = new ResourceAccessException("read timed out", new SocketTimeoutException());
+
+        assertFailsAfterAttempts(retrier, failure, 1);
+    }
+
+    @Test
+    public void tooManyRequestsBehindExchangeExceptionIsRetried() {
+        Retrier retrier = retrier(10, RetryOn.TOO_MANY_REQUESTS);
+        ApiError apiError = new ApiError(429, "", "", "", "", Collections.emptyList());
+        UserExchangeException failure = new UserExchangeException(apiError,
+                new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+
+        assertFailsAfterAttempts(retrier, failure, MAX_ATTEMPTS);
+    }
+
+    @Test
+    public void failuresAreNotRetriedWhenBudgetIsSpent() {
+        Retrier retrier = retrier(0, RetryOn.IO);
+        ResourceAccessException failure = new ResourceAccessException("connection refused", new ConnectException());
+
+        for (int i = 0; i < CallBudget.MAX_BALANCE / (MAX_ATTEMPTS - 1); i++) {
+            assertFailsAfterAttempts(retrier, failure, MAX_ATTEMPTS);
+        }
+        assertFailsAfterAttempts(retrier, failure, 1);
+        assertThat(retrier.getOverBudgetCount(), is(1L));
+    }
+
+    @Test
+    public void failureIsNotRetriedWhenDeadlineHasPassed() throws Exception {
+        Retrier retrier = retrier(10, RetryOn.IO);
+        ResourceAccessException failure = new ResourceAccessException("connection refused", new ConnectException());
+        Deadline deadline = Deadline.after(1);
+        Thread.sleep(5);
+
+        try (Deadline.Scope ignored = deadline.attach()) {
+            assertFailsAfterAttempts(retrier, failure, 1);
+        }
+    }
+
+    @Test
+    public void asyncFailureIsRetriedOnScheduler() throws Exception {
+        Retrier retrier = retrier(10, RetryOn.IO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retrier.executeAsync(() -> {
+            CompletableFuture<String> response = new CompletableFuture<>();
+            if (attempts.incrementAndGet() == 1) {
+                response.completeExceptionally(new ConnectException("connection refused"));
+            } else {
+                response.complete("value");
+            }
+            return response;
+        }).get(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        assertThat(result, is("value"));
+        assertThat(attempts.get(), is(2));
+    }
+
+    private void assertFailsAfterAttempts(Retrier retrier, RuntimeException failure, int expectedAttempts) {
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            retrier.execute(() -> {
+                attempts.incrementAndGet();
+                throw failure;
+            });
+            fail();
+        } catch (RuntimeException ex) {
+            assertThat(ex, sameInstance(failure));
+        }
+        assertThat(attempts.get(), is(expectedAttempts));
+    }
+
+    private Retrier retrier(double budgetPercent, RetryOn... retryOn) {
+        return new Retrier("test", scheduler, MAX_ATTEMPTS, 1, 5, Arrays.asList(retryOn), budgetPercent);
+    }
+}
@@ -0,0 +1,151 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ua.com.juja.microservices.teams.slackbot.exceptions.ServiceUnavailableException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ServiceGuardTest {
+    private static final int CALL_TIMEOUT = 1000;
+    private static final String UNAVAILABLE_MESSAGE = "Users service is not available";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CircuitBreaker breaker = new CircuitBreaker("users", 50, 2, 2, 60000, 1);
+    private final Bulkhead bulkhead = new Bulkhead(1, 10);
+    private final ServiceGuard guard = new ServiceGuard(breaker, bulkhead, UNAVAILABLE_MESSAGE);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void openCircuitRejectsCallsWithoutCallingService() {
+        failTwice(new ResourceAccessException("Connection refused"));
+        AtomicInteger calls = new AtomicInteger();
+
+        try {
+            guard.execute(calls::incrementAndGet);
+            fail();
+        } catch (ServiceUnavailableException ex) {
+            assertThat(ex.getMessage(), is(UNAVAILABLE_MESSAGE));
+        }
+        assertThat(calls.get(), is(0));
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void clientErrorsDoNotOpenCircuit() {
+        failTwice(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+        assertThat(guard.execute(() -> "value"), is("value"));
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void failedFuturesOpenCircuit() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new ResourceAccessException("Read timed out"));
+            CompletableFuture<String> result = guard.executeAsync(() -> failed);
+            assertTrue(result.isCompletedExceptionally());
+        }
+
+        CompletableFuture<String> rejected = guard.executeAsync(() -> CompletableFuture.completedFuture("value"));
+
+        assertCompletedWith(rejected, ServiceUnavailableException.class);
+        assertThat(bulkhead.getActiveCount(), is(0));
+    }
+
+    @Test
+    public void fullBulkheadRejectsCalls() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> slowCall = executor.submit(() -> guard.execute(() -> {
+            started.countDown();
+            await(release);
+            return "value";
+        }));
+        assertTrue(started.await(CALL_TIMEOUT, TimeUnit.MILLISECONDS));
+
+        try {
+            guard.execute(() -> "other");
+            fail();
+        } catch (ServiceUnavailableException ex) {
+            assertThat(bulkhead.getRejectedCount(), is(1L));
+        }
+        CompletableFuture<String> rejected = guard.executeAsync(() -> CompletableFuture.completedFuture("other"));
+        assertCompletedWith(rejected, ServiceUnavailableException.class);
+        release.countDown();
+
+        assertThat(slowCall.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS), is("value"));
+        assertThat(guard.execute(() -> "other"), is("other"));
+        assertThat(bulkhead.getActiveCount(), is(0));
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void failuresAfterDeadlineDoNotOpenCircuit() {
+        Deadline expired = Deadline.after(0);
+
+        for (int i = 0; i < 2; i++) {
+            try (Deadline.Scope ignored = expired.attach()) {
+                guard.execute(() -> {
+                    throw new ResourceAccessException("Read timed out");
+                });
+                fail();
+            } catch (ResourceAccessException ex) {
+                assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+            }
+        }
+
+        assertThat(guard.execute(() -> "value"), is("value"));
+    }
+
+    private void failTwice(RuntimeException failure) {
+        for (int i = 0; i < 2; i++) {
+            try {
+                guard.execute(() -> {
+                    throw failure;
+                });
+                fail();
+            } catch (RuntimeException ex) {
+                assertThat(ex, is(failure));
+            }
+        }
+    }
+
+    private static void assertCompletedWith(CompletableFuture<?> future, Class<?> exceptionClass) throws Exception {
+        try {
+            future.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(exceptionClass));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ua.com.juja.microservices.teams.slackbot.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+    private static final int CALL_TIMEOUT = 1000;
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersWithSameKeyShareOneCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "value";
+        }));
+        assertTrue(started.await(CALL_TIMEOUT, TimeUnit.MILLISECONDS));
+
+        CompletableFuture<String> follower = flight.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        release.countDown();
+
+        assertThat(leader.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS), is("value"));
+        assertThat(follower.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS), is("value"));
+        assertThat(calls.get(), is(1));
+        assertThat(flight.getExecutedCount(), is(1L));
+        assertThat(flight.getCoalescedCount(), is(1L));
+        assertThat(flight.getInFlightCount(), is(0));
+    }
+
+    @Test
+    public void followerGetsSameExceptionAsLeader() throws Exception {
+        CompletableFuture<String> leaderCall = new CompletableFuture<>();
+        CompletableFuture<String> leader = flight.executeAsync("key", () -> leaderCall);
+        Future<String> follower = executor.submit(() -> flight.execute("key", () -> "other"));
+        IllegalStateException error = new IllegalStateException("Remote service failed");
+        awaitCoalesced();
+
+        leaderCall.completeExceptionally(error);
+
+        try {
+            follower.get(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), sameInstance(error));
+        }
+        try {
+            leader.get();
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+
+    @Test
+    public void sequentialCallsAreNotCoalesced() {
+        flight.execute("key", () -> "first");
+
+        String actual = flight.execute("key", () -> "second");
+
+        assertThat(actual, is("second"));
+        assertThat(flight.getExecutedCount(), is(2L));
+        assertThat(flight.getCoalescedCount(), is(0L));
+    }
+
+    private void awaitCoalesced() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + CALL_TIMEOUT;
+        while (flight.getCoalescedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(CALL_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,9 +3,11 @@ package ua.com.juja.microservices.teams.slackbot.util;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -39,4 +41,27 @@ public class SlackIdHandlerTest {
         Set<String> expected = new HashSet<>(Arrays.asList("id1", "id2"));
         Assert.assertEquals(expected, SlackIdHandler.getSlackIdsFromText(text));
     }
+
+    @Test
+    public void getSlackIdsFromTextSkipsUnterminatedAndInvalidMentions() {
+        String text = "<@ <@a b> <@> <@id1 <@<@id2> <@12345678901234567890123> <@id3";
+        Set<String> expected = new HashSet<>(Collections.singletonList("id2"));
+        Assert.assertEquals(expected, SlackIdHandler.getSlackIdsFromText(text));
+    }
+
+    @Test
+    public void getSlackIdsFromTextKeepsOrderAndSkipsDuplicates() {
+        String text = "<@id2> <@id1|ivan> <@id2|alex> <@slack.id_3-x>";
+        List<String> expected = Arrays.asList("id2", "id1", "slack.id_3-x");
+        Assert.assertEquals(expected, new ArrayList<>(SlackIdHandler.getSlackIdsFromText(text)));
+    }
+
+    @Test
+    public void getSlackIdsFromTextStopsAfterMaxNumberOfSlackIds() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 150; i++) {
+            text.append("<@id").append(i).append("> ");
+        }
+        Assert.assertEquals(100, SlackIdHandler.getSlackIdsFromText(text.toString()).size());
+    }
 }
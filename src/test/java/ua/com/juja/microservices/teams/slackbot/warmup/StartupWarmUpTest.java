@@ -0,0 +1,137 @@
+package ua.com.juja.microservices.teams.slackbot.warmup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.mock.env.MockEnvironment;
+import ua.com.juja.microservices.teams.slackbot.cache.TeamView;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityCache;
+import ua.com.juja.microservices.teams.slackbot.cache.UserIdentityStore;
+import ua.com.juja.microservices.teams.slackbot.model.teams.Team;
+import ua.com.juja.microservices.teams.slackbot.model.users.User;
+import ua.com.juja.microservices.teams.slackbot.repository.TeamRepository;
+import ua.com.juja.microservices.teams.slackbot.repository.UserRepository;
+import ua.com.juja.microservices.teams.slackbot.service.impl.TeamViewSynchronizer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class StartupWarmUpTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    private final TeamRepository teamRepository = mock(TeamRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final List<User> users = Arrays.asList(new User("uuid1", "slack-id1"), new User("uuid2", "slack-id2"),
+            new User("uuid3", "slack-id3"), new User("uuid4", "slack-id4"));
+    private final Team team = new Team(new LinkedHashSet<>(Arrays.asList("uuid1", "uuid2", "uuid3", "uuid4")));
+    private TeamView teamView;
+    private TeamViewSynchronizer synchronizer;
+    private MockEnvironment environment;
+    private UserIdentityStore identityStore;
+    private UserIdentityCache identityCache;
+    private StartupWarmUp warmUp;
+
+    @Before
+    public void setup() throws IOException {
+        teamView = new TeamView(100, 60, 300);
+        environment = SyntheticCommandsTest.environmentWithMessages()
+                .withProperty("teams.slackbot.view.syncBatchSize", "10")
+                .withProperty("teams.slackbot.view.syncIntervalSeconds", "3600")
+                .withProperty("teams.slackbot.view.syncRoundMillis", "1500")
+                .withProperty("teams.slackbot.view.maxSize", "100")
+                .withProperty("teams.slackbot.view.maxStalenessSeconds", "10800")
+                .withProperty("teams.slackbot.warmup.enabled", "true")
+                .withProperty("teams.slackbot.warmup.timeoutSeconds", "60")
+                .withProperty("teams.slackbot.warmup.preloadUsers", "100")
+                .withProperty("teams.slackbot.warmup.batchSize", "4")
+                .withProperty("teams.slackbot.warmup.threads", "2")
+                .withProperty("teams.slackbot.warmup.syntheticRounds", "10");
+        synchronizer = new TeamViewSynchronizer(teamView, teamRepository, userRepository, environment);
+        identityStore = new UserIdentityStore(folder.getRoot().toPath(), 3600);
+        identityCache = new UserIdentityCache(100, 3600);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (warmUp != null) {
+            warmUp.destroy();
+        }
+        synchronizer.destroy();
+        identityStore.close();
+    }
+
+    @Test
+    public void instanceIsOutOfServiceUntilWarmUpIsDone() {
+        warmUp = createWarmUp();
+
+        assertThat(warmUp.health().getStatus(), is(Status.OUT_OF_SERVICE));
+        warmUp.warmUp();
+
+        Health health = warmUp.health();
+        assertThat(health.getStatus(), is(Status.UP));
+        assertThat(health.getDetails().get("warmUp"), is(StartupWarmUp.DONE));
+    }
+
+    @Test
+    public void storedUsersAreCachedAndTheirTeamsLoadedOnce() {
+        identityStore.putAll(users);
+        given(teamRepository.getTeam(anyString())).willReturn(team);
+        given(userRepository.findUsersByUuids(anyListOf(String.class))).willReturn(users);
+        warmUp = createWarmUp();
+
+        warmUp.warmUp();
+
+        assertThat(identityCache.getAllBySlackIds(Arrays.asList("slack-id1", "slack-id4")).size(), is(2));
+        assertThat(teamView.getTeamSlackIds("slack-id2"),
+                containsInAnyOrder("slack-id1", "slack-id2", "slack-id3", "slack-id4"));
+        assertThat(warmUp.health().getDetails().get("preloadedUsers"), is(4L));
+        assertThat(warmUp.health().getDetails().get("loadedTeams"), is(1L));
+        verify(teamRepository).getTeam(anyString());
+    }
+
+    @Test
+    public void warmUpWhichDoesNotFinishInTimeIsReportedReady() {
+        environment.setProperty("teams.slackbot.warmup.timeoutSeconds", "0");
+        warmUp = createWarmUp();
+
+        warmUp.warmUp();
+
+        Health health = warmUp.health();
+        assertThat(health.getStatus(), is(Status.UP));
+        assertThat(health.getDetails().get("warmUp"), is(StartupWarmUp.TIMED_OUT));
+    }
+
+    @Test
+    public void disabledWarmUpIsReportedReadyAtOnce() {
+        environment.setProperty("teams.slackbot.warmup.enabled", "false");
+        warmUp = createWarmUp();
+
+        assertThat(warmUp.health().getStatus(), is(Status.UP));
+        assertThat(warmUp.health().getDetails().get("warmUp"), is(StartupWarmUp.DISABLED));
+    }
+
+    @SuppressWarnings("unchecked")
+    private StartupWarmUp createWarmUp() {
+        ObjectProvider<UserIdentityStore> storeProvider = mock(ObjectProvider.class);
+        given(storeProvider.getIfAvailable()).willReturn(identityStore);
+        ObjectProvider<UserIdentityCache> cacheProvider = mock(ObjectProvider.class);
+        given(cacheProvider.getIfAvailable()).willReturn(identityCache);
+        return new StartupWarmUp(teamView, synchronizer, storeProvider, cacheProvider, environment);
+    }
+}
@@ -0,0 +1,49 @@
+package ua.com.juja.microservices.teams.slackbot.warmup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.mock.env.MockEnvironment;
+import ua.com.juja.microservices.teams.slackbot.util.Deadline;
+import ua.com.juja.microservices.teams.slackbot.util.LogContext;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class SyntheticCommandsTest {
+    private SyntheticCommands syntheticCommands;
+
+    static MockEnvironment environmentWithMessages() throws IOException {
+        MockEnvironment environment = new MockEnvironment();
+        environment.getPropertySources().addLast(new PropertiesPropertySource("messages",
+                PropertiesLoaderUtils.loadProperties(new ClassPathResource("messages/message.properties"))));
+        return environment;
+    }
+
+    @Before
+    public void setup() throws IOException {
+        syntheticCommands = new SyntheticCommands(environmentWithMessages());
+    }
+
+    @Test
+    public void allRoundsRunAgainstStubs() {
+        int rounds = syntheticCommands.run(100, Deadline.after(60_000));
+
+        assertThat(rounds, is(100));
+        assertThat(MDC.get(LogContext.SYNTHETIC), nullValue());
+    }
+
+    @Test
+    public void noRoundRunsOncePassedDeadline() throws InterruptedException {
+        Deadline deadline = Deadline.after(1);
+        Thread.sleep(5);
+
+        assertThat(syntheticCommands.run(100, deadline), is(0));
+    }
+}